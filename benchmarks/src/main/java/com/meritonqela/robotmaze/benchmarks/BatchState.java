@@ -0,0 +1,27 @@
+package com.meritonqela.robotmaze.benchmarks;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * The batch size of the shared genetic algorithm, for the benchmarks that
+ * evaluate whole populations. calcFitness evaluates one robot at a time
+ * whatever the batch size, so it doesn't take this state and isn't run
+ * once per batch size.
+ *
+ * @author Meriton Çela
+ */
+@State(Scope.Thread)
+public class BatchState {
+
+    /** Robots evaluated in lockstep by evalPopulation, 0 runs them one by one */
+    @Param({"0", "64"})
+    public int batchSize;
+
+    @Setup
+    public void setUp(BenchmarkState state) {
+        state.ga.setBatchSize(this.batchSize);
+    }
+}
@@ -0,0 +1,63 @@
+package com.meritonqela.robotmaze.benchmarks;
+
+import com.meritonqela.robotmaze.GeneticAlgorithm;
+import com.meritonqela.robotmaze.Individual;
+import com.meritonqela.robotmaze.Maze;
+import com.meritonqela.robotmaze.MazeGenerator;
+import com.meritonqela.robotmaze.Population;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * The genetic algorithm, maze and evaluated population shared by the
+ * benchmarks, parameterized by population size, chromosome length, maze
+ * size and maze style. Mazes are generated with a fixed seed, so runs
+ * measure the same maze. Robots make as many moves as the chromosome has
+ * genes. A packed maze of more than CompiledMaze.TABLE_CELL_LIMIT cells,
+ * mazeSize 5000 for instance, measures robots stepping on wall bits. The
+ * batch size is set by BatchState, for the benchmarks that use it.
+ *
+ * @author Meriton Çela
+ */
+@State(Scope.Thread)
+public class BenchmarkState {
+
+    @Param({"200", "5000"})
+    public int populationSize;
+
+    @Param({"150", "1000"})
+    public int chromosomeLength;
+
+    @Param({"8", "100", "1000"})
+    public int mazeSize;
+
+    @Param({"RECURSIVE_BACKTRACKER"})
+    public MazeGenerator.Style mazeStyle;
+
+    /** Whether the maze is packed into wall bits, see Maze.toPacked */
+    @Param({"false"})
+    public boolean packed;
+
+    GeneticAlgorithm ga;
+    Maze maze;
+    Population population;
+
+    @Setup
+    public void setUp() {
+        this.maze = new MazeGenerator(42).generate(this.mazeStyle, this.mazeSize, this.mazeSize);
+        if (this.packed) {
+            this.maze = this.maze.toPacked();
+        }
+        this.ga = new GeneticAlgorithm(this.populationSize, 0.01, 0.9, 2, 10);
+        this.ga.setMaxMoves(this.chromosomeLength);
+        this.population = this.ga.initPopulation(this.chromosomeLength);
+        this.ga.evalPopulation(this.population, this.maze);
+    }
+
+    /** Change the first gene of an individual, so its robot has to run again from the start */
+    static void touch(Individual individual) {
+        individual.setGene(0, individual.getGene(0) % 4 + 1);
+    }
+}
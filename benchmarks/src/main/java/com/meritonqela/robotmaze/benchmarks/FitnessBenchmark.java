@@ -0,0 +1,53 @@
+package com.meritonqela.robotmaze.benchmarks;
+
+import com.meritonqela.robotmaze.Individual;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures fitness evaluation. calcFitness reports evaluations per second,
+ * evalPopulation reports whole populations per second, to be multiplied by
+ * the population size.
+ *
+ * Every benchmarked individual has its first gene changed, so incremental
+ * evaluation can't skip the robot and each evaluation is a full run.
+ *
+ * @author Meriton Çela
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class FitnessBenchmark {
+    private int next;
+
+    @Benchmark
+    public double calcFitness(BenchmarkState state) {
+        Individual[] individuals = state.population.getIndividuals();
+        Individual individual = individuals[this.next];
+        this.next = (this.next + 1) % individuals.length;
+
+        BenchmarkState.touch(individual);
+        return state.ga.calcFitness(individual, state.maze);
+    }
+
+    @Benchmark
+    public double evalPopulation(BenchmarkState state, BatchState batch) {
+        for (Individual individual : state.population.getIndividuals()) {
+            BenchmarkState.touch(individual);
+        }
+        state.ga.evalPopulation(state.population, state.maze);
+        return state.population.getPopulationFitness();
+    }
+}
@@ -0,0 +1,93 @@
+package com.meritonqela.robotmaze.benchmarks;
+
+import com.meritonqela.robotmaze.FitnessCache;
+import com.meritonqela.robotmaze.GeneticAlgorithm;
+import com.meritonqela.robotmaze.Individual;
+import com.meritonqela.robotmaze.Maze;
+import com.meritonqela.robotmaze.Population;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares a fitness cache miss with the robot run it is meant to save.
+ * lookupMiss looks up individuals the cache has never seen, run evaluates
+ * them without a cache. A miss has to be much cheaper than a run, or the
+ * cache slows down every evaluation it doesn't save.
+ *
+ * The maze is an open room, the goal in the middle, so random robots live
+ * long and the cache is full of long runs of many different lengths, the
+ * worst case for a lookup.
+ *
+ * @author Meriton Çela
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class FitnessCacheBenchmark {
+
+    @Param({"201"})
+    public int mazeSize;
+
+    @Param({"20000"})
+    public int chromosomeLength;
+
+    @Param({"10000"})
+    public int cacheCapacity;
+
+    private Maze maze;
+    private FitnessCache cache;
+    private GeneticAlgorithm uncached;
+    private Individual[] probes;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        int[][] room = new int[this.mazeSize][this.mazeSize];
+        room[0][0] = 4;
+        room[this.mazeSize / 2][this.mazeSize / 2] = 2;
+        this.maze = new Maze(room);
+
+        GeneticAlgorithm cached = new GeneticAlgorithm(this.cacheCapacity, 0.01, 0.9, 2, 10);
+        cached.setMaxMoves(this.chromosomeLength);
+        cached.setFitnessCacheCapacity(this.cacheCapacity);
+        cached.evalPopulation(cached.initPopulation(this.chromosomeLength), this.maze);
+        this.cache = cached.getFitnessCache();
+
+        this.uncached = new GeneticAlgorithm(256, 0.01, 0.9, 2, 10);
+        this.uncached.setMaxMoves(this.chromosomeLength);
+        Population population = this.uncached.initPopulation(this.chromosomeLength);
+        this.probes = population.getIndividuals();
+    }
+
+    private Individual nextProbe() {
+        Individual probe = this.probes[this.next];
+        this.next = (this.next + 1) % this.probes.length;
+        return probe;
+    }
+
+    @Benchmark
+    public long lookupMiss() {
+        return this.cache.lookup(this.nextProbe(), this.maze);
+    }
+
+    @Benchmark
+    public double run() {
+        Individual probe = this.nextProbe();
+        BenchmarkState.touch(probe);
+        return this.uncached.calcFitness(probe, this.maze);
+    }
+}
@@ -0,0 +1,59 @@
+package com.meritonqela.robotmaze.benchmarks;
+
+import com.meritonqela.robotmaze.Population;
+import com.meritonqela.robotmaze.PopulationPool;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures whole generations: breeding and evaluating a population, either
+ * allocating a new population each generation or recycling the two
+ * populations of a pool. Run with {@code -prof gc} to compare the
+ * allocation rates.
+ *
+ * @author Meriton Çela
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GenerationBenchmark {
+
+    @Benchmark
+    public Population allocating(BenchmarkState state, BatchState batch) {
+        Population population = state.ga.crossoverPopulation(state.population);
+        population = state.ga.mutatePopulation(population);
+        state.ga.evalPopulation(population, state.maze);
+        state.population = population;
+        return population;
+    }
+
+    @Benchmark
+    public Population pooled(PoolState pool, BenchmarkState state, BatchState batch) {
+        Population population = state.ga.breed(pool.pool);
+        state.ga.evalPopulation(population, state.maze);
+        return population;
+    }
+
+    @State(Scope.Thread)
+    public static class PoolState {
+        PopulationPool pool;
+
+        @Setup
+        public void setUp(BenchmarkState state) {
+            this.pool = state.ga.initPopulationPool(state.chromosomeLength);
+            state.ga.evalPopulation(this.pool.getCurrent(), state.maze);
+        }
+    }
+}
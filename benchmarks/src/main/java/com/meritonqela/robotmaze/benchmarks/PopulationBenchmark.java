@@ -0,0 +1,85 @@
+package com.meritonqela.robotmaze.benchmarks;
+
+import com.meritonqela.robotmaze.Individual;
+import com.meritonqela.robotmaze.Population;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the population level operators of a generation: ranking,
+ * selection, crossover and mutation.
+ *
+ * Crossover and mutation work on a copy of the shared population, made
+ * again before each invocation, so mutations don't pile up over the run
+ * and every invocation starts from the evaluated population.
+ *
+ * @author Meriton Çela
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PopulationBenchmark {
+
+    @Benchmark
+    public Individual getFittest(BenchmarkState state) {
+        // Start over as if the population was just evaluated
+        state.population.invalidateRanking();
+        return state.population.getFittest(0);
+    }
+
+    @Benchmark
+    public Individual getFittestFullRanking(BenchmarkState state) {
+        state.population.invalidateRanking();
+        return state.population.getFittest(state.population.size() - 1);
+    }
+
+    @Benchmark
+    public Individual selectParent(BenchmarkState state) {
+        return state.ga.selectParent(state.population);
+    }
+
+    @Benchmark
+    public Population crossoverPopulation(BenchmarkState state, CopyState copy) {
+        return state.ga.crossoverPopulation(copy.population);
+    }
+
+    @Benchmark
+    public Population mutatePopulation(BenchmarkState state, CopyState copy) {
+        return state.ga.mutatePopulation(copy.population);
+    }
+
+    @State(Scope.Thread)
+    public static class CopyState {
+        Population population;
+
+        @Setup(Level.Invocation)
+        public void setUp(BenchmarkState state) {
+            if (this.population == null) {
+                this.population = new Population(state.population.size());
+                for (int i = 0; i < state.population.size(); i++) {
+                    this.population.setIndividual(i, new Individual(state.chromosomeLength));
+                }
+            }
+            for (int i = 0; i < state.population.size(); i++) {
+                Individual original = state.population.getIndividual(i);
+                Individual individual = this.population.getIndividual(i);
+                individual.copyFrom(original);
+                individual.setFitness(original.getFitness());
+            }
+            this.population.invalidateRanking();
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.meritonqela.robotmaze;
+
+/**
+ * Evaluates a block of robots in lockstep. Instead of running each robot to
+ * the end before starting the next, every robot of the block makes its
+ * first move, then every robot its second move, and so on.
+ *
+ * The state of the robots is kept in parallel arrays, one entry per lane:
+ * the cell, the packed word of genes being read, the moves and the steps.
+ * Each step is the same few array operations for every lane, with no object
+ * to dereference. Destroyed robots and robots at the goal are masked out by
+ * removing their lane from the list of active lanes, so the loop only visits
+ * robots that are still moving.
+ *
+ * The results are exactly the ones of a Robot run: the moves with the bonus
+ * of 100 for the goal, and the steps. The robot's cell is written to each
+ * individual's checkpoints on the way, like a Robot does, so incremental
+ * evaluation works on individuals evaluated in a batch. A robot can also
+ * resume from one of its checkpoints, like Robot.resume: its lane joins the
+ * others once they reach the checkpoint's step.
+ *
+ * In a maze without a transition table, each move is asked of the compiled
+ * maze instead of looked up.
+ *
+ * An evaluator keeps its arrays between batches and is meant to be used by
+ * one thread.
+ *
+ * @author Meriton Çela
+ */
+public class BatchEvaluator {
+    private final Individual[] individuals;
+    private final int[][] checkpoints;
+    private final int[] cells;
+    private final long[] words;
+    private final int[] moves;
+    private final int[] steps;
+    private final int[] active;
+    // Lanes in the order of the step they start at
+    private final int[] starts;
+    private final int[] startCells;
+    private final int[] waiting;
+    private int size;
+
+    /** Initializes an empty batch
+     * @param capacity
+     *            The number of robots evaluated in lockstep
+     */
+    public BatchEvaluator(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.individuals = new Individual[capacity];
+        this.checkpoints = new int[capacity][];
+        this.cells = new int[capacity];
+        this.words = new long[capacity];
+        this.moves = new int[capacity];
+        this.steps = new int[capacity];
+        this.active = new int[capacity];
+        this.starts = new int[capacity];
+        this.startCells = new int[capacity];
+        this.waiting = new int[capacity];
+    }
+
+    /** Add an individual to the batch
+     * @param individual
+     *            The individual to evaluate
+     * @return boolean True if the batch is full
+     */
+    public boolean add(Individual individual) {
+        return this.add(individual, 0, -1);
+    }
+
+    /** Add an individual to the batch, its robot resuming from a checkpoint
+     * @param individual
+     *            The individual to evaluate
+     * @param step
+     *            The step of the checkpoint, a multiple of GENES_PER_WORD
+     * @param cell
+     *            The cell the robot was in at that step, alive and away from the goal
+     * @return boolean True if the batch is full
+     */
+    public boolean add(Individual individual, int step, int cell) {
+        if (step % Individual.GENES_PER_WORD != 0) {
+            throw new IllegalArgumentException("step must be a checkpoint's step");
+        }
+        int lane = this.size++;
+        this.individuals[lane] = individual;
+        this.starts[lane] = step;
+        this.startCells[lane] = cell;
+
+        // Keep the lanes waiting to start in order
+        int i = lane;
+        for (; i > 0 && this.starts[this.waiting[i - 1]] > step; i--) {
+            this.waiting[i] = this.waiting[i - 1];
+        }
+        this.waiting[i] = lane;
+        return this.size == this.individuals.length;
+    }
+
+    /** Gets number of individuals the batch holds */
+    public int getCapacity() {
+        return this.individuals.length;
+    }
+
+    /** Gets number of individuals in the batch */
+    public int size() {
+        return this.size;
+    }
+
+    /** Remove every individual from the batch */
+    public void clear() {
+        for (int lane = 0; lane < this.size; lane++) {
+            this.individuals[lane] = null;
+            this.checkpoints[lane] = null;
+        }
+        this.size = 0;
+    }
+
+    /** Gets the individual of a lane */
+    public Individual getIndividual(int lane) {
+        return this.individuals[lane];
+    }
+
+    /** Gets the moves of a lane's robot after run, like Robot.moves */
+    public int getMoves(int lane) {
+        return this.moves[lane];
+    }
+
+    /** Gets the steps of a lane's robot after run, like Robot.step */
+    public int getSteps(int lane) {
+        return this.steps[lane];
+    }
+
+    /** Run every robot of the batch from the start of the maze, or the checkpoint it was added with
+     * @param maze
+     *            The maze the robots run in
+     * @param maxMoves
+     *            The maximum number of moves a robot can make
+     */
+    public void run(Maze maze, int maxMoves) {
+        CompiledMaze compiled = maze.getCompiled();
+        final int[] transitions = compiled.getTransitions();
+        final int[] cells = this.cells;
+        final long[] words = this.words;
+        final int[] active = this.active;
+
+        if (compiled.isStartGoal()) {
+            // Every robot starts on the goal
+            for (int lane = 0; lane < this.size; lane++) {
+                this.moves[lane] = 1 + 100;
+                this.steps[lane] = 0;
+            }
+            return;
+        }
+
+        for (int lane = 0; lane < this.size; lane++) {
+            if (this.individuals[lane].getChromosomeLength() < maxMoves) {
+                throw new IllegalArgumentException("chromosomes must have at least maxMoves genes");
+            }
+            cells[lane] = this.starts[lane] > 0 ? this.startCells[lane] : compiled.getStartCell();
+            this.checkpoints[lane] = this.individuals[lane].getCheckpoints();
+        }
+
+        int activeCount = 0;
+        int started = 0;
+        for (int step = 0; step < maxMoves && (activeCount > 0 || started < this.size); step++) {
+            int shift = (step % Individual.GENES_PER_WORD) << 1;
+            if (shift == 0) {
+                // Start the lanes resuming from this step
+                if (activeCount == 0) {
+                    step = Math.min(maxMoves, this.starts[this.waiting[started]]);
+                    if (step == maxMoves) {
+                        break;
+                    }
+                }
+                while (started < this.size && this.starts[this.waiting[started]] == step) {
+                    active[activeCount++] = this.waiting[started++];
+                }
+
+                // Every lane reached a new word, take a checkpoint and load its genes
+                int word = step / Individual.GENES_PER_WORD;
+                for (int i = 0; i < activeCount; i++) {
+                    int lane = active[i];
+                    this.checkpoints[lane][word] = cells[lane];
+                    words[lane] = this.individuals[lane].getWord(word);
+                }
+            }
+
+            for (int i = 0; i < activeCount; i++) {
+                int lane = active[i];
+                int gene = (int) (words[lane] >>> shift & 3);
+                int next = transitions != null
+                        ? transitions[(cells[lane] << 2) + gene]
+                        : compiled.next(cells[lane], gene + 1);
+                if (next >= 0) {
+                    cells[lane] = next;
+                    continue;
+                }
+
+                // The robot is destroyed or at the goal, counted on the move after it
+                this.steps[lane] = step + 1;
+                this.moves[lane] = next == CompiledMaze.DEAD ? step + 1 : step + 2 + 100;
+                cells[lane] = CompiledMaze.cellOf(next);
+
+                // Mask the lane out, the last active lane takes its place
+                active[i--] = active[--activeCount];
+            }
+        }
+
+        // The rest reached the maximum number of moves, some maybe before they started
+        for (int i = 0; i < activeCount; i++) {
+            int lane = active[i];
+            this.steps[lane] = maxMoves;
+            this.moves[lane] = maxMoves + 1;
+        }
+        for (int i = started; i < this.size; i++) {
+            int lane = this.waiting[i];
+            this.steps[lane] = maxMoves;
+            this.moves[lane] = maxMoves + 1;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.meritonqela.robotmaze;
+
+import java.nio.LongBuffer;
+
+/**
+ * A maze compiled into a flat transition table. For every cell and direction
+ * the table holds the cell the robot ends up in, or a sentinel when the move
+ * destroys the robot or reaches the goal. Cells are numbered row by row, so
+ * cell = x * columns + y.
+ *
+ * Stepping a robot is a single array lookup, without bounds checks or walls
+ * to test. A compiled maze is immutable and is shared by all threads
+ * evaluating robots in the same maze.
+ *
+ * The table takes 16 bytes per cell, so a maze of more than TABLE_CELL_LIMIT
+ * cells isn't tabulated. Its transitions are worked out on each move from
+ * the wall bits of the packed maze instead, with the same results, except
+ * that only the maze's goal position counts as the goal.
+ *
+ * @author Meriton Çela
+ */
+public final class CompiledMaze {
+    /** Transition of a move into a wall or out of the maze */
+    public static final int DEAD = -1;
+
+    /** Flag set on transitions into a goal cell, the cell is in the remaining bits */
+    public static final int GOAL = Integer.MIN_VALUE;
+
+    /** Most cells of a maze given a transition table, 256 MB of table */
+    public static final int TABLE_CELL_LIMIT = 1 << 24;
+
+    // The table, or null if the maze isn't tabulated
+    private final int[] transitions;
+    // Wall bits and goal of a maze that isn't tabulated
+    private final LongBuffer walls;
+    private final int goalCell;
+    private final int cells;
+    private final int columns;
+    private final int startCell;
+    private final boolean startIsGoal;
+
+    /** Compiles a maze
+     * @param maze
+     *            The maze to compile
+     * @param tabulate
+     *            Whether to build the transition table, or step on the wall bits
+     */
+    CompiledMaze(Maze maze, boolean tabulate) {
+        int rows = maze.getMaxX() + 1;
+        this.columns = maze.getMaxY() + 1;
+        this.cells = rows * this.columns;
+        this.startCell = maze.getStartX() * this.columns + maze.getStartY();
+        this.startIsGoal = maze.getPositionValue(maze.getStartX(), maze.getStartY()) == 4;
+        this.goalCell = maze.getEndX() * this.columns + maze.getEndY();
+
+        if (!tabulate) {
+            this.transitions = null;
+            // A bit per cell, packing the grid if need be
+            this.walls = maze.toPacked().getWalls();
+            return;
+        }
+        this.walls = null;
+        this.transitions = new int[this.cells * 4];
+
+        for (int x = 0; x < rows; x++) {
+            for (int y = 0; y < this.columns; y++) {
+                int index = (x * this.columns + y) * 4;
+                // Same order as the genes: up, left, right, down
+                this.transitions[index] = this.transition(maze, x - 1, y);
+                this.transitions[index + 1] = this.transition(maze, x, y - 1);
+                this.transitions[index + 2] = this.transition(maze, x, y + 1);
+                this.transitions[index + 3] = this.transition(maze, x + 1, y);
+            }
+        }
+    }
+
+    private int transition(Maze maze, int x, int y) {
+        int value = maze.getPositionValue(x, y);
+        if (value == 1) {
+            return DEAD;
+        }
+        int cell = x * this.columns + y;
+        return value == 4 ? GOAL | cell : cell;
+    }
+
+    /** Gets the transition table, indexed by cell * 4 + direction - 1
+     * @return int[] The transitions, not to be modified, or null if the maze isn't tabulated
+     */
+    public int[] getTransitions() {
+        return this.transitions;
+    }
+
+    /** Gets the transition for a move
+     * @param cell
+     *            The cell the robot is in
+     * @param direction
+     *            The direction, 1 to 4 like the genes
+     * @return int The next cell, DEAD, or GOAL combined with the goal cell
+     */
+    public int next(int cell, int direction) {
+        if (this.transitions != null) {
+            return this.transitions[cell * 4 + direction - 1];
+        }
+
+        int target;
+        switch (direction) {
+            case 1:
+                target = cell - this.columns;
+                if (target < 0) {
+                    return DEAD;
+                }
+                break;
+            case 2:
+                if (cell % this.columns == 0) {
+                    return DEAD;
+                }
+                target = cell - 1;
+                break;
+            case 3:
+                if (cell % this.columns == this.columns - 1) {
+                    return DEAD;
+                }
+                target = cell + 1;
+                break;
+            default:
+                if (cell >= this.cells - this.columns) {
+                    return DEAD;
+                }
+                target = cell + this.columns;
+                break;
+        }
+        if ((this.walls.get(target >>> 6) & 1L << target) != 0) {
+            return DEAD;
+        }
+        return target == this.goalCell ? GOAL | target : target;
+    }
+
+    /** Checks if the maze has a transition table, see getTransitions */
+    public boolean isTabulated() {
+        return this.transitions != null;
+    }
+
+    /** Gets the cell of the starting position */
+    public int getStartCell() {
+        return this.startCell;
+    }
+
+    /** Checks if the robot starts on the goal */
+    public boolean isStartGoal() {
+        return this.startIsGoal;
+    }
+
+    /** Gets number of columns, the stride between rows of cells */
+    public int getColumns() {
+        return this.columns;
+    }
+
+    /** Checks if a transition reaches the goal */
+    public static boolean isGoal(int transition) {
+        return transition < DEAD;
+    }
+
+    /** Gets the cell a transition leads to, for a free or goal transition */
+    public static int cellOf(int transition) {
+        return transition & ~GOAL;
+    }
+}
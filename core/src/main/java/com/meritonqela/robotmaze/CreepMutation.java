@@ -0,0 +1,24 @@
+package com.meritonqela.robotmaze;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Creep mutation turns each picked gene's direction a quarter turn, left or
+ * right at random. It is the smallest change to a move: a robot never gets
+ * a picked move reversed, so a path is bent rather than folded back on
+ * itself.
+ *
+ * @author Meriton Çela
+ */
+public class CreepMutation extends PointMutation {
+    // The direction a quarter turn clockwise and counter clockwise of each
+    // gene, 1 up, 2 left, 3 right and 4 down
+    private static final int[] CLOCKWISE = {0, 3, 1, 4, 2};
+    private static final int[] COUNTER_CLOCKWISE = {0, 2, 4, 1, 3};
+
+    @Override
+    protected void mutateGene(Individual individual, int offset, RandomGenerator random) {
+        int gene = individual.getGene(offset);
+        individual.setGene(offset, random.nextBoolean() ? CLOCKWISE[gene] : COUNTER_CLOCKWISE[gene]);
+    }
+}
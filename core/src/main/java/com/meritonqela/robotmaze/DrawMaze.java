@@ -0,0 +1,203 @@
+package com.meritonqela.robotmaze;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.atomic.AtomicReference;
+
+/** DrawMaze draws a maze in a frame
+  *
+  * The maze is rasterized once into an image with a pixel per cell, which is
+  * scaled to fit the panel when painted. Updates can come from any thread:
+  * setMaze and showPath only hand the new grid or path over, and a Swing
+  * timer picks up the latest one at most maxFrameRate times per second,
+  * recolours the cells that changed and repaints their area. A thread
+  * producing updates faster than that never waits, the updates in between
+  * are dropped. The frame is created and shown on the event dispatch thread
+  * too, so the thread creating a DrawMaze doesn't wait for Swing either.
+  *
+  * @author Meriton Çela
+  */
+public class DrawMaze extends JPanel {
+    private static final long serialVersionUID = 1L;
+
+    /** Smallest cell size in pixels that gets grid lines */
+    private static final int GRID_LINE_CELL_SIZE = 8;
+
+    private final int rows;
+    private final int columns;
+    // Cell values as shown, and the maze without any path
+    private final int[] shown;
+    private final int[] base;
+    private final BufferedImage image;
+    private int[] path = new int[0];
+
+    private final AtomicReference<int[][]> pendingMaze = new AtomicReference<>();
+    private final AtomicReference<int[]> pendingPath = new AtomicReference<>();
+    private final Timer timer;
+
+    DrawMaze(int[][] maze, String title){
+        this.rows = maze.length;
+        this.columns = maze[0].length;
+        this.shown = new int[this.rows * this.columns];
+        this.base = new int[this.rows * this.columns];
+        this.image = new BufferedImage(this.columns, this.rows, BufferedImage.TYPE_INT_RGB);
+        for (int row = 0; row < this.rows; row++) {
+            for (int col = 0; col < this.columns; col++) {
+                int cell = row * this.columns + col;
+                this.base[cell] = this.shown[cell] = maze[row][col];
+                this.image.setRGB(col, row, colorOf(maze[row][col]));
+            }
+        }
+
+        this.timer = new Timer(1000 / 30, e -> this.applyUpdates());
+
+        // 30px cells as long as the maze fits on the screen
+        int cellSize = Math.max(1, Math.min(30, Math.min(800 / this.columns, 800 / this.rows)));
+        SwingUtilities.invokeLater(() -> {
+            setPreferredSize(new Dimension(cellSize * this.columns, cellSize * this.rows));
+            setBackground(Color.WHITE);
+
+            JFrame f = new JFrame();
+            f.getContentPane().add(this);
+            f.setTitle(title);
+            f.pack();
+            f.setVisible(true);
+            f.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+            this.timer.start();
+        });
+    }
+
+    /** Show a maze of the same size, for instance a maze traced by a robot
+     *
+     * The grid is handed over, not copied, and must not be changed afterwards.
+     * Its cells are shown as they are, the path of showPath is cleared.
+     *
+     * @param otherMaze
+     *            The maze to show
+     */
+    public void setMaze(int [][] otherMaze){
+        if (otherMaze.length != this.rows || otherMaze[0].length != this.columns) {
+            throw new IllegalArgumentException("maze must be " + this.rows + "x" + this.columns);
+        }
+        this.pendingMaze.set(otherMaze);
+    }
+
+    /** Show a robot's path over the maze, replacing the path shown before
+     *
+     * The path is handed over, not copied, and must not be changed afterwards.
+     *
+     * @param path
+     *            The visited cells, as returned by Robot.tracePath
+     */
+    public void showPath(int[] path) {
+        this.pendingPath.set(path);
+    }
+
+    /** Set the highest number of times per second updates are drawn, 30 by default */
+    public void setMaxFrameRate(int maxFrameRate) {
+        if (maxFrameRate < 1) {
+            throw new IllegalArgumentException("maxFrameRate must be positive");
+        }
+        this.timer.setDelay(1000 / maxFrameRate);
+    }
+
+    /** Draw the latest updates, on the event dispatch thread */
+    private void applyUpdates() {
+        int[][] maze = this.pendingMaze.getAndSet(null);
+        int[] path = this.pendingPath.getAndSet(null);
+        if (maze == null && path == null) {
+            return;
+        }
+
+        Rectangle dirty = null;
+        if (maze != null) {
+            for (int row = 0; row < this.rows; row++) {
+                for (int col = 0; col < this.columns; col++) {
+                    int cell = row * this.columns + col;
+                    this.base[cell] = maze[row][col];
+                }
+            }
+            this.path = new int[0];
+        }
+        if (path != null) {
+            // Take the old path off
+            for (int cell : this.path) {
+                dirty = this.setCell(cell, this.base[cell], dirty);
+            }
+            this.path = path;
+        }
+        if (maze != null) {
+            for (int cell = 0; cell < this.base.length; cell++) {
+                dirty = this.setCell(cell, this.base[cell], dirty);
+            }
+        }
+        for (int cell : this.path) {
+            dirty = this.setCell(cell, 5, dirty);
+        }
+
+        if (dirty != null) {
+            // Repaint the scaled area of the changed cells only
+            double scale = this.scale();
+            repaint((int) Math.floor(dirty.x * scale), (int) Math.floor(dirty.y * scale),
+                    (int) Math.ceil(dirty.width * scale) + 2, (int) Math.ceil(dirty.height * scale) + 2);
+        }
+    }
+
+    /** Recolour a cell if its value changed, growing the dirty area */
+    private Rectangle setCell(int cell, int value, Rectangle dirty) {
+        if (this.shown[cell] == value) {
+            return dirty;
+        }
+        this.shown[cell] = value;
+        int row = cell / this.columns;
+        int col = cell % this.columns;
+        this.image.setRGB(col, row, colorOf(value));
+        if (dirty == null) {
+            return new Rectangle(col, row, 1, 1);
+        }
+        dirty.add(new Rectangle(col, row, 1, 1));
+        return dirty;
+    }
+
+    /** Gets the size of a cell in pixels, cells are square and fit the panel */
+    private double scale() {
+        return Math.min((double) getWidth() / this.columns, (double) getHeight() / this.rows);
+    }
+
+    public void paintComponent(Graphics g)
+    {   super.paintComponent(g);
+        Graphics2D g2 = (Graphics2D) g;
+        double scale = this.scale();
+        int width = (int) Math.round(scale * this.columns);
+        int height = (int) Math.round(scale * this.rows);
+
+        // Keep cells sharp when enlarged, blend them when there are more cells than pixels
+        g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION, scale >= 1
+                ? RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR
+                : RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g2.drawImage(this.image, 0, 0, width, height, null);
+
+        if (scale >= GRID_LINE_CELL_SIZE) {
+            g2.setColor(Color.BLACK);
+            for (int row = 0; row <= this.rows; row++) {
+                int y = (int) Math.round(row * scale);
+                g2.drawLine(0, y, width, y);
+            }
+            for (int col = 0; col <= this.columns; col++) {
+                int x = (int) Math.round(col * scale);
+                g2.drawLine(x, 0, x, height);
+            }
+        }
+    }
+
+    private static int colorOf(int value) {
+        switch (value) {
+            case 1 : return Color.BLACK.getRGB();
+            case 2 : return Color.RED.getRGB();
+            case 4 : return Color.BLUE.getRGB();
+            case 5 : return Color.GREEN.getRGB();
+            default : return Color.WHITE.getRGB();
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.meritonqela.robotmaze;
+
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Evaluates offspring while they are being bred. The breeding thread hands
+ * each offspring over as soon as it is bred, through a bounded queue, to
+ * evaluation workers that run its robot. A full queue makes the breeding
+ * thread wait, so the offspring waiting for a robot never exceed the
+ * capacity.
+ *
+ * A worker takes as many waiting offspring as the genetic algorithm's batch
+ * size, or one without batches, and evaluates them together, see
+ * GeneticAlgorithm.setBatchSize. The workers replace the genetic
+ * algorithm's evaluation parallelism, which the pipeline doesn't use.
+ *
+ * Evaluated offspring are either only counted, when a whole generation is
+ * bred before the next, or queued back to the breeding thread, which puts
+ * them into the population one at a time in steady state replacement. See
+ * EvolutionEngine.setPipeline.
+ *
+ * The depth of the queues, and how often each stage had to wait for the
+ * other, tell which stage holds the pipeline up: a breeding thread that
+ * waits often needs more evaluators, evaluators that wait often need a
+ * faster breeding thread, or fewer of them.
+ *
+ * @author Meriton Çela
+ */
+public class EvaluationPipeline {
+    private final GeneticAlgorithm ga;
+    private final Maze maze;
+    private final boolean steadyState;
+    private final BlockingQueue<Individual> bred;
+    private final BlockingQueue<Individual> evaluated = new LinkedBlockingQueue<>();
+    private final Thread[] workers;
+    private final int batchSize;
+
+    // Evaluations finished, for whole generations
+    private final Semaphore finished = new Semaphore(0);
+
+    private final LongAdder breederWaits = new LongAdder();
+    private final LongAdder evaluatorWaits = new LongAdder();
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder bredDepthSum = new LongAdder();
+    private volatile Throwable failure;
+    private boolean closed;
+
+    /** Initializes a pipeline and starts its workers
+     * @param ga
+     *            The genetic algorithm evaluating the offspring
+     * @param maze
+     *            The maze the offspring are evaluated in
+     * @param evaluators
+     *            Number of evaluation workers
+     * @param capacity
+     *            Most offspring waiting for a worker
+     * @param steadyState
+     *            Whether evaluated offspring are queued back, see takeEvaluated
+     */
+    EvaluationPipeline(GeneticAlgorithm ga, Maze maze, int evaluators, int capacity, boolean steadyState) {
+        this.ga = ga;
+        this.maze = maze;
+        this.steadyState = steadyState;
+        this.bred = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = Math.max(1, ga.getBatchSize());
+        this.workers = new Thread[evaluators];
+        for (int i = 0; i < evaluators; i++) {
+            this.workers[i] = new Thread(this::evaluate, "evaluator-" + i);
+            this.workers[i].setDaemon(true);
+            this.workers[i].start();
+        }
+    }
+
+    /** The loop of an evaluation worker */
+    private void evaluate() {
+        Individual[] batch = new Individual[this.batchSize];
+        // Interrupted by close
+        while (!Thread.currentThread().isInterrupted()) {
+            Individual offspring = this.bred.poll();
+            if (offspring == null) {
+                this.evaluatorWaits.increment();
+                try {
+                    offspring = this.bred.take();
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+
+            // Take the offspring waiting behind it, up to a batch
+            batch[0] = offspring;
+            int count = 1;
+            while (count < batch.length && (offspring = this.bred.poll()) != null) {
+                batch[count++] = offspring;
+            }
+
+            try {
+                this.ga.evalRange(batch, 0, count, this.maze);
+            } catch (Throwable e) {
+                this.failure = e;
+            }
+            // Hand the offspring back even if they failed, the breeding thread checks
+            if (this.steadyState) {
+                for (int i = 0; i < count; i++) {
+                    this.evaluated.add(batch[i]);
+                }
+            } else {
+                this.finished.release(count);
+            }
+            Arrays.fill(batch, 0, count, null);
+        }
+    }
+
+    /** Hand an offspring over to be evaluated, waiting while the queue is full */
+    void submit(Individual offspring) throws InterruptedException {
+        this.bredDepthSum.add(this.bred.size());
+        this.submitted.increment();
+        if (!this.bred.offer(offspring)) {
+            this.breederWaits.increment();
+            this.bred.put(offspring);
+        }
+    }
+
+    /** Wait until a number of offspring submitted since the last call are evaluated
+     * @param count
+     *            Number of offspring
+     */
+    void awaitEvaluated(int count) throws InterruptedException {
+        this.finished.acquire(count);
+        this.checkFailure();
+    }
+
+    /** Take an evaluated offspring in steady state, waiting for one */
+    Individual takeEvaluated() throws InterruptedException {
+        Individual offspring = this.evaluated.take();
+        this.checkFailure();
+        return offspring;
+    }
+
+    /** Take an evaluated offspring in steady state if there is one, or null */
+    Individual pollEvaluated() {
+        Individual offspring = this.evaluated.poll();
+        this.checkFailure();
+        return offspring;
+    }
+
+    private void checkFailure() {
+        if (this.failure != null) {
+            throw new IllegalStateException("An evaluator failed", this.failure);
+        }
+    }
+
+    /** Stop the workers, an offspring being evaluated is finished first, the statistics stay readable */
+    void close() {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        for (Thread worker : this.workers) {
+            worker.interrupt();
+        }
+        boolean interrupted = false;
+        for (Thread worker : this.workers) {
+            while (worker.isAlive()) {
+                try {
+                    worker.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Checks if the workers were stopped */
+    boolean isClosed() {
+        return this.closed;
+    }
+
+    /** Gets the number of evaluation workers */
+    public int getEvaluatorCount() {
+        return this.workers.length;
+    }
+
+    /** Gets the most offspring that wait for a worker */
+    public int getCapacity() {
+        return this.bred.size() + this.bred.remainingCapacity();
+    }
+
+    /** Gets the number of bred offspring waiting for a worker */
+    public int getBredDepth() {
+        return this.bred.size();
+    }
+
+    /** Gets the number of evaluated offspring waiting to be put into the population, in steady state */
+    public int getEvaluatedDepth() {
+        return this.evaluated.size();
+    }
+
+    /** Gets the average number of offspring waiting for a worker when one more was bred */
+    public double getAverageBredDepth() {
+        long submitted = this.submitted.sum();
+        return submitted == 0 ? 0 : (double) this.bredDepthSum.sum() / submitted;
+    }
+
+    /** Gets the number of times the breeding thread waited for room in the queue */
+    public long getBreederWaits() {
+        return this.breederWaits.sum();
+    }
+
+    /** Gets the number of times a worker waited for an offspring to evaluate */
+    public long getEvaluatorWaits() {
+        return this.evaluatorWaits.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "bred depth " + this.getBredDepth() + "/" + this.getCapacity()
+                + " (average " + Math.round(this.getAverageBredDepth() * 10) / 10.0 + ")"
+                + ", evaluated depth " + this.getEvaluatedDepth()
+                + ", breeder waits " + this.getBreederWaits()
+                + ", evaluator waits " + this.getEvaluatorWaits();
+    }
+}
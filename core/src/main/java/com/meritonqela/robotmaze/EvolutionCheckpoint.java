@@ -0,0 +1,295 @@
+package com.meritonqela.robotmaze;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * The state of an EvolutionEngine between two generations, in a compact
+ * binary file. It holds what the rest of the run depends on: the seed and
+ * generation, from which the engine derives the generator of every later
+ * generation, the parameters of the genetic algorithm, a fingerprint of the
+ * maze, the best individual so far, and every individual of the current
+ * population with its fitness, in population order. Evaluation records and
+ * the fitness cache are left out, they only save time.
+ *
+ * The selection and mutation operators are recorded by their description,
+ * see describe, so a run isn't resumed with operators that would breed
+ * other offspring.
+ *
+ * The file is big endian: a header, the population, the best individual,
+ * and a CRC32 of everything before it. Chromosomes are stored packed, 32
+ * genes per long. A checkpoint is written to a temporary file next to the
+ * target, forced to disk and then moved over the target in one step, and
+ * the directory is forced too so the move survives a crash: a crash leaves
+ * either the old or the new checkpoint.
+ *
+ * @author Meriton Çela
+ */
+final class EvolutionCheckpoint {
+    private static final int MAGIC = 0x524d434b; // "RMCK"
+    private static final int VERSION = 2;
+
+    long seed;
+    int generation;
+    long evaluations;
+    long elapsedNanos;
+    int lastImprovement;
+
+    int populationSize;
+    double mutationRate;
+    double crossoverRate;
+    int elitismCount;
+    int maxMoves;
+    GeneticAlgorithm.FitnessMode fitnessMode;
+    int tournamentSize;
+    String selection;
+    String mutation;
+
+    long mazeFingerprint;
+    int chromosomeLength;
+
+    long[][] chromosomes;
+    double[] fitness;
+    int[] goodGenes;
+
+    // Null when there is no best individual yet
+    long[] bestChromosome;
+    double bestFitness;
+    int bestGoodGenes;
+
+    /** Write a checkpoint of an engine's state
+     * @param path
+     *            The checkpoint file, replaced if it exists
+     * @param engine
+     *            The engine, between two generations
+     * @throws IOException
+     *            If the file can't be written, the previous checkpoint is kept
+     */
+    static void write(Path path, EvolutionEngine engine) throws IOException {
+        GeneticAlgorithm ga = engine.getAlgorithm();
+        Population population = engine.getPopulation();
+        Individual best = engine.getBestSoFar();
+        int words = Individual.wordCount(engine.getChromosomeLength());
+        int individualBytes = Double.BYTES + Integer.BYTES + words * Long.BYTES;
+        byte[] selection = describe(ga.getSelection()).getBytes(StandardCharsets.UTF_8);
+        byte[] mutation = describe(ga.getMutation()).getBytes(StandardCharsets.UTF_8);
+
+        ByteBuffer buffer = ByteBuffer.allocate(4 * Integer.BYTES + 3 * Long.BYTES
+                + 3 * Integer.BYTES + 2 * Double.BYTES + 1
+                + 3 * Integer.BYTES + selection.length + mutation.length
+                + Long.BYTES + 2 * Integer.BYTES
+                + population.size() * individualBytes
+                + 1 + individualBytes
+                + Long.BYTES);
+        buffer.putInt(MAGIC);
+        buffer.putInt(VERSION);
+        buffer.putLong(engine.getSeed());
+        buffer.putInt(engine.getGeneration());
+        buffer.putLong(engine.getEvaluations());
+        buffer.putLong(engine.getElapsedNanos());
+        buffer.putInt(engine.getLastImprovement());
+
+        buffer.putInt(ga.getPopulationSize());
+        buffer.putDouble(ga.getMutationRate());
+        buffer.putDouble(ga.getCrossoverRate());
+        buffer.putInt(ga.getElitismCount());
+        buffer.putInt(ga.getMaxMoves());
+        buffer.put((byte) ga.getFitnessMode().ordinal());
+        buffer.putInt(ga.getTournamentSize());
+        buffer.putInt(selection.length);
+        buffer.put(selection);
+        buffer.putInt(mutation.length);
+        buffer.put(mutation);
+
+        buffer.putLong(engine.getMazeFingerprint());
+        buffer.putInt(engine.getChromosomeLength());
+        buffer.putInt(population.size());
+        for (int i = 0; i < population.size(); i++) {
+            putIndividual(buffer, population.getIndividual(i), words);
+        }
+
+        buffer.put((byte) (best == null ? 0 : 1));
+        if (best != null) {
+            putIndividual(buffer, best, words);
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putLong(crc.getValue());
+        buffer.flip();
+
+        // Write next to the target, so the move is a rename on the same file system
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        try {
+            Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+        forceDirectory(path.toAbsolutePath().getParent());
+    }
+
+    /** Force a directory's entries to disk, so a file moved into it is still there after a crash */
+    private static void forceDirectory(Path directory) throws IOException {
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(directory, StandardOpenOption.READ);
+        } catch (IOException e) {
+            // Directories can't be opened on some platforms, Windows for one, where a move is durable anyway
+            return;
+        }
+        try (channel) {
+            channel.force(true);
+        }
+    }
+
+    /** Read a checkpoint
+     * @param path
+     *            The checkpoint file
+     * @return EvolutionCheckpoint The checkpoint
+     * @throws IOException
+     *            If the file can't be read, or isn't an intact checkpoint
+     */
+    static EvolutionCheckpoint read(Path path) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Checkpoint too large: " + path);
+            }
+            buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    throw new IOException("Checkpoint truncated: " + path);
+                }
+            }
+            buffer.flip();
+        }
+
+        if (buffer.remaining() < 2 * Integer.BYTES + Long.BYTES || buffer.getInt() != MAGIC) {
+            throw new IOException("Not a checkpoint: " + path);
+        }
+        if (buffer.getInt() != VERSION) {
+            throw new IOException("Unsupported checkpoint version: " + path);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.limit() - Long.BYTES);
+        if (crc.getValue() != buffer.getLong(buffer.limit() - Long.BYTES)) {
+            throw new IOException("Checkpoint corrupted: " + path);
+        }
+
+        EvolutionCheckpoint checkpoint = new EvolutionCheckpoint();
+        checkpoint.seed = buffer.getLong();
+        checkpoint.generation = buffer.getInt();
+        checkpoint.evaluations = buffer.getLong();
+        checkpoint.elapsedNanos = buffer.getLong();
+        checkpoint.lastImprovement = buffer.getInt();
+
+        checkpoint.populationSize = buffer.getInt();
+        checkpoint.mutationRate = buffer.getDouble();
+        checkpoint.crossoverRate = buffer.getDouble();
+        checkpoint.elitismCount = buffer.getInt();
+        checkpoint.maxMoves = buffer.getInt();
+        checkpoint.fitnessMode = GeneticAlgorithm.FitnessMode.values()[buffer.get()];
+        checkpoint.tournamentSize = buffer.getInt();
+        checkpoint.selection = getString(buffer);
+        checkpoint.mutation = getString(buffer);
+
+        checkpoint.mazeFingerprint = buffer.getLong();
+        checkpoint.chromosomeLength = buffer.getInt();
+        int words = Individual.wordCount(checkpoint.chromosomeLength);
+        int size = buffer.getInt();
+        checkpoint.chromosomes = new long[size][words];
+        checkpoint.fitness = new double[size];
+        checkpoint.goodGenes = new int[size];
+        for (int i = 0; i < size; i++) {
+            checkpoint.fitness[i] = buffer.getDouble();
+            checkpoint.goodGenes[i] = buffer.getInt();
+            buffer.asLongBuffer().get(checkpoint.chromosomes[i]);
+            buffer.position(buffer.position() + words * Long.BYTES);
+        }
+
+        if (buffer.get() != 0) {
+            checkpoint.bestFitness = buffer.getDouble();
+            checkpoint.bestGoodGenes = buffer.getInt();
+            checkpoint.bestChromosome = new long[words];
+            buffer.asLongBuffer().get(checkpoint.bestChromosome);
+        }
+        return checkpoint;
+    }
+
+    /** Copy a stored individual into an individual of the same length
+     * @param individual
+     *            The individual to overwrite
+     * @param chromosome
+     *            The stored genes
+     * @param fitness
+     *            The stored fitness
+     * @param goodGenes
+     *            The stored number of genes read
+     */
+    static void restore(Individual individual, long[] chromosome, double fitness, int goodGenes) {
+        for (int word = 0; word < chromosome.length; word++) {
+            individual.setWord(word, chromosome[word]);
+        }
+        individual.setFitness(fitness);
+        individual.setGoodGenes(goodGenes);
+    }
+
+    /** Describe a selection or mutation operator by its toString
+     *
+     * Operators that don't describe themselves are told apart by class only.
+     *
+     * @param operator
+     *            The operator
+     * @return String The description
+     */
+    static String describe(Object operator) {
+        String description = operator.toString();
+        String className = operator.getClass().getName();
+        return description.startsWith(className + "@") ? className : description;
+    }
+
+    /** Gets a hash of a maze's grid, to tell if a checkpoint was made in the same maze */
+    static long fingerprint(Maze maze) {
+        long hash = 1125899906842597L;
+        int rows = maze.getMaxX() + 1;
+        int columns = maze.getMaxY() + 1;
+        hash = 31 * hash + rows;
+        hash = 31 * hash + columns;
+        for (int x = 0; x < rows; x++) {
+            for (int y = 0; y < columns; y++) {
+                hash = 31 * hash + maze.getPositionValue(x, y);
+            }
+        }
+        return hash;
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void putIndividual(ByteBuffer buffer, Individual individual, int words) {
+        buffer.putDouble(individual.getFitness());
+        buffer.putInt(individual.getGoodGenes());
+        for (int word = 0; word < words; word++) {
+            buffer.putLong(individual.getWord(word));
+        }
+    }
+}
@@ -0,0 +1,675 @@
+package com.meritonqela.robotmaze;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+/**
+ * Runs the evolution loop of a genetic algorithm in a maze until a
+ * TerminationCondition is met: the initial population is evaluated, then
+ * each generation is bred into a PopulationPool and evaluated.
+ *
+ * The engine keeps a copy of the best individual found so far, which can be
+ * read from any thread while it runs, so a caller with a deadline can take
+ * the best answer so far, or stop the run, at any time.
+ *
+ * Each generation is bred with a generator of its own, derived from the
+ * engine's seed and the generation's number, which replaces the generator of
+ * the genetic algorithm. A run is repeated by its seed, and can be written
+ * to a checkpoint every few generations and resumed from it later with the
+ * same results, see setCheckpoint and resume.
+ *
+ * With a pipeline, each offspring is evaluated by a worker as soon as it is
+ * bred, while the next ones are being bred, instead of breeding the whole
+ * generation and then evaluating it. The population can also be replaced
+ * one offspring at a time, in steady state, see setPipeline.
+ *
+ * @author Meriton Çela
+ */
+public class EvolutionEngine {
+    private final GeneticAlgorithm ga;
+    private final Maze maze;
+    private final int chromosomeLength;
+    // Of the maze, for checkpoints, computed on first use
+    private long mazeFingerprint;
+    private boolean fingerprinted;
+
+    private PopulationPool pool;
+    private Population population;
+    private int generation;
+    private long evaluations;
+    private long startNanos;
+    private int lastImprovement;
+    private volatile Individual bestSoFar;
+    private volatile boolean stopped;
+    private RandomStreams randomStreams = new RandomStreams();
+    private Path checkpointPath;
+    private int checkpointInterval;
+    private int evaluators;
+    private int queueCapacity;
+    private boolean steadyState;
+    private EvaluationPipeline pipeline;
+    // Individuals of the pool that aren't in the population, in steady state
+    private final ArrayDeque<Individual> free = new ArrayDeque<>();
+    // Steady state: a min-heap of the population's indices by fitness, the
+    // fitness each index will have, and the offspring waiting to take an index
+    private int[] worstHeap;
+    private double[] slotFitness;
+    private Individual[] pending;
+    private int[] pendingSlots;
+    private int pendingCount;
+
+    // Diversity of the population of a generation, computed when asked for
+    private double diversity;
+    private int diversityGeneration = -1;
+
+    /** Initializes an engine
+     * @param ga
+     *            The genetic algorithm, configured
+     * @param maze
+     *            The maze to solve
+     * @param chromosomeLength
+     *            The length of the individuals chromosome
+     */
+    public EvolutionEngine(GeneticAlgorithm ga, Maze maze, int chromosomeLength) {
+        this.ga = ga;
+        this.maze = maze;
+        this.chromosomeLength = chromosomeLength;
+    }
+
+    /** Set the seed of the run, a random one by default, see getSeed */
+    public void setSeed(long seed) {
+        this.randomStreams = new RandomStreams(seed);
+    }
+
+    /** Gets the seed of the run */
+    public long getSeed() {
+        return this.randomStreams.getSeed();
+    }
+
+    /** Write the state of the run to a file every few generations, and when it stops
+     * @param path
+     *            The checkpoint file, replaced each time
+     * @param interval
+     *            Number of generations between checkpoints, 0 disables checkpoints
+     */
+    public void setCheckpoint(Path path, int interval) {
+        if (interval < 0 || (interval > 0 && path == null)) {
+            throw new IllegalArgumentException("interval must not be negative and needs a path");
+        }
+        this.checkpointPath = path;
+        this.checkpointInterval = interval;
+    }
+
+    /** Overlap breeding with evaluation
+     *
+     * The engine's thread breeds the offspring one at a time and hands each
+     * over to an evaluation worker through a queue of a bounded capacity,
+     * see EvaluationPipeline. The generations are bred with the same
+     * generators whatever the number of workers, and into the same
+     * offspring as GeneticAlgorithm.breed, so a seed repeats the run without
+     * a pipeline, unless the population is replaced in steady state.
+     *
+     * Evaluation workers replace the parallel evaluation of the genetic
+     * algorithm for every generation but the initial one, its parallelism
+     * is ignored then. Each worker evaluates the offspring waiting for it a
+     * batch at a time, see GeneticAlgorithm.setBatchSize. The workers are
+     * started by the first step and kept for the next ones, until close,
+     * which run and resume call when they return.
+     *
+     * @param evaluators
+     *            Number of evaluation workers, 0 disables the pipeline
+     * @param queueCapacity
+     *            Most bred offspring waiting for a worker, a few per worker
+     *            is enough to keep them busy
+     */
+    public void setPipeline(int evaluators, int queueCapacity) {
+        if (evaluators < 0 || (evaluators > 0 && queueCapacity < 1)) {
+            throw new IllegalArgumentException("evaluators must not be negative and need a positive queueCapacity");
+        }
+        if (evaluators == 0 && this.steadyState) {
+            throw new IllegalStateException("Steady state replacement needs a pipeline");
+        }
+        this.evaluators = evaluators;
+        this.queueCapacity = queueCapacity;
+        this.closePipeline();
+    }
+
+    /** Replace the population one offspring at a time instead of a generation at a time
+     *
+     * Each evaluated offspring takes the place of the least fit individual
+     * if it is fitter, and is a parent of the next offspring bred from then
+     * on, so the breeding thread never waits for a whole generation to be
+     * evaluated. A generation is counted every population size offspring,
+     * the termination condition and checkpoints are checked then.
+     *
+     * The offspring that come back are put into the population a batch at a
+     * time, queueCapacity of them, and selection is prepared again after
+     * each batch: offspring bred meanwhile are selected from the population
+     * as it was, as if the batch was still being evaluated. The individual
+     * to replace is kept at the top of a heap.
+     *
+     * The order offspring come back from the workers decides which ones are
+     * kept, so a seed doesn't repeat a run in steady state.
+     *
+     * @param steadyState
+     *            Whether to replace the population one offspring at a time,
+     *            needs a pipeline, see setPipeline
+     */
+    public void setSteadyState(boolean steadyState) {
+        if (steadyState && this.evaluators == 0) {
+            throw new IllegalStateException("Steady state replacement needs a pipeline");
+        }
+        if (steadyState != this.steadyState) {
+            this.closePipeline();
+        }
+        this.steadyState = steadyState;
+    }
+
+    /** Gets the pipeline of the run, to read its queue depths and waits, also once it is closed
+     * @return EvaluationPipeline The pipeline, or null if none ran
+     */
+    public EvaluationPipeline getPipeline() {
+        return this.pipeline;
+    }
+
+    /** Evolve until the condition is met or the engine is stopped
+     * @param condition
+     *            When to stop
+     * @return Individual The best individual found
+     * @throws UncheckedIOException
+     *            If a checkpoint can't be written
+     */
+    public Individual run(TerminationCondition condition) {
+        try {
+            this.start();
+            this.step(condition, Integer.MAX_VALUE);
+        } finally {
+            this.close();
+        }
+        return this.bestSoFar;
+    }
+
+    /** Start a run by evaluating its initial population, then evolve it with step
+     *
+     * This is the first half of run, for callers that share threads between
+     * engines and evolve each a few generations at a time.
+     */
+    public void start() {
+        this.stopped = false;
+        this.startNanos = System.nanoTime();
+        this.evaluations = 0;
+        this.bestSoFar = null;
+        this.lastImprovement = 1;
+        this.diversityGeneration = -1;
+
+        // Breed every generation into the same two populations
+        this.generation = 1;
+        this.ga.setRandom(this.randomStreams.stream(0, this.generation));
+        this.pool = this.ga.initPopulationPool(this.chromosomeLength);
+        this.population = this.pool.getCurrent();
+        this.evaluate();
+    }
+
+    /** Evolve a started run for a number of generations at most
+     *
+     * Evolving a run in steps gives the same result as evolving it at once.
+     *
+     * @param condition
+     *            When to stop
+     * @param generations
+     *            The most generations to breed in this step
+     * @return boolean True if the condition is met or the engine was stopped,
+     *            false if the run can go on
+     * @throws UncheckedIOException
+     *            If a checkpoint can't be written
+     * @throws IllegalStateException
+     *            If the thread is interrupted while a pipeline runs, the run can't go on
+     */
+    public boolean step(TerminationCondition condition, int generations) {
+        if (this.population == null) {
+            throw new IllegalStateException("The run wasn't started");
+        }
+        EvaluationPipeline pipeline = null;
+        if (this.evaluators > 0) {
+            if (this.pipeline == null || this.pipeline.isClosed()) {
+                this.pipeline = new EvaluationPipeline(this.ga, this.maze, this.evaluators, this.queueCapacity,
+                        this.steadyState);
+            }
+            pipeline = this.pipeline;
+        }
+        boolean completed = false;
+        try {
+            for (int bred = 0; ; bred++) {
+                if (this.stopped || condition.isMet(this)) {
+                    completed = true;
+                    if (this.checkpointInterval > 0) {
+                        this.checkpoint();
+                    }
+                    return true;
+                }
+                if (bred == generations) {
+                    completed = true;
+                    return false;
+                }
+
+                // Apply crossover and mutation, and evaluate population
+                this.ga.setRandom(this.randomStreams.stream(0, this.generation + 1));
+                if (pipeline == null) {
+                    this.population = this.ga.breed(this.pool);
+                    this.generation++;
+                    this.evaluate();
+                } else if (this.steadyState) {
+                    this.breedSteadyState(pipeline);
+                } else {
+                    this.breedPipelined(pipeline);
+                }
+
+                if (this.checkpointInterval > 0 && this.generation % this.checkpointInterval == 0) {
+                    this.checkpoint();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while breeding generation " + (this.generation + 1), e);
+        } finally {
+            // Offspring may still be in the queues of a generation that failed
+            if (!completed) {
+                this.closePipeline();
+            }
+        }
+    }
+
+    /** Breed a generation into the spare population, evaluating each offspring while the next is bred */
+    private void breedPipelined(EvaluationPipeline pipeline) throws InterruptedException {
+        Population parents = this.pool.getCurrent();
+        Population offspring = this.pool.getSpare();
+        int size = parents.size();
+
+        this.ga.prepareBreeding(parents);
+        offspring.invalidateRanking();
+        for (int i = 0; i < size; i++) {
+            Individual child = offspring.getIndividual(i);
+            this.ga.breedOffspring(parents, i, child);
+            pipeline.submit(child);
+        }
+
+        // Only the evaluations still running once the generation is bred cost time
+        long start = System.nanoTime();
+        pipeline.awaitEvaluated(size);
+        long waited = System.nanoTime() - start;
+
+        this.pool.swap();
+        this.population = this.pool.getCurrent();
+        this.generation++;
+        this.ga.completeEvaluation(this.population, populationFitness(this.population), waited);
+        this.recordEvaluation();
+    }
+
+    /** Breed a generation's worth of offspring, each replacing the least fit individual if it is fitter */
+    private void breedSteadyState(EvaluationPipeline pipeline) throws InterruptedException {
+        Population population = this.population;
+        Population spare = this.pool.getSpare();
+        int size = population.size();
+        this.free.clear();
+        for (int i = 0; i < size; i++) {
+            this.free.push(spare.getIndividual(i));
+        }
+        this.buildWorstHeap(population);
+
+        long waited = 0;
+        int bred = 0;
+        int received = 0;
+        boolean changed = true;
+        while (received < size) {
+            // Put a batch in, or what came back when nothing can be bred without it
+            if (this.pendingCount >= this.queueCapacity
+                    || (this.pendingCount > 0 && (bred == size || this.free.isEmpty()))) {
+                this.applyPending(population);
+                changed = true;
+            }
+
+            Individual offspring;
+            if (bred < size && !this.free.isEmpty()) {
+                // Selection must only see the individuals in the population
+                if (changed) {
+                    this.ga.prepareBreeding(population);
+                    changed = false;
+                }
+                Individual child = this.free.pop();
+                this.ga.breedOffspring(population, child);
+                pipeline.submit(child);
+                bred++;
+                offspring = pipeline.pollEvaluated();
+            } else {
+                long start = System.nanoTime();
+                offspring = pipeline.takeEvaluated();
+                waited += System.nanoTime() - start;
+            }
+            if (offspring != null) {
+                received++;
+                this.replaceWorst(offspring);
+            }
+        }
+        this.applyPending(population);
+
+        // Every offspring is back, the individuals left out are the spare population again
+        for (int i = 0; i < size; i++) {
+            spare.setIndividual(i, this.free.pop());
+        }
+        this.generation++;
+        this.ga.completeEvaluation(population, populationFitness(population), waited);
+        this.recordEvaluation();
+    }
+
+    /** Order the population's indices in a min-heap by fitness */
+    private void buildWorstHeap(Population population) {
+        int size = population.size();
+        if (this.worstHeap == null || this.worstHeap.length != size) {
+            this.worstHeap = new int[size];
+            this.slotFitness = new double[size];
+            this.pending = new Individual[size];
+            this.pendingSlots = new int[size];
+        }
+        for (int i = 0; i < size; i++) {
+            this.worstHeap[i] = i;
+            this.slotFitness[i] = population.getIndividual(i).getFitness();
+        }
+        for (int i = size / 2 - 1; i >= 0; i--) {
+            this.siftDown(i);
+        }
+    }
+
+    /** Move the index at a position of the heap down below the fitter ones */
+    private void siftDown(int position) {
+        int[] heap = this.worstHeap;
+        int slot = heap[position];
+        double fitness = this.slotFitness[slot];
+        int half = heap.length >>> 1;
+        while (position < half) {
+            int child = 2 * position + 1;
+            if (child + 1 < heap.length && this.slotFitness[heap[child + 1]] < this.slotFitness[heap[child]]) {
+                child++;
+            }
+            if (this.slotFitness[heap[child]] >= fitness) {
+                break;
+            }
+            heap[position] = heap[child];
+            position = child;
+        }
+        heap[position] = slot;
+    }
+
+    /** Give an evaluated offspring the index of the least fit individual if it is fitter, see applyPending */
+    private void replaceWorst(Individual offspring) {
+        int worst = this.worstHeap[0];
+        if (offspring.getFitness() <= this.slotFitness[worst]) {
+            this.free.push(offspring);
+            return;
+        }
+
+        Individual replaced = this.pending[worst];
+        if (replaced != null) {
+            // An offspring of the same batch that never made it into the population
+            this.free.push(replaced);
+        } else {
+            this.pendingSlots[this.pendingCount++] = worst;
+        }
+        this.pending[worst] = offspring;
+        this.slotFitness[worst] = offspring.getFitness();
+        this.siftDown(0);
+    }
+
+    /** Put the offspring given an index since the last batch into the population */
+    private void applyPending(Population population) {
+        for (int i = 0; i < this.pendingCount; i++) {
+            int slot = this.pendingSlots[i];
+            this.free.push(population.getIndividual(slot));
+            population.setIndividual(slot, this.pending[slot]);
+            this.pending[slot] = null;
+        }
+        this.pendingCount = 0;
+    }
+
+    private static double populationFitness(Population population) {
+        // Summed in order, so the sum doesn't depend on which worker finished first
+        double fitness = 0;
+        for (int i = 0; i < population.size(); i++) {
+            fitness += population.getIndividual(i).getFitness();
+        }
+        return fitness;
+    }
+
+    /** Continue a run from a checkpoint until the condition is met or the engine is stopped
+     *
+     * The engine takes the seed of the checkpoint. Its genetic algorithm,
+     * maze and chromosome length must be the ones of the checkpointed run.
+     *
+     * @param path
+     *            The checkpoint file
+     * @param condition
+     *            When to stop
+     * @return Individual The best individual found
+     * @throws IOException
+     *            If the checkpoint can't be read
+     * @throws UncheckedIOException
+     *            If a later checkpoint can't be written
+     */
+    public Individual resume(Path path, TerminationCondition condition) throws IOException {
+        EvolutionCheckpoint checkpoint = EvolutionCheckpoint.read(path);
+        if (checkpoint.populationSize != this.ga.getPopulationSize()
+                || checkpoint.mutationRate != this.ga.getMutationRate()
+                || checkpoint.crossoverRate != this.ga.getCrossoverRate()
+                || checkpoint.elitismCount != this.ga.getElitismCount()
+                || checkpoint.maxMoves != this.ga.getMaxMoves()
+                || checkpoint.fitnessMode != this.ga.getFitnessMode()
+                || checkpoint.tournamentSize != this.ga.getTournamentSize()
+                || !checkpoint.selection.equals(EvolutionCheckpoint.describe(this.ga.getSelection()))
+                || !checkpoint.mutation.equals(EvolutionCheckpoint.describe(this.ga.getMutation()))) {
+            throw new IllegalArgumentException("The genetic algorithm differs from the checkpointed one");
+        }
+        if (checkpoint.mazeFingerprint != this.getMazeFingerprint()
+                || checkpoint.chromosomeLength != this.chromosomeLength) {
+            throw new IllegalArgumentException("The maze or chromosome length differs from the checkpointed one");
+        }
+
+        this.stopped = false;
+        this.randomStreams = new RandomStreams(checkpoint.seed);
+        this.startNanos = System.nanoTime() - checkpoint.elapsedNanos;
+        this.evaluations = checkpoint.evaluations;
+        this.lastImprovement = checkpoint.lastImprovement;
+        this.generation = checkpoint.generation;
+        this.diversityGeneration = -1;
+
+        this.pool = this.ga.initPopulationPool(this.chromosomeLength);
+        this.population = this.pool.getCurrent();
+        double populationFitness = 0;
+        for (int i = 0; i < this.population.size(); i++) {
+            EvolutionCheckpoint.restore(this.population.getIndividual(i), checkpoint.chromosomes[i],
+                    checkpoint.fitness[i], checkpoint.goodGenes[i]);
+            populationFitness += checkpoint.fitness[i];
+        }
+        this.population.setPopulationFitness(populationFitness);
+        // Rank the population the way evaluate did, the ranked order decides the offspring
+        this.population.getFittest(0);
+
+        Individual best = null;
+        if (checkpoint.bestChromosome != null) {
+            best = new Individual(this.chromosomeLength);
+            EvolutionCheckpoint.restore(best, checkpoint.bestChromosome, checkpoint.bestFitness,
+                    checkpoint.bestGoodGenes);
+        }
+        this.bestSoFar = best;
+
+        try {
+            this.step(condition, Integer.MAX_VALUE);
+        } finally {
+            this.close();
+        }
+        return this.bestSoFar;
+    }
+
+    private void checkpoint() {
+        try {
+            EvolutionCheckpoint.write(this.checkpointPath, this);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Release the threads the run started, run and resume do it when they return
+     *
+     * Callers evolving the run with start and step call it once the run is
+     * over. The results stay readable, and the run can still go on, the
+     * threads are started again when needed.
+     */
+    public void close() {
+        this.closePipeline();
+        this.ga.close();
+    }
+
+    private void closePipeline() {
+        if (this.pipeline != null) {
+            this.pipeline.close();
+        }
+    }
+
+    /** Stop the run after the generation being evaluated, can be called from any thread */
+    public void stop() {
+        this.stopped = true;
+    }
+
+    /** Gets the best individual found so far
+     * @return Individual A copy of the best individual, or null before the first evaluation
+     */
+    public Individual getBestSoFar() {
+        return this.bestSoFar;
+    }
+
+    /** Checks if the best individual so far reached the goal */
+    public boolean isGoalReached() {
+        Individual best = this.bestSoFar;
+        return best != null && this.ga.isGoalReached(best, this.maze);
+    }
+
+    /** Gets the genetic algorithm */
+    public GeneticAlgorithm getAlgorithm() {
+        return this.ga;
+    }
+
+    /** Gets the maze */
+    public Maze getMaze() {
+        return this.maze;
+    }
+
+    /** Gets the fingerprint of the maze checkpoints are checked against, see EvolutionCheckpoint.fingerprint */
+    long getMazeFingerprint() {
+        if (!this.fingerprinted) {
+            this.mazeFingerprint = EvolutionCheckpoint.fingerprint(this.maze);
+            this.fingerprinted = true;
+        }
+        return this.mazeFingerprint;
+    }
+
+    /** Gets the length of the individuals chromosome */
+    public int getChromosomeLength() {
+        return this.chromosomeLength;
+    }
+
+    /** Gets the current generation, 1 for the initial population */
+    public int getGeneration() {
+        return this.generation;
+    }
+
+    /** Gets the number of generations since the best fitness last improved */
+    public int getGenerationsWithoutImprovement() {
+        return this.generation - this.lastImprovement;
+    }
+
+    /** Gets the generation the best fitness last improved in */
+    int getLastImprovement() {
+        return this.lastImprovement;
+    }
+
+    /** Gets the number of individuals evaluated, cache hits included */
+    public long getEvaluations() {
+        return this.evaluations;
+    }
+
+    /** Gets the time since the run started */
+    public long getElapsedNanos() {
+        return System.nanoTime() - this.startNanos;
+    }
+
+    /** Gets the current population, owned by the engine's pool */
+    public Population getPopulation() {
+        return this.population;
+    }
+
+    /** Gets the diversity of the current population
+     *
+     * For each gene, the share of individuals that don't have its most
+     * common direction, scaled so a random population is close to 1 and a
+     * population of clones is 0, averaged over the chromosome.
+     *
+     * @return double The diversity, from 0 to 1
+     */
+    public double getDiversity() {
+        if (this.diversityGeneration != this.generation) {
+            this.diversity = diversity(this.population);
+            this.diversityGeneration = this.generation;
+        }
+        return this.diversity;
+    }
+
+    /** Evaluate the current population, see recordEvaluation */
+    private void evaluate() {
+        this.ga.evalPopulation(this.population, this.maze);
+        this.recordEvaluation();
+    }
+
+    /** Count the evaluations of the current population and keep its best individual if it improves */
+    private void recordEvaluation() {
+        this.evaluations += this.population.size();
+
+        Individual fittest = this.population.getFittest(0);
+        Individual best = this.bestSoFar;
+        if (best == null || fittest.getFitness() > best.getFitness()) {
+            // Copy it, the pool overwrites its individuals
+            Individual copy = new Individual(fittest);
+            copy.setFitness(fittest.getFitness());
+            copy.setGoodGenes(fittest.getGoodGenes());
+            this.bestSoFar = copy;
+            this.lastImprovement = this.generation;
+        }
+    }
+
+    private static double diversity(Population population) {
+        int size = population.size();
+        int length = population.getIndividual(0).getChromosomeLength();
+        int[] counts = new int[Individual.GENES_PER_WORD * 4];
+        long sum = 0;
+
+        // Count the directions of a word's genes over the population, a word at a time
+        for (int word = 0; word * Individual.GENES_PER_WORD < length; word++) {
+            Arrays.fill(counts, 0);
+            for (int i = 0; i < size; i++) {
+                long bits = population.getIndividual(i).getWord(word);
+                for (int gene = 0; gene < Individual.GENES_PER_WORD; gene++) {
+                    counts[gene * 4 + (int) (bits >>> (gene << 1) & 3)]++;
+                }
+            }
+            int genes = Math.min(Individual.GENES_PER_WORD, length - word * Individual.GENES_PER_WORD);
+            for (int gene = 0; gene < genes; gene++) {
+                int most = Math.max(Math.max(counts[gene * 4], counts[gene * 4 + 1]),
+                        Math.max(counts[gene * 4 + 2], counts[gene * 4 + 3]));
+                sum += size - most;
+            }
+        }
+
+        // A random population has a quarter of each direction
+        return Math.min(1, sum / (0.75 * size * length));
+    }
+}
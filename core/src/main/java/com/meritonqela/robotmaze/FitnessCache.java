@@ -0,0 +1,355 @@
+package com.meritonqela.robotmaze;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded cache of robot results, keyed on the genes the robot actually
+ * read. A robot stops when it is destroyed, reaches the goal or runs out of
+ * moves, so the genes after that step never matter. Two individuals that
+ * share the consumed prefix of a cached run get the same fitness, however
+ * different the rest of their chromosomes are.
+ *
+ * For a given chromosome at most one cached prefix can match: a longer
+ * cached prefix starting with a shorter one would have stopped at the shorter
+ * one. A lookup walks the chromosome a word of genes at a time, extending one
+ * prefix hash, like a robot walking the genes. A filter tells for each word
+ * prefix the lengths of the cached runs ending in the next word, which are
+ * probed, and whether any cached run goes on past it. The walk stops at the
+ * first word no cached run shares, which a robot that would have matched
+ * never passes, so a miss costs a filter read per 32 steps the robot would
+ * have survived. Matches are verified against the stored genes, so hash
+ * collisions never give a wrong fitness.
+ *
+ * The cached runs are kept in a table of sets of a few slots, allocated when
+ * the cache is created. A run replaces the least recently used one of its
+ * set, by second chance, and reuses its prefix buffer when it is large
+ * enough, so storing a run allocates nothing once the buffers have grown.
+ * Evicted runs stay in the filter, which only costs probes, until the filter
+ * is rebuilt from the table, into a second preallocated filter, after as many
+ * stores as the table has slots. The sets are guarded by striped locks, so
+ * the cache can be shared by threads evaluating in parallel. The results
+ * depend on the robot's maximum number of moves, so a cache must only be used
+ * by one genetic algorithm.
+ *
+ * @author Meriton Çela
+ */
+public class FitnessCache {
+    /** Returned by lookup when no cached run matches */
+    public static final long MISS = -1;
+
+    private static final int WAYS = 4;
+    private static final int LOCKS = 64;
+    /** Least filter words per slot, enough to keep the filter sparse when the cached runs share prefixes */
+    private static final int FILTER_WORDS_PER_SLOT = 16;
+    /** Most filter words, 16 MB per filter, a fuller filter only lets misses walk a few more words */
+    private static final int FILTER_WORD_LIMIT = 1 << 21;
+    /** Set in a filter word when a cached run goes on past its prefix */
+    private static final long CONTINUES = 1L << 32;
+    private static final long LENGTHS = 0xFFFFFFFFL;
+
+    private final int maxMoves;
+    private final int setMask;
+    private final Object[] locks = new Object[LOCKS];
+
+    // The slots, WAYS per set, empty while their maze is null
+    private final long[] keys;
+    private final Maze[] mazes;
+    private final int[] lengths;
+    private final int[] moves;
+    private final long[][] prefixes;
+    private final boolean[] used;
+
+    // Lookups read the current filter, stores mark both, rebuilds clear and refill the other
+    private final AtomicLongArray[] filters = new AtomicLongArray[2];
+    private final int filterShift;
+    private volatile int currentFilter;
+    private final AtomicInteger storesSinceRebuild = new AtomicInteger();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    private final AtomicInteger size = new AtomicInteger();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /** Initializes an empty cache
+     * @param capacity
+     *            Least number of cached runs, rounded up to a power of two
+     *            sets of WAYS runs, see getCapacity
+     * @param maxMoves
+     *            The robot's maximum number of moves, the longest prefix a run can consume
+     */
+    public FitnessCache(int capacity, int maxMoves) {
+        this.maxMoves = maxMoves;
+        // The next power of two of the sets the capacity needs
+        int sets = Integer.highestOneBit(Math.max(1, (capacity + WAYS - 1) / WAYS) * 2 - 1);
+        this.setMask = sets - 1;
+        for (int i = 0; i < LOCKS; i++) {
+            this.locks[i] = new Object();
+        }
+
+        int slots = sets * WAYS;
+        this.keys = new long[slots];
+        this.mazes = new Maze[slots];
+        this.lengths = new int[slots];
+        this.moves = new int[slots];
+        this.prefixes = new long[slots][];
+        this.used = new boolean[slots];
+
+        // A run marks a filter word per word of genes it read, keep the filter at most half full
+        long marks = (long) slots * Math.max(FILTER_WORDS_PER_SLOT, 2 * (maxMoves / Individual.GENES_PER_WORD + 1));
+        int filterSize = (int) Math.min(FILTER_WORD_LIMIT, Long.highestOneBit(marks - 1) << 1);
+        this.filterShift = Long.SIZE - Integer.numberOfTrailingZeros(filterSize);
+        this.filters[0] = new AtomicLongArray(filterSize);
+        this.filters[1] = new AtomicLongArray(filterSize);
+    }
+
+    /** Look up the cached run of an individual
+     * @param individual
+     *            The individual to look up
+     * @param maze
+     *            The maze the individual is evaluated in
+     * @return long The robot's moves in the high and step in the low 32 bits, or MISS
+     */
+    public long lookup(Individual individual, Maze maze) {
+        return this.lookup(individual, maze, 0);
+    }
+
+    /** Look up the cached run of an individual, known not to stop before a step
+     *
+     * An individual whose robot went past its first changed gene last time
+     * can't stop before that gene, the shorter prefixes are not probed.
+     *
+     * @param individual
+     *            The individual to look up
+     * @param maze
+     *            The maze the individual is evaluated in
+     * @param minLength
+     *            The shortest prefix to probe
+     * @return long The robot's moves in the high and step in the low 32 bits, or MISS
+     */
+    public long lookup(Individual individual, Maze maze, int minLength) {
+        AtomicLongArray filter = this.filters[this.currentFilter];
+        int maxLength = Math.min(this.maxMoves, individual.getChromosomeLength());
+        long salt = salt(maze);
+        long hash = Individual.PREFIX_HASH_SEED;
+
+        for (int word = 0; ; word++) {
+            long node = filter.get(this.filterIndex(hash, word, salt));
+
+            // Probe the cached lengths ending in this word
+            for (long ends = node & LENGTHS; ends != 0; ends &= ends - 1) {
+                int length = word * Individual.GENES_PER_WORD + Long.numberOfTrailingZeros(ends);
+                if (length > maxLength) {
+                    break;
+                }
+                if (length >= minLength) {
+                    long cached = this.probe(individual, maze, hash, length);
+                    if (cached != MISS) {
+                        this.hits.increment();
+                        return cached;
+                    }
+                }
+            }
+
+            // Go on to the next word only if a cached run does
+            if ((node & CONTINUES) == 0 || (word + 1) * Individual.GENES_PER_WORD > maxLength) {
+                break;
+            }
+            hash = Individual.extendPrefixHash(hash, individual.getWord(word));
+        }
+
+        this.misses.increment();
+        return MISS;
+    }
+
+    /** Look a length up in the table
+     * @param hash
+     *            The hash of the prefix's full words
+     * @return long The cached run as returned by lookup, or MISS
+     */
+    private long probe(Individual individual, Maze maze, long hash, int length) {
+        long key = Individual.finishPrefixHash(hash, individual.partialPrefixWord(length), length);
+        int set = this.setOf(key);
+        synchronized (this.locks[set & (LOCKS - 1)]) {
+            for (int slot = set * WAYS; slot < set * WAYS + WAYS; slot++) {
+                if (this.keys[slot] == key && this.mazes[slot] == maze && this.lengths[slot] == length
+                        && individual.prefixEquals(this.prefixes[slot], length)) {
+                    this.used[slot] = true;
+                    return ((long) this.moves[slot] << 32) | length;
+                }
+            }
+        }
+        return MISS;
+    }
+
+    /** Store the result of a robot's run
+     * @param individual
+     *            The evaluated individual
+     * @param maze
+     *            The maze the individual was evaluated in
+     * @param moves
+     *            The robot's moves
+     * @param step
+     *            The robot's step, the number of genes it read
+     */
+    public void store(Individual individual, Maze maze, int moves, int step) {
+        if (step > this.maxMoves) {
+            return;
+        }
+
+        long key = individual.prefixHash(step);
+        int set = this.setOf(key);
+        synchronized (this.locks[set & (LOCKS - 1)]) {
+            int slot = this.victim(set, key, maze, step);
+            if (this.mazes[slot] == null) {
+                this.size.incrementAndGet();
+            }
+
+            int words = Individual.wordCount(step);
+            if (this.prefixes[slot] == null || this.prefixes[slot].length < words) {
+                this.prefixes[slot] = new long[words];
+            }
+            individual.copyPrefix(step, this.prefixes[slot]);
+            this.keys[slot] = key;
+            this.mazes[slot] = maze;
+            this.lengths[slot] = step;
+            this.moves[slot] = moves;
+            this.used[slot] = true;
+
+            // Under the lock, so a rebuild sees either the slot or the marks
+            this.mark(this.filters[0], this.prefixes[slot], step, salt(maze));
+            this.mark(this.filters[1], this.prefixes[slot], step, salt(maze));
+        }
+
+        if (this.storesSinceRebuild.incrementAndGet() >= this.keys.length) {
+            this.rebuildFilter();
+        }
+    }
+
+    /** Pick the slot of a set a run goes to: its own, an empty one or the least recently used */
+    private int victim(int set, long key, Maze maze, int length) {
+        int first = set * WAYS;
+        for (int slot = first; slot < first + WAYS; slot++) {
+            if (this.mazes[slot] == null
+                    || (this.keys[slot] == key && this.mazes[slot] == maze && this.lengths[slot] == length)) {
+                return slot;
+            }
+        }
+        // Second chance, slots used since they were last passed over are spared once
+        for (int round = 0; round < 2; round++) {
+            for (int slot = first; slot < first + WAYS; slot++) {
+                if (!this.used[slot]) {
+                    return slot;
+                }
+                this.used[slot] = false;
+            }
+        }
+        return first;
+    }
+
+    /** Mark a cached run's prefix in a filter: every word prefix it goes on past, and its length */
+    private void mark(AtomicLongArray filter, long[] prefix, int length, long salt) {
+        long hash = Individual.PREFIX_HASH_SEED;
+        int fullWords = length / Individual.GENES_PER_WORD;
+        for (int word = 0; word < fullWords; word++) {
+            or(filter, this.filterIndex(hash, word, salt), CONTINUES);
+            hash = Individual.extendPrefixHash(hash, prefix[word]);
+        }
+        or(filter, this.filterIndex(hash, fullWords, salt), 1L << (length % Individual.GENES_PER_WORD));
+    }
+
+    private static void or(AtomicLongArray filter, int index, long bits) {
+        long node = filter.get(index);
+        while ((node & bits) != bits && !filter.compareAndSet(index, node, node | bits)) {
+            node = filter.get(index);
+        }
+    }
+
+    /** Drop the marks of evicted runs: refill the other filter from the table and switch to it */
+    private void rebuildFilter() {
+        if (!this.rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            this.storesSinceRebuild.set(0);
+            AtomicLongArray filter = this.filters[1 - this.currentFilter];
+            for (int i = 0; i < filter.length(); i++) {
+                filter.set(i, 0);
+            }
+            for (int set = 0; set <= this.setMask; set++) {
+                synchronized (this.locks[set & (LOCKS - 1)]) {
+                    for (int slot = set * WAYS; slot < set * WAYS + WAYS; slot++) {
+                        if (this.mazes[slot] != null) {
+                            this.mark(filter, this.prefixes[slot], this.lengths[slot], salt(this.mazes[slot]));
+                        }
+                    }
+                }
+            }
+            this.currentFilter = 1 - this.currentFilter;
+        } finally {
+            this.rebuilding.set(false);
+        }
+    }
+
+    /** Gets the filter word of a word prefix in a maze */
+    private int filterIndex(long hash, int word, long salt) {
+        long index = (hash ^ salt ^ (word * 0x94D049BB133111EBL)) * 0xBF58476D1CE4E5B9L;
+        return (int) (index >>> this.filterShift);
+    }
+
+    private static long salt(Maze maze) {
+        return System.identityHashCode(maze) * 0x9E3779B97F4A7C15L;
+    }
+
+    /** Gets number of lookups that found a cached run */
+    public long getHits() {
+        return this.hits.sum();
+    }
+
+    /** Gets number of lookups that found nothing */
+    public long getMisses() {
+        return this.misses.sum();
+    }
+
+    /** Gets share of lookups that found a cached run
+     * @return double Hit rate between 0 and 1
+     */
+    public double getHitRate() {
+        long hits = this.getHits();
+        long total = hits + this.getMisses();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /** Gets maximum number of cached runs, the capacity it was created with rounded up to whole sets */
+    public int getCapacity() {
+        return this.keys.length;
+    }
+
+    /** Gets number of cached runs */
+    public int size() {
+        return this.size.get();
+    }
+
+    /** Remove every cached run and reset the statistics */
+    public void clear() {
+        for (int set = 0; set <= this.setMask; set++) {
+            synchronized (this.locks[set & (LOCKS - 1)]) {
+                for (int slot = set * WAYS; slot < set * WAYS + WAYS; slot++) {
+                    if (this.mazes[slot] != null) {
+                        this.mazes[slot] = null;
+                        this.size.decrementAndGet();
+                    }
+                }
+            }
+        }
+        this.rebuildFilter();
+        this.hits.reset();
+        this.misses.reset();
+    }
+
+    private int setOf(long key) {
+        return (int) (key ^ (key >>> 32)) & this.setMask;
+    }
+}
@@ -0,0 +1,96 @@
+package com.meritonqela.robotmaze;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Percentage;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight Recorder event for one generation of a genetic algorithm. It spans
+ * the generation, from the end of the previous evaluation to the end of this
+ * one, and carries the same figures as GenerationMetrics. Enable it with
+ * {@code -XX:StartFlightRecording} or a recording that includes
+ * {@code com.meritonqela.robotmaze.Generation}.
+ *
+ * @author Meriton Çela
+ */
+@Name("com.meritonqela.robotmaze.Generation")
+@Label("Generation")
+@Category({"Robot Maze", "Genetic Algorithm"})
+@Description("Time spent in each operator of a generation")
+@StackTrace(false)
+final class GenerationEvent extends Event {
+    private static final EventType TYPE = EventType.getEventType(GenerationEvent.class);
+
+    @Label("Generation")
+    int generation;
+
+    @Label("Evaluation Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long evaluationTime;
+
+    @Label("Ranking Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long rankingTime;
+
+    @Label("Selection Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long selectionTime;
+
+    @Label("Crossover Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long crossoverTime;
+
+    @Label("Mutation Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long mutationTime;
+
+    @Label("Evaluations")
+    int evaluations;
+
+    @Label("Skipped Evaluations")
+    @Description("Share of evaluations that didn't run a robot")
+    @Percentage
+    double skippedFraction;
+
+    @Label("Evaluations per Second")
+    double evaluationsPerSecond;
+
+    @Label("Cache Hit Rate")
+    @Percentage
+    double cacheHitRate;
+
+    @Label("Allocated")
+    @Description("Bytes allocated by the thread driving the generation, -1 if unknown")
+    @DataAmount
+    long allocated;
+
+    /** Gets whether a recording takes the event, without creating one */
+    static boolean isRecorded() {
+        return TYPE.isEnabled();
+    }
+
+    /** Copy the figures of a generation
+     * @param metrics
+     *            The generation's metrics
+     */
+    void set(GenerationMetrics metrics) {
+        this.generation = metrics.getGeneration();
+        this.evaluationTime = metrics.getEvaluationNanos();
+        this.rankingTime = metrics.getRankingNanos();
+        this.selectionTime = metrics.getSelectionNanos();
+        this.crossoverTime = metrics.getCrossoverNanos();
+        this.mutationTime = metrics.getMutationNanos();
+        this.evaluations = metrics.getEvaluations();
+        this.skippedFraction = metrics.getSkippedFraction();
+        this.evaluationsPerSecond = metrics.getEvaluationsPerSecond();
+        this.cacheHitRate = metrics.getCacheHitRate();
+        this.allocated = metrics.getAllocatedBytes();
+    }
+}
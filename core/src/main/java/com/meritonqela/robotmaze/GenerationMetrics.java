@@ -0,0 +1,193 @@
+package com.meritonqela.robotmaze;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Where a generation spent its time, filled in by GeneticAlgorithm while
+ * instrumentation is on, see setMetricsListener and GenerationEvent.
+ *
+ * Times are in nanoseconds. Ranking covers the ranking done for elitism,
+ * selection covers preparing the selection scheme and drawing parents, and
+ * crossover is the rest of crossoverPopulation. A generation ends with
+ * evalPopulation, so breeding is counted in the generation it produces.
+ *
+ * @author Meriton Çela
+ */
+public class GenerationMetrics {
+    private static final com.sun.management.ThreadMXBean THREADS = threadBean();
+
+    private int generation;
+    private long evaluationNanos;
+    private long rankingNanos;
+    private long selectionNanos;
+    private long crossoverNanos;
+    private long mutationNanos;
+    private int evaluations;
+    private int skippedEvaluations;
+    private long cacheHits;
+    private long cacheMisses;
+    private long allocatedBytes;
+
+    // Counters at the start of the generation
+    private long startHits;
+    private long startMisses;
+    private long startAllocated;
+
+    /** Gets the generation's number, the initial population's evaluation is 0 */
+    public int getGeneration() {
+        return this.generation;
+    }
+
+    /** Gets the time spent in evalPopulation */
+    public long getEvaluationNanos() {
+        return this.evaluationNanos;
+    }
+
+    /** Gets the time spent ranking the population */
+    public long getRankingNanos() {
+        return this.rankingNanos;
+    }
+
+    /** Gets the time spent selecting parents */
+    public long getSelectionNanos() {
+        return this.selectionNanos;
+    }
+
+    /** Gets the time spent in crossover, selection and ranking excluded */
+    public long getCrossoverNanos() {
+        return this.crossoverNanos;
+    }
+
+    /** Gets the time spent in mutation, ranking excluded */
+    public long getMutationNanos() {
+        return this.mutationNanos;
+    }
+
+    /** Gets the number of individuals evaluated */
+    public int getEvaluations() {
+        return this.evaluations;
+    }
+
+    /** Gets the number of individuals evaluated without running a robot, because
+     * none of the genes their last run read changed or the fitness cache held the result
+     */
+    public int getSkippedEvaluations() {
+        return this.skippedEvaluations;
+    }
+
+    /** Gets the share of evaluations that didn't run a robot */
+    public double getSkippedFraction() {
+        return this.evaluations == 0 ? 0 : (double) this.skippedEvaluations / this.evaluations;
+    }
+
+    /** Gets the number of individuals evaluated per second of evaluation */
+    public double getEvaluationsPerSecond() {
+        return this.evaluationNanos == 0 ? 0 : this.evaluations * 1e9 / this.evaluationNanos;
+    }
+
+    /** Gets the fitness cache hits of the generation, 0 without a cache */
+    public long getCacheHits() {
+        return this.cacheHits;
+    }
+
+    /** Gets the fitness cache misses of the generation, 0 without a cache */
+    public long getCacheMisses() {
+        return this.cacheMisses;
+    }
+
+    /** Gets the share of fitness cache lookups that hit */
+    public double getCacheHitRate() {
+        long total = this.cacheHits + this.cacheMisses;
+        return total == 0 ? 0 : (double) this.cacheHits / total;
+    }
+
+    /** Gets the bytes allocated by the thread that drove the generation,
+     * parallel evaluation workers excluded, or -1 if the JVM can't tell
+     */
+    public long getAllocatedBytes() {
+        return this.allocatedBytes;
+    }
+
+    /** Start a generation
+     * @param generation
+     *            The generation's number
+     * @param cache
+     *            The fitness cache, or null
+     */
+    void begin(int generation, FitnessCache cache) {
+        this.generation = generation;
+        this.evaluationNanos = 0;
+        this.rankingNanos = 0;
+        this.selectionNanos = 0;
+        this.crossoverNanos = 0;
+        this.mutationNanos = 0;
+        this.evaluations = 0;
+        this.skippedEvaluations = 0;
+        this.startHits = cache == null ? 0 : cache.getHits();
+        this.startMisses = cache == null ? 0 : cache.getMisses();
+        this.startAllocated = allocated();
+    }
+
+    /** End the generation, taking the counters' differences
+     * @param cache
+     *            The fitness cache, or null
+     */
+    void end(FitnessCache cache) {
+        this.cacheHits = cache == null ? 0 : cache.getHits() - this.startHits;
+        this.cacheMisses = cache == null ? 0 : cache.getMisses() - this.startMisses;
+        long allocated = allocated();
+        this.allocatedBytes = allocated < 0 || this.startAllocated < 0 ? -1 : allocated - this.startAllocated;
+    }
+
+    void addEvaluation(long nanos, int evaluations, int skippedEvaluations) {
+        this.evaluationNanos += nanos;
+        this.evaluations += evaluations;
+        this.skippedEvaluations += skippedEvaluations;
+    }
+
+    void addRanking(long nanos) {
+        this.rankingNanos += nanos;
+    }
+
+    void addSelection(long nanos) {
+        this.selectionNanos += nanos;
+    }
+
+    void addCrossover(long nanos) {
+        this.crossoverNanos += nanos;
+    }
+
+    void addMutation(long nanos) {
+        this.mutationNanos += nanos;
+    }
+
+    @Override
+    public String toString() {
+        return "G" + this.generation
+                + " evaluation " + this.evaluationNanos / 1000 + "us"
+                + " (" + Math.round(this.getEvaluationsPerSecond()) + "/s"
+                + ", " + this.skippedEvaluations + " skipped)"
+                + ", ranking " + this.rankingNanos / 1000 + "us"
+                + ", selection " + this.selectionNanos / 1000 + "us"
+                + ", crossover " + this.crossoverNanos / 1000 + "us"
+                + ", mutation " + this.mutationNanos / 1000 + "us"
+                + ", cache hit rate " + this.getCacheHitRate()
+                + ", allocated " + this.allocatedBytes + " bytes";
+    }
+
+    /** Gets the bytes allocated by the current thread so far, -1 if unknown */
+    private static long allocated() {
+        return THREADS == null ? -1 : THREADS.getCurrentThreadAllocatedBytes();
+    }
+
+    private static com.sun.management.ThreadMXBean threadBean() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) threads;
+            if (bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled()) {
+                return bean;
+            }
+        }
+        return null;
+    }
+}
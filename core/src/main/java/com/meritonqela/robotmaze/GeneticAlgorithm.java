@@ -0,0 +1,1000 @@
+package com.meritonqela.robotmaze;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.random.RandomGenerator;
+
+/** This GeneticAlgorithm class is designed to solve the
+ * "Robot Controller in a Maze" problem.
+ *
+ * This class introduces the concepts of tournament selection and single-point
+ * crossover. Additionally, the calcFitness method count the number of Robot's moves,
+ * in this case we actually have to evaluate how good the robot follows instructions and doesn't destroyed!
+ *
+ * References 'Genetic Algorithms in Java Basics' - Lee Jacobson, Burak Kanber
+ *
+ * @author Meriton Çela
+ */
+
+
+public class GeneticAlgorithm {
+
+    public enum FitnessMode {
+        /** The robot's moves, a robot that survives longer is fitter */
+        SURVIVAL,
+        /** How close the robot came to the goal, by the maze's distance field */
+        DISTANCE
+    }
+
+    /** Longest chromosome chromosomeLength picks, for huge mazes where half the cells would take too much memory */
+    public static final int MAX_CHROMOSOME_LENGTH = 1 << 17;
+
+    private int populationSize;
+    private double mutationRate;
+    private double crossoverRate;
+    private int elitismCount;
+
+    protected int tournamentSize;
+
+    /** Scheme used to pick the second parent of a crossover */
+    private Selection selection;
+
+    /** Mutation operator applied to every individual but the elites */
+    private Mutation mutation = new RandomResetMutation();
+
+    // Every random choice of the operators is drawn from this generator
+    private RandomGenerator random = new SplittableRandom();
+
+    /** Number of worker threads used by evalPopulation, 1 means serial evaluation */
+    private int parallelism = 1;
+
+    /** Smallest number of individuals a worker evaluates without splitting further */
+    private int chunkSize = 64;
+
+    /** Maximum number of moves of a robot, at most the chromosome length */
+    private int maxMoves = 150;
+
+    /** What calcFitness rewards */
+    private FitnessMode fitnessMode = FitnessMode.SURVIVAL;
+
+    /** Robots reused by calcFitness, one per evaluating thread */
+    private final ThreadLocal<Robot> robots = ThreadLocal.withInitial(() -> new Robot(this.maxMoves));
+
+    /** Number of robots evaluated in lockstep by evalPopulation, 0 runs them one by one */
+    private int batchSize;
+
+    /** Batch evaluators reused by evalPopulation, one per evaluating thread */
+    private final ThreadLocal<BatchEvaluator> batches = new ThreadLocal<>();
+
+    /** Optional cache of robot results, null when disabled */
+    private FitnessCache fitnessCache;
+
+    /** Lazily created pool for parallel evaluation */
+    private ForkJoinPool evaluationPool;
+
+    /** Optional receiver of each generation's metrics */
+    private MetricsListener metricsListener;
+
+    /** Metrics of the generation being bred and evaluated */
+    private final GenerationMetrics metrics = new GenerationMetrics();
+
+    /** Flight Recorder event of the generation, null unless it is recorded */
+    private GenerationEvent event;
+
+    /** Whether the operators of the current generation are timed */
+    private boolean instrumented;
+
+    /** Number of generations evaluated so far */
+    private int generation;
+
+    /** Individuals evaluated without running a robot, counted by every evaluating thread */
+    private final LongAdder skipped = new LongAdder();
+    /** Individuals of the last evalPopulation, and how many of them didn't run a robot */
+    private int lastEvaluated;
+    private int lastSkipped;
+
+    public GeneticAlgorithm(int populationSize, double mutationRate, double crossoverRate, int elitismCount,
+                            int tournamentSize) {
+
+        this.populationSize = populationSize;
+        this.mutationRate = mutationRate;
+        this.crossoverRate = crossoverRate;
+        this.elitismCount = elitismCount;
+        this.tournamentSize = tournamentSize;
+        this.selection = new TournamentSelection(tournamentSize);
+        this.beginGeneration();
+    }
+
+    /** Pick a chromosome length for a maze
+     *
+     * Larger mazes need longer chromosomes to be crossed: half the cells, at
+     * least 150 genes and at most MAX_CHROMOSOME_LENGTH.
+     *
+     * @param maze
+     *            The maze to solve
+     * @return int The chromosome length, and the robot's maximum number of moves
+     */
+    public static int chromosomeLength(Maze maze) {
+        long cells = (long) (maze.getMaxX() + 1) * (maze.getMaxY() + 1);
+        return (int) Math.max(150, Math.min(MAX_CHROMOSOME_LENGTH, cells / 2));
+    }
+
+    /** Set the listener receiving the metrics of each generation, none by default
+     *
+     * The operators are only timed while there is a listener or the
+     * GenerationEvent is being recorded, otherwise instrumentation costs a
+     * check per generation.
+     *
+     * @param metricsListener
+     *            The listener, or null to remove it
+     */
+    public void setMetricsListener(MetricsListener metricsListener) {
+        this.metricsListener = metricsListener;
+        // Start the metrics of the current generation over
+        this.beginGeneration();
+    }
+
+    /** Gets the listener receiving the metrics of each generation */
+    public MetricsListener getMetricsListener() {
+        return this.metricsListener;
+    }
+
+    /** Gets number of individuals in a population */
+    public int getPopulationSize() {
+        return this.populationSize;
+    }
+
+    /** Gets the probability of a gene to mutate */
+    public double getMutationRate() {
+        return this.mutationRate;
+    }
+
+    /** Gets the probability of an individual to be crossed over */
+    public double getCrossoverRate() {
+        return this.crossoverRate;
+    }
+
+    /** Gets number of fittest individuals kept unchanged from one generation to the next */
+    public int getElitismCount() {
+        return this.elitismCount;
+    }
+
+    /** Gets the number of individuals taking part in each tournament of the default selection */
+    public int getTournamentSize() {
+        return this.tournamentSize;
+    }
+
+    /** Set the selection scheme used to pick parents, tournament selection by default
+     * @param selection
+     *            The selection scheme
+     */
+    public void setSelection(Selection selection) {
+        this.selection = selection;
+    }
+
+    /** Gets the selection scheme used to pick parents */
+    public Selection getSelection() {
+        return this.selection;
+    }
+
+    /** Set the mutation operator, random reset mutation by default
+     * @param mutation
+     *            The mutation operator
+     */
+    public void setMutation(Mutation mutation) {
+        this.mutation = mutation;
+    }
+
+    /** Gets the mutation operator */
+    public Mutation getMutation() {
+        return this.mutation;
+    }
+
+    /** Set the generator every random choice is drawn from, an unseeded one by default
+     *
+     * The operators run on the thread that calls them and evaluation draws
+     * nothing, so with a seeded generator, see RandomStreams, a run is
+     * repeated exactly whatever the evaluation parallelism. The generator
+     * must not be shared with another thread.
+     *
+     * @param random
+     *            The generator
+     */
+    public void setRandom(RandomGenerator random) {
+        this.random = random;
+    }
+
+    /** Gets the generator every random choice is drawn from */
+    public RandomGenerator getRandom() {
+        return this.random;
+    }
+
+    /** Configure parallel evaluation of the population
+     *
+     * With a parallelism greater than 1, evalPopulation splits the population
+     * into chunks of at most chunkSize individuals and evaluates them on a
+     * fork-join pool. Each individual is still scored by calcFitness, so the
+     * results are identical to the serial path.
+     *
+     * @param parallelism
+     *            Number of worker threads, 1 evaluates serially
+     * @param chunkSize
+     *            Number of individuals a worker evaluates without splitting further
+     */
+    public void setEvaluationParallelism(int parallelism, int chunkSize) {
+        if (parallelism < 1 || chunkSize < 1) {
+            throw new IllegalArgumentException("parallelism and chunkSize must be positive");
+        }
+
+        if (this.evaluationPool != null && this.evaluationPool.getParallelism() != parallelism) {
+            this.evaluationPool.shutdown();
+            this.evaluationPool = null;
+        }
+
+        this.parallelism = parallelism;
+        this.chunkSize = chunkSize;
+    }
+
+    /** Shut down the worker threads of parallel evaluation
+     *
+     * The genetic algorithm can still be used afterwards, the workers are
+     * started again by the next parallel evaluation.
+     */
+    public void close() {
+        if (this.evaluationPool != null) {
+            this.evaluationPool.shutdown();
+            this.evaluationPool = null;
+        }
+    }
+
+    /** Gets number of worker threads used for evaluation */
+    public int getParallelism() {
+        return this.parallelism;
+    }
+
+    /** Gets number of individuals a worker evaluates without splitting further */
+    public int getChunkSize() {
+        return this.chunkSize;
+    }
+
+    /** Evaluate the population in batches of robots moving in lockstep
+     *
+     * The results are the same as with calcFitness, see BatchEvaluator.
+     * Individuals that can be evaluated without a robot still are, the
+     * others resume from their last checkpoint before the first changed
+     * gene like calcFitness does. Batches don't track the closest approach
+     * to the goal, so they can't be used with the DISTANCE fitness mode.
+     *
+     * @param batchSize
+     *            Number of robots per batch, 0 runs them one by one
+     * @throws IllegalStateException
+     *            If batchSize is positive and the fitness mode is DISTANCE
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize < 0) {
+            throw new IllegalArgumentException("batchSize must not be negative");
+        }
+        if (batchSize > 0 && this.fitnessMode == FitnessMode.DISTANCE) {
+            throw new IllegalStateException("Batches can't be used with the DISTANCE fitness mode");
+        }
+        this.batchSize = batchSize;
+    }
+
+    /** Gets number of robots evaluated in lockstep, 0 if they run one by one */
+    public int getBatchSize() {
+        return this.batchSize;
+    }
+
+    /** Set the maximum number of moves of a robot
+     *
+     * A robot reads one gene per move, so the chromosomes must be at least
+     * this long. Results already recorded were made with the old limit, so
+     * this should be set before the first evaluation. The fitness cache is
+     * emptied.
+     *
+     * @param maxMoves
+     *            The maximum number of moves, 150 by default
+     */
+    public void setMaxMoves(int maxMoves) {
+        if (maxMoves < 0) {
+            throw new IllegalArgumentException("maxMoves must not be negative");
+        }
+        this.maxMoves = maxMoves;
+        this.resetFitnessCache();
+    }
+
+    /** Gets the maximum number of moves of a robot */
+    public int getMaxMoves() {
+        return this.maxMoves;
+    }
+
+    /** Set what calcFitness rewards
+     *
+     * SURVIVAL, the default, scores a robot by its moves, with 100 extra
+     * moves for reaching the goal. DISTANCE scores how much closer to the
+     * goal the robot got than the start, in moves, by the distance field of
+     * Maze.getGoalDistances, or the Manhattan distance on mazes too large
+     * for one, see Maze.getGoalDistance. A robot that reaches the goal scores more than
+     * the start's distance, and more the fewer moves it took. Robots heading
+     * for the goal are then fitter than robots wandering around safely, which
+     * gives the search a gradient on large mazes. Where the goal can't be
+     * reached from the start, DISTANCE falls back to SURVIVAL.
+     *
+     * DISTANCE evaluates robots one by one, so it can't be used with a
+     * batch size, see setBatchSize. Results already recorded were made with
+     * the old mode, so this should be set before the first evaluation. The
+     * fitness cache is emptied.
+     *
+     * @param fitnessMode
+     *            The fitness mode
+     * @throws IllegalStateException
+     *            If fitnessMode is DISTANCE and a batch size is set
+     */
+    public void setFitnessMode(FitnessMode fitnessMode) {
+        if (fitnessMode == FitnessMode.DISTANCE && this.batchSize > 0) {
+            throw new IllegalStateException("The DISTANCE fitness mode can't be used with batches");
+        }
+        this.fitnessMode = fitnessMode;
+        this.resetFitnessCache();
+    }
+
+    /** Gets what calcFitness rewards */
+    public FitnessMode getFitnessMode() {
+        return this.fitnessMode;
+    }
+
+    /** Check if an evaluated individual's robot reached the goal, whatever the fitness mode
+     * @param individual
+     *            The individual, evaluated in the maze
+     * @param maze
+     *            The maze
+     * @return boolean True if the robot reached the goal, otherwise, false
+     */
+    public boolean isGoalReached(Individual individual, Maze maze) {
+        int startDistance = this.startDistance(maze);
+        if (startDistance != Maze.UNREACHABLE) {
+            return individual.getFitness() > startDistance;
+        }
+        // Reaching the goal is worth 100 moves more than the genes read
+        return individual.getFitness() == individual.getGoodGenes() + 1 + 100;
+    }
+
+    /** Gets the start's distance to the goal when fitness is the distance, otherwise UNREACHABLE */
+    private int startDistance(Maze maze) {
+        return this.fitnessMode == FitnessMode.DISTANCE ? maze.getStartDistance() : Maze.UNREACHABLE;
+    }
+
+    /** Enable caching of robot results
+     *
+     * calcFitness looks up the genes the robot would read before running a
+     * robot, so individuals sharing a consumed prefix, and unchanged elites,
+     * are not simulated again.
+     *
+     * @param capacity
+     *            Number of cached runs, rounded up to whole sets of the cache, 0 disables the cache
+     */
+    public void setFitnessCacheCapacity(int capacity) {
+        this.fitnessCache = capacity > 0 ? new FitnessCache(capacity, this.maxMoves) : null;
+    }
+
+    /** Empty the cache of robot results, they depend on the maximum number of moves and the fitness mode */
+    private void resetFitnessCache() {
+        if (this.fitnessCache != null) {
+            this.fitnessCache = new FitnessCache(this.fitnessCache.getCapacity(), this.maxMoves);
+        }
+    }
+
+    /** Gets the cache of robot results
+     * @return FitnessCache The cache, or null when disabled
+     */
+    public FitnessCache getFitnessCache() {
+        return this.fitnessCache;
+    }
+
+    /** Gets the number of individuals the last evalPopulation evaluated without
+     * running a robot: the clean ones, those whose changed genes the robot
+     * didn't read, and fitness cache hits
+     */
+    public int getSkippedEvaluations() {
+        return this.lastSkipped;
+    }
+
+    /** Gets the share of the last evalPopulation's individuals evaluated without running a robot */
+    public double getSkippedFraction() {
+        return this.lastEvaluated == 0 ? 0 : (double) this.lastSkipped / this.lastEvaluated;
+    }
+
+    /** Initialize population
+     * @param chromosomeLength
+     *            The length of the individuals chromosome
+     * @return population The initial population generated
+     */
+    public Population initPopulation(int chromosomeLength) {
+        // Initialize population
+        Population population = new Population(this.populationSize, chromosomeLength, this.random);
+        return population;
+    }
+
+    /** Calculate fitness for an individual.
+     *
+     * This fitness calculation is made in that way, that count the Robot's moves. In
+     * this case we reset this thread's Robot to the individual, and evaluate its
+     * performance in the given maze. When the fitness cache is enabled, it is
+     * consulted first.
+     *
+     * The evaluation is incremental. If none of the genes the robot read
+     * last time changed, for instance in an elite, a parent copied without
+     * crossover or mutation, or an offspring whose parent1 was destroyed
+     * before the swap point, the robot isn't run at all, see
+     * Individual.isDirty. Otherwise it resumes from the last checkpoint before the first
+     * changed gene.
+     *
+     * @param individual
+     *            the individual to evaluate
+     * @param maze
+     *            the maze
+     * @return double The fitness value for individual
+     */
+    public double calcFitness(Individual individual, Maze maze) {
+        if (!this.reuseResult(individual, maze)) {
+            // Get fitness, reusing this thread's robot
+            Robot robot = this.robots.get();
+            robot.maxMoves = this.maxMoves;
+            int startDistance = this.startDistance(maze);
+            boolean distance = startDistance != Maze.UNREACHABLE;
+            robot.trackClosest(distance);
+
+            // Continue from the last checkpoint before the first changed gene
+            int resumeCheckpoint = this.resumeCheckpoint(individual, maze);
+            if (resumeCheckpoint > 0) {
+                int step = resumeCheckpoint * Individual.GENES_PER_WORD;
+                int cell = individual.getCheckpoints()[resumeCheckpoint];
+                if (distance) {
+                    robot.resume(individual, maze, step, cell, individual.getClosestCheckpoints()[resumeCheckpoint]);
+                } else {
+                    robot.resume(individual, maze, step, cell);
+                }
+            } else {
+                robot.reset(individual, maze);
+            }
+            robot.run();
+
+            int fitness = distance ? distanceFitness(robot, startDistance, this.maxMoves) : robot.moves;
+            this.recordRun(individual, maze, fitness, robot.step);
+        }
+
+        return individual.getFitness();
+    }
+
+    /** Score a robot's run by its closest approach to the goal, see setFitnessMode */
+    private static int distanceFitness(Robot robot, int startDistance, int maxMoves) {
+        if (robot.closest == 0) {
+            // Reached the goal, the sooner the better
+            return startDistance + 1 + maxMoves - robot.step;
+        }
+        return startDistance - robot.closest;
+    }
+
+    /** Gets the last checkpoint before the first gene changed since the last run
+     * @return int The checkpoint's index, -1 if there is none
+     */
+    private int resumeCheckpoint(Individual individual, Maze maze) {
+        // Genes that didn't change since the individual, or the parent it was
+        // copied from, was last run in this maze
+        int unchangedGenes = individual.getUnchangedGenes(maze);
+        return Math.min(unchangedGenes / Individual.GENES_PER_WORD, individual.getCheckpointCount() - 1);
+    }
+
+    /** Evaluate an individual without running a robot, when possible
+     *
+     * That is when every gene the robot read last time is unchanged, or when
+     * the fitness cache holds a run with the same consumed genes.
+     *
+     * @return boolean True if the individual was evaluated
+     */
+    private boolean reuseResult(Individual individual, Maze maze) {
+        int fitness;
+        int step;
+        int checkpointCount;
+
+        FitnessCache cache = this.fitnessCache;
+        long cached;
+        // A robot that went past the first changed gene last time can't stop before it
+        int minLength = individual.getUnchangedGenes(maze) + 1;
+        if (individual.getUnchangedGenes(maze) >= individual.getEvaluatedSteps()) {
+            // Every gene the robot read is unchanged, so is the result
+            fitness = individual.getEvaluatedMoves();
+            step = individual.getEvaluatedSteps();
+            checkpointCount = individual.getCheckpointCount();
+        } else if (cache != null && (cached = cache.lookup(individual, maze, minLength)) != FitnessCache.MISS) {
+            // Another individual with the same consumed genes was already run
+            fitness = (int) (cached >>> 32);
+            step = (int) cached;
+            // Only the checkpoints before the first changed gene are still right
+            checkpointCount = Math.max(0, this.resumeCheckpoint(individual, maze) + 1);
+        } else {
+            return false;
+        }
+
+        this.storeFitness(individual, maze, fitness, step, checkpointCount);
+        this.skipped.increment();
+        return true;
+    }
+
+    /** Record the result of a robot's run, the checkpoints it passed were written on the way */
+    private void recordRun(Individual individual, Maze maze, int fitness, int step) {
+        if (this.fitnessCache != null) {
+            this.fitnessCache.store(individual, maze, fitness, step);
+        }
+
+        this.storeFitness(individual, maze, fitness, step,
+                (step + Individual.GENES_PER_WORD - 1) / Individual.GENES_PER_WORD);
+    }
+
+    private void storeFitness(Individual individual, Maze maze, int fitness, int step, int checkpointCount) {
+        individual.setEvaluated(maze, fitness, step, checkpointCount);
+
+        // Store fitness
+        individual.setFitness(fitness);
+
+        // steps of robot
+        individual.setGoodGenes(step);
+    }
+
+    /**
+     * Evaluate the whole population
+     *
+     * Essentially, loop over the individuals in the population, calculate the
+     * fitness for each, and then calculate the entire population's fitness. The
+     * population's fitness may or may not be important, but what is important
+     * here is making sure that each individual gets evaluated.
+     *
+     * Only dirty individuals are simulated, the share of the population
+     * evaluated without a robot is reported by getSkippedFraction and in the
+     * generation's metrics.
+     *
+     * @param population
+     *            the population to evaluate
+     * @param maze
+     *            the maze to evaluate each individual against.
+     */
+    public void evalPopulation(Population population, Maze maze) {
+        long start = this.now();
+        Individual[] individuals = population.getIndividuals();
+        double populationFitness;
+        this.skipped.reset();
+
+        if (this.parallelism > 1 && individuals.length > this.chunkSize) {
+            // Split the population across workers, each chunk sums its own fitness
+            populationFitness = this.getEvaluationPool()
+                    .invoke(new EvaluationTask(individuals, 0, individuals.length, maze));
+        } else {
+            populationFitness = this.evalRange(individuals, 0, individuals.length, maze);
+        }
+
+        this.completeEvaluation(population, populationFitness, this.now() - start);
+    }
+
+    /** Finish the evaluation of a population, evaluated here or by an EvaluationPipeline
+     * @param population
+     *            The evaluated population
+     * @param populationFitness
+     *            The summed fitness of its individuals
+     * @param nanos
+     *            The time the evaluation took
+     */
+    void completeEvaluation(Population population, double populationFitness, long nanos) {
+        population.setPopulationFitness(populationFitness);
+        this.lastEvaluated = population.size();
+        this.lastSkipped = (int) this.skipped.sumThenReset();
+
+        this.metrics.addEvaluation(nanos, population.size(), this.lastSkipped);
+        this.endGeneration();
+    }
+
+    /** Start timing a generation if anybody is listening */
+    private void beginGeneration() {
+        this.event = GenerationEvent.isRecorded() ? new GenerationEvent() : null;
+        this.instrumented = this.metricsListener != null || this.event != null;
+        if (this.instrumented) {
+            this.metrics.begin(this.generation, this.fitnessCache);
+            if (this.event != null) {
+                this.event.begin();
+            }
+        }
+    }
+
+    /** Publish the metrics of the generation and start the next one */
+    private void endGeneration() {
+        if (this.instrumented) {
+            this.metrics.end(this.fitnessCache);
+            if (this.event != null) {
+                this.event.set(this.metrics);
+                this.event.commit();
+            }
+            if (this.metricsListener != null) {
+                this.metricsListener.generationCompleted(this.metrics);
+            }
+        }
+        this.generation++;
+        this.beginGeneration();
+    }
+
+    /** Gets the time for instrumentation, 0 when the generation isn't timed */
+    private long now() {
+        return this.instrumented ? System.nanoTime() : 0;
+    }
+
+    /** Evaluate a range of individuals and sum their fitness
+     * @param individuals
+     *            the individuals to evaluate
+     * @param from
+     *            first index, inclusive
+     * @param to
+     *            last index, exclusive
+     * @param maze
+     *            the maze to evaluate each individual against
+     * @return double The summed fitness of the range
+     */
+    double evalRange(Individual[] individuals, int from, int to, Maze maze) {
+        double fitness = 0;
+
+        if (this.batchSize > 0) {
+            return this.evalBatches(individuals, from, to, maze);
+        }
+
+        // Loop over range evaluating individuals and suming fitness
+        for (int i = from; i < to; i++) {
+            fitness += this.calcFitness(individuals[i], maze);
+        }
+
+        return fitness;
+    }
+
+    /** Evaluate a range of individuals in lockstep batches and sum their fitness */
+    private double evalBatches(Individual[] individuals, int from, int to, Maze maze) {
+        BatchEvaluator batch = this.batches.get();
+        if (batch == null || batch.getCapacity() != this.batchSize) {
+            batch = new BatchEvaluator(this.batchSize);
+            this.batches.set(batch);
+        }
+
+        double fitness = 0;
+        for (int i = from; i < to; i++) {
+            Individual individual = individuals[i];
+            if (this.reuseResult(individual, maze)) {
+                fitness += individual.getFitness();
+                continue;
+            }
+            // Continue from the last checkpoint before the first changed gene, like calcFitness
+            int resumeCheckpoint = this.resumeCheckpoint(individual, maze);
+            boolean full = resumeCheckpoint > 0
+                    ? batch.add(individual, resumeCheckpoint * Individual.GENES_PER_WORD,
+                            individual.getCheckpoints()[resumeCheckpoint])
+                    : batch.add(individual);
+            if (full) {
+                fitness += this.runBatch(batch, maze);
+            }
+        }
+
+        return fitness + this.runBatch(batch, maze);
+    }
+
+    /** Run and record a batch of robots, leaving the batch empty */
+    private double runBatch(BatchEvaluator batch, Maze maze) {
+        double fitness = 0;
+        if (batch.size() > 0) {
+            batch.run(maze, this.maxMoves);
+            for (int lane = 0; lane < batch.size(); lane++) {
+                this.recordRun(batch.getIndividual(lane), maze, batch.getMoves(lane), batch.getSteps(lane));
+                fitness += batch.getMoves(lane);
+            }
+            batch.clear();
+        }
+        return fitness;
+    }
+
+    private ForkJoinPool getEvaluationPool() {
+        if (this.evaluationPool == null) {
+            this.evaluationPool = new ForkJoinPool(this.parallelism);
+        }
+        return this.evaluationPool;
+    }
+
+    /** Evaluates a range of the population, splitting it in halves until
+     * it is no larger than chunkSize. Partial sums are combined on join, so
+     * workers never share an accumulator.
+     */
+    private class EvaluationTask extends RecursiveTask<Double> {
+        private static final long serialVersionUID = 1L;
+
+        private final Individual[] individuals;
+        private final int from;
+        private final int to;
+        private final Maze maze;
+
+        EvaluationTask(Individual[] individuals, int from, int to, Maze maze) {
+            this.individuals = individuals;
+            this.from = from;
+            this.to = to;
+            this.maze = maze;
+        }
+
+        @Override
+        protected Double compute() {
+            if (this.to - this.from <= chunkSize) {
+                return evalRange(this.individuals, this.from, this.to, this.maze);
+            }
+
+            int middle = (this.from + this.to) >>> 1;
+            EvaluationTask left = new EvaluationTask(this.individuals, this.from, middle, this.maze);
+            left.fork();
+            double right = new EvaluationTask(this.individuals, middle, this.to, this.maze).compute();
+            return left.join() + right;
+        }
+    }
+
+    /** Check if population has met termination condition
+     * @param generationsCount
+     *            Number of generations passed
+     * @param maxGenerations
+     *            Number of generations to terminate after
+     * @return boolean True if termination condition met, otherwise, false
+     */
+    public boolean isTerminationConditionMet(int generationsCount, int maxGenerations) {
+        return (generationsCount > maxGenerations);
+    }
+
+    /** Selects parent for crossover
+     *
+     * The parent is picked by the configured selection scheme, tournament
+     * selection unless setSelection was called. Tournament selection works by
+     * choosing N random individuals, and then choosing the best of those.
+     *
+     * @param population
+     * @return The individual selected as a parent
+     */
+    public Individual selectParent(Population population) {
+        return this.selection.select(population, this.random);
+    }
+
+    /** Apply mutation to population
+     *
+     * The individuals are mutated in place by the mutation operator, elites
+     * excepted, and the same population is returned.
+     *
+     * @param population
+     *            The population to apply mutation to
+     * @return The mutated population
+     */
+    public Population mutatePopulation(Population population) {
+        RandomGenerator random = this.random;
+        long start = this.now();
+
+        // Only the elites need to be in order, the rest are all mutated alike
+        population.rankFittest(this.elitismCount);
+        long ranked = this.now();
+
+        // Loop over current population, skipping the elites
+        for (int populationIndex = this.elitismCount; populationIndex < population.size(); populationIndex++) {
+            this.mutation.mutate(population.getRanked(populationIndex), this.mutationRate, random);
+        }
+
+        this.metrics.addRanking(ranked - start);
+        this.metrics.addMutation(this.now() - ranked);
+
+        // Return mutated population
+        return population;
+    }
+
+    /** Crossover population using single point crossover
+     * This version, however, might look like this:
+     *
+     * Parent1: AAAAAAAAAA
+     * Parent2: BBBBBBBBBB
+     * Child  : AAAABBBBBB
+     *
+     * @param population
+     *            Population to crossover
+     * @return Population The new population
+     */
+    public Population crossoverPopulation(Population population) {
+        return this.crossoverPopulation(population, null);
+    }
+
+    /** Crossover population into recycled individuals
+     *
+     * Instead of creating a population, offspring and parents that are kept
+     * are copied into the individuals of another population, which must hold
+     * as many individuals of the same chromosome length, none of them shared
+     * with the source population. With a PopulationPool this makes a
+     * generation allocation free.
+     *
+     * @param population
+     *            Population to crossover
+     * @param offspringPopulation
+     *            Population whose individuals are overwritten, or null to create one
+     * @return Population The new population
+     */
+    public Population crossoverPopulation(Population population, Population offspringPopulation) {
+        long start = this.now();
+
+        // Create new population, unless we recycle one
+        boolean recycle = offspringPopulation != null;
+        Population newPopulation = recycle ? offspringPopulation : new Population(population.size());
+        newPopulation.invalidateRanking();
+
+        // Only the elites need to be in order, every other individual is a
+        // crossover candidate regardless of its rank
+        population.rankFittest(this.elitismCount);
+        long ranked = this.now();
+        this.selection.prepare(population, this.random);
+        long selectionTime = this.now() - ranked;
+
+        // Loop over current population, elites first
+        for (int populationIndex = 0; populationIndex < population.size(); populationIndex++) {
+            Individual parent1 = population.getRanked(populationIndex);
+
+            // Apply crossover to this individual?
+            if (this.crossoverRate > this.random.nextDouble() && populationIndex >= this.elitismCount) {
+                // Find second parent
+                long selecting = this.now();
+                Individual parent2 = this.selectParent(population);
+                selectionTime += this.now() - selecting;
+
+                // Get random swap point
+                int swapPoint = this.random.nextInt(parent1.getChromosomeLength() + 1);
+
+                // Initialize offspring with parent1's genes, then splice in
+                // parent2's genes from the swap point on
+                Individual offspring;
+                if (recycle) {
+                    offspring = newPopulation.getIndividual(populationIndex);
+                    offspring.copyFrom(parent1);
+                } else {
+                    offspring = new Individual(parent1);
+                    // Add offspring to new population
+                    newPopulation.setIndividual(populationIndex, offspring);
+                }
+                offspring.setGenes(parent2, swapPoint, parent1.getChromosomeLength());
+            } else if (recycle) {
+                // Copy individual to new population without applying crossover
+                Individual copy = newPopulation.getIndividual(populationIndex);
+                copy.copyFrom(parent1);
+                copy.setFitness(parent1.getFitness());
+                copy.setGoodGenes(parent1.getGoodGenes());
+            } else {
+                // Add individual to new population without applying crossover
+                newPopulation.setIndividual(populationIndex, parent1);
+            }
+        }
+
+        this.metrics.addRanking(ranked - start);
+        this.metrics.addSelection(selectionTime);
+        this.metrics.addCrossover(this.now() - ranked - selectionTime);
+
+        return newPopulation;
+    }
+
+    /** Prepare a population to breed offspring from one at a time, see breedOffspring
+     *
+     * The elites are ranked and the selection scheme is prepared, the
+     * population must not change until its offspring are bred.
+     *
+     * @param population
+     *            The evaluated population
+     */
+    public void prepareBreeding(Population population) {
+        long start = this.now();
+        population.rankFittest(this.elitismCount);
+        long ranked = this.now();
+        this.selection.prepare(population, this.random);
+        this.metrics.addRanking(ranked - start);
+        this.metrics.addSelection(this.now() - ranked);
+    }
+
+    /** Breed the offspring of a generation at an index, like breed does for a whole population
+     *
+     * The elites are copied with their fitness. Any other individual is
+     * crossed over with a selected parent, at the crossover rate, or copied,
+     * and then mutated. Each offspring can be evaluated as soon as it is
+     * bred, see EvaluationPipeline.
+     *
+     * @param population
+     *            The parents, prepared with prepareBreeding
+     * @param index
+     *            The rank of the first parent
+     * @param offspring
+     *            The individual to overwrite, not one of the parents
+     */
+    public void breedOffspring(Population population, int index, Individual offspring) {
+        Individual parent1 = population.getRanked(index);
+        if (index < this.elitismCount) {
+            copyWithFitness(parent1, offspring);
+            return;
+        }
+        this.crossOrCopy(parent1, population, offspring);
+    }
+
+    /** Breed an offspring of two selected parents, for steady state replacement
+     *
+     * The first parent is selected too. It is crossed over with the second
+     * at the crossover rate, or copied, and then mutated.
+     *
+     * @param population
+     *            The parents, prepared with prepareBreeding
+     * @param offspring
+     *            The individual to overwrite, not one of the parents
+     */
+    public void breedOffspring(Population population, Individual offspring) {
+        long start = this.now();
+        Individual parent1 = this.selectParent(population);
+        this.metrics.addSelection(this.now() - start);
+        this.crossOrCopy(parent1, population, offspring);
+    }
+
+    /** Cross a parent over with a selected one, or copy it, then mutate the offspring */
+    private void crossOrCopy(Individual parent1, Population population, Individual offspring) {
+        long start = this.now();
+        if (this.crossoverRate > this.random.nextDouble()) {
+            long selecting = this.now();
+            Individual parent2 = this.selectParent(population);
+            long selected = this.now();
+            this.metrics.addSelection(selected - selecting);
+
+            int swapPoint = this.random.nextInt(parent1.getChromosomeLength() + 1);
+            offspring.copyFrom(parent1);
+            offspring.setGenes(parent2, swapPoint, parent1.getChromosomeLength());
+            start += selected - selecting;
+        } else {
+            copyWithFitness(parent1, offspring);
+        }
+        long crossed = this.now();
+        this.metrics.addCrossover(crossed - start);
+
+        this.mutation.mutate(offspring, this.mutationRate, this.random);
+        this.metrics.addMutation(this.now() - crossed);
+    }
+
+    private static void copyWithFitness(Individual source, Individual copy) {
+        copy.copyFrom(source);
+        copy.setFitness(source.getFitness());
+        copy.setGoodGenes(source.getGoodGenes());
+    }
+
+    /** Breed the next generation of a pool
+     *
+     * The current population is bred into the spare one, which becomes the
+     * current population. No population or individual is created. Each
+     * offspring is crossed over and mutated before the next, like
+     * breedOffspring does, so a generation bred an offspring at a time
+     * through an EvaluationPipeline is the same generation.
+     *
+     * @param pool
+     *            The pool holding the current population
+     * @return Population The new current population, not evaluated yet
+     */
+    public Population breed(PopulationPool pool) {
+        Population parents = pool.getCurrent();
+        Population offspring = pool.getSpare();
+        this.prepareBreeding(parents);
+        offspring.invalidateRanking();
+        for (int i = 0; i < parents.size(); i++) {
+            this.breedOffspring(parents, i, offspring.getIndividual(i));
+        }
+        pool.swap();
+        return pool.getCurrent();
+    }
+
+    /** Initialize a pool of two populations
+     * @param chromosomeLength
+     *            The length of the individuals chromosome
+     * @return pool The pool, its current population is the initial population
+     */
+    public PopulationPool initPopulationPool(int chromosomeLength) {
+        return new PopulationPool(this.populationSize, chromosomeLength, this.random);
+    }
+
+}
@@ -0,0 +1,486 @@
+package com.meritonqela.robotmaze;
+
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * An "Individual" represents a single candidate solution. The core piece of
+ * information about an individual is its "chromosome", which is an encoding of
+ * a possible solution to the problem at hand. A chromosome can be a string, an
+ * array, a list, etc -- in this class, the chromosome is a packed array of
+ * longs. Each gene is one of four directions, so it takes 2 bits and a long
+ * holds 32 genes.
+ *
+ * An individual position in the chromosome is called a gene, and these are the
+ * atomic pieces of the solution that can be manipulated or mutated. When the
+ * chromosome is a string, as in this case, each character or set of characters
+ * can be a gene.
+ *
+ * An individual also has a "fitness" score; this is a number that represents
+ * how good a solution to the problem this individual is. The meaning of the
+ * fitness score will vary based on the problem at hand.
+ *
+ * References 'Genetic Algorithms in Java Basics' - Lee Jacobson, Burak Kanber
+ *
+ * @author Meriton Çela
+ *
+ */
+
+public class Individual {
+    /** Number of genes stored in one long */
+    static final int GENES_PER_WORD = 32;
+
+    /** The hash of the empty prefix, see prefixHash */
+    static final long PREFIX_HASH_SEED = 0x9E3779B97F4A7C15L;
+
+    private final long[] chromosome;
+    private final int chromosomeLength;
+    private double fitness = -1;
+    private int goodGenes = -1;
+
+    /** Maze of the last robot run, null if the chromosome was never evaluated */
+    private Maze evaluatedMaze;
+    /** Fitness and steps of the last robot run */
+    private int evaluatedMoves;
+    private int evaluatedSteps;
+    /** Number of leading genes unchanged since the last robot run */
+    private int unchangedGenes;
+    /** Robot's cell every GENES_PER_WORD steps of the last run, lazily allocated */
+    private int[] checkpoints;
+    private int checkpointCount;
+    // Closest distance to the goal at each checkpoint, only kept by distance fitness
+    private int[] closestCheckpoints;
+
+    /** Initializes individual with specific chromosome
+     * @param chromosome The chromosome to give individual
+     */
+    public Individual(int[] chromosome) {
+        // Create individual chromosome
+        this.chromosomeLength = chromosome.length;
+        this.chromosome = new long[wordCount(chromosome.length)];
+        for (int gene = 0; gene < chromosome.length; gene++) {
+            this.setGene(gene, chromosome[gene]);
+        }
+    }
+
+    /** Initializes random individual.
+     *
+     * The chromosome is made of 1s, 2s, 3s and 4s, presenting the directions of robot
+     * 1 - move up
+     * 2 - move left
+     * 3 - move right
+     * 4 - move down
+     *
+     * @param chromosomeLength The length of the individuals chromosome
+     */
+    public Individual(int chromosomeLength) {
+        this(chromosomeLength, ThreadLocalRandom.current());
+    }
+
+    /** Initializes random individual, drawing its genes from a generator
+     * @param chromosomeLength The length of the individuals chromosome
+     * @param random The generator the genes are drawn from
+     */
+    public Individual(int chromosomeLength, RandomGenerator random) {
+
+        this.chromosomeLength = chromosomeLength;
+        this.chromosome = new long[wordCount(chromosomeLength)];
+        // Every 2 bits of a random long are a random direction
+        for (int word = 0; word < this.chromosome.length; word++) {
+            this.chromosome[word] = random.nextLong();
+        }
+        int tail = chromosomeLength % GENES_PER_WORD;
+        if (tail != 0) {
+            // Clear the bits past the last gene
+            this.chromosome[this.chromosome.length - 1] &= (1L << (tail << 1)) - 1;
+        }
+    }
+
+    /** Initializes individual with a copy of another individual's chromosome
+     *
+     * The record of the other individual's last robot run is copied too, so
+     * the copy only has to be simulated from the first gene that changes.
+     * The copy itself is not evaluated, its fitness is unset.
+     *
+     * @param other The individual to copy the chromosome from
+     */
+    public Individual(Individual other) {
+        this.chromosomeLength = other.chromosomeLength;
+        this.chromosome = new long[other.chromosome.length];
+        this.copyFrom(other);
+    }
+
+    /** Overwrite this individual with a copy of another individual of the same length
+     *
+     * This is the copy constructor for recycled individuals: the chromosome
+     * and the record of the last robot run are copied into the storage this
+     * individual already has, and the fitness is unset.
+     *
+     * @param other The individual to copy
+     */
+    public void copyFrom(Individual other) {
+        if (other.chromosomeLength != this.chromosomeLength) {
+            throw new IllegalArgumentException("chromosome lengths differ");
+        }
+        System.arraycopy(other.chromosome, 0, this.chromosome, 0, this.chromosome.length);
+        this.fitness = -1;
+        this.goodGenes = -1;
+        this.evaluatedMaze = other.evaluatedMaze;
+        this.evaluatedMoves = other.evaluatedMoves;
+        this.evaluatedSteps = other.evaluatedSteps;
+        this.unchangedGenes = other.unchangedGenes;
+        this.checkpointCount = other.checkpointCount;
+        if (other.checkpointCount > 0) {
+            System.arraycopy(other.checkpoints, 0, this.getCheckpoints(), 0, other.checkpointCount);
+            if (other.closestCheckpoints != null) {
+                System.arraycopy(other.closestCheckpoints, 0, this.getClosestCheckpoints(), 0, other.checkpointCount);
+            }
+        }
+    }
+
+    /** Gets number of longs needed to hold the genes */
+    static int wordCount(int chromosomeLength) {
+        return (chromosomeLength + GENES_PER_WORD - 1) / GENES_PER_WORD;
+    }
+
+    /** Gets a copy of individual's chromosome, one direction per element
+     * @return The individual's chromosome
+     */
+    public int[] getChromosome() {
+        int[] directions = new int[this.chromosomeLength];
+        for (int gene = 0; gene < this.chromosomeLength; gene++) {
+            directions[gene] = this.getGene(gene);
+        }
+        return directions;
+    }
+
+    /** Gets individual's chromosome length
+     * @return The individual's chromosome length
+     */
+    public int getChromosomeLength() {
+        return this.chromosomeLength;
+    }
+
+    /** Set gene at offset
+     * @param gene
+     * @param offset
+     * @return gene
+     */
+    public void setGene(int offset, int gene) {
+        if (gene < 1 || gene > 4) {
+            throw new IllegalArgumentException("gene must be a direction from 1 to 4: " + gene);
+        }
+        Objects.checkIndex(offset, this.chromosomeLength);
+        int word = offset / GENES_PER_WORD;
+        int shift = (offset % GENES_PER_WORD) << 1;
+        long bits = (this.chromosome[word] & ~(3L << shift)) | ((long) (gene - 1) << shift);
+        if (bits != this.chromosome[word] && offset < this.unchangedGenes) {
+            this.unchangedGenes = offset;
+        }
+        this.chromosome[word] = bits;
+    }
+
+    /** Get gene at offset
+     * @param offset
+     * @return gene
+     */
+    public int getGene(int offset) {
+        Objects.checkIndex(offset, this.chromosomeLength);
+        return (int) (this.chromosome[offset / GENES_PER_WORD] >>> ((offset % GENES_PER_WORD) << 1) & 3) + 1;
+    }
+
+    /** Gets a word of the packed chromosome, genes offset to offset + 31 of word offset / 32
+     * @param word
+     *            Index of the word
+     * @return long 32 genes, 2 bits each, each stored as its direction minus one
+     */
+    long getWord(int word) {
+        return this.chromosome[word];
+    }
+
+    /** Set 32 genes at once, as returned by getWord
+     * @param word
+     *            Index of the word
+     * @param bits
+     *            32 genes, 2 bits each, the bits past the last gene clear
+     */
+    void setWord(int word, long bits) {
+        if (bits != this.chromosome[word]) {
+            this.unchangedGenes = Math.min(this.unchangedGenes, word * GENES_PER_WORD);
+        }
+        this.chromosome[word] = bits;
+    }
+
+    /** Copy a range of genes from another individual of the same length
+     *
+     * The genes are copied a word at a time, so splicing a chromosome costs
+     * one operation per 32 genes.
+     *
+     * @param source
+     *            The individual to copy the genes from
+     * @param from
+     *            First gene to copy, inclusive
+     * @param to
+     *            Last gene to copy, exclusive
+     */
+    public void setGenes(Individual source, int from, int to) {
+        if (source.chromosomeLength != this.chromosomeLength) {
+            throw new IllegalArgumentException("chromosome lengths differ");
+        }
+        if (from >= to) {
+            return;
+        }
+
+        int fromWord = from / GENES_PER_WORD;
+        int toWord = (to - 1) / GENES_PER_WORD;
+        for (int word = fromWord; word <= toWord; word++) {
+            long mask = -1L;
+            if (word == fromWord) {
+                mask &= -1L << ((from % GENES_PER_WORD) << 1);
+            }
+            if (word == toWord) {
+                mask &= -1L >>> ((GENES_PER_WORD - 1 - (to - 1) % GENES_PER_WORD) << 1);
+            }
+            long bits = (this.chromosome[word] & ~mask) | (source.chromosome[word] & mask);
+            long changed = bits ^ this.chromosome[word];
+            if (changed != 0) {
+                // The lowest changed bit tells the first changed gene
+                int offset = word * GENES_PER_WORD + (Long.numberOfTrailingZeros(changed) >>> 1);
+                if (offset < this.unchangedGenes) {
+                    this.unchangedGenes = offset;
+                }
+            }
+            this.chromosome[word] = bits;
+        }
+    }
+
+    /** Gets a hash of the first genes of the chromosome
+     *
+     * The full words of the prefix are hashed one after the other, so the
+     * hashes of increasing lengths can be computed in one pass with
+     * extendPrefixHash and finishPrefixHash.
+     *
+     * @param length
+     *            Number of genes to hash
+     * @return long The hash of the prefix
+     */
+    public long prefixHash(int length) {
+        long hash = PREFIX_HASH_SEED;
+        for (int word = 0; word < length / GENES_PER_WORD; word++) {
+            hash = extendPrefixHash(hash, this.chromosome[word]);
+        }
+        return finishPrefixHash(hash, this.partialPrefixWord(length), length);
+    }
+
+    /** Extend the hash of the first full words of a prefix by the next full word */
+    static long extendPrefixHash(long hash, long word) {
+        hash = (hash ^ word) * 0xBF58476D1CE4E5B9L;
+        return hash ^ (hash >>> 31);
+    }
+
+    /** Finish the hash of a prefix from the hash of its full words
+     * @param hash
+     *            The hash of the prefix's full words
+     * @param partialWord
+     *            The genes of the last, partial word, see partialPrefixWord
+     * @param length
+     *            Number of genes in the prefix
+     * @return long The hash of the prefix
+     */
+    static long finishPrefixHash(long hash, long partialWord, int length) {
+        hash = (hash ^ partialWord ^ (length * 0x94D049BB133111EBL)) * 0xBF58476D1CE4E5B9L;
+        return hash ^ (hash >>> 31);
+    }
+
+    /** Gets the genes of a prefix past its last full word, or 0 if there are none */
+    long partialPrefixWord(int length) {
+        return length % GENES_PER_WORD == 0 ? 0 : this.prefixWord(length / GENES_PER_WORD, length);
+    }
+
+    /** Gets a copy of the words holding the first genes, genes past the prefix are cleared
+     * @param length
+     *            Number of genes to copy
+     * @return long[] The packed prefix
+     */
+    public long[] copyPrefix(int length) {
+        long[] prefix = new long[wordCount(length)];
+        this.copyPrefix(length, prefix);
+        return prefix;
+    }
+
+    /** Copy the words holding the first genes into the first words of an array
+     * @param length
+     *            Number of genes to copy
+     * @param prefix
+     *            The array, at least wordCount(length) long
+     */
+    void copyPrefix(int length, long[] prefix) {
+        for (int word = 0; word < wordCount(length); word++) {
+            prefix[word] = this.prefixWord(word, length);
+        }
+    }
+
+    /** Check if the chromosome starts with a packed prefix
+     * @param prefix
+     *            The packed prefix, as written by copyPrefix, words past it are ignored
+     * @param length
+     *            Number of genes in the prefix
+     * @return boolean True if the first genes equal the prefix
+     */
+    public boolean prefixEquals(long[] prefix, int length) {
+        if (length > this.chromosomeLength || prefix.length < wordCount(length)) {
+            return false;
+        }
+        for (int word = 0; word < wordCount(length); word++) {
+            if (this.prefixWord(word, length) != prefix[word]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Gets a word of the chromosome with the genes past length cleared */
+    private long prefixWord(int word, int length) {
+        long bits = this.chromosome[word];
+        int genes = length - word * GENES_PER_WORD;
+        if (genes < GENES_PER_WORD) {
+            bits &= (1L << (genes << 1)) - 1;
+        }
+        return bits;
+    }
+
+    /** Store individual's fitness
+     *
+     * A population ranked before doesn't see the change, see
+     * Population.invalidateRanking.
+     *
+     * @param fitness The individuals fitness
+     */
+    public void setFitness(double fitness) {
+        this.fitness = fitness;
+    }
+
+    /** Gets individual's fitness
+     * @return The individual's fitness
+     */
+    public double getFitness() {
+        return this.fitness;
+    }
+
+    /** Sets number of genes that robot is alive after n directions that have made */
+    public void setGoodGenes(int g){
+        goodGenes = g;
+    }
+
+    /** Gets number of genes that robot is alive after n directions that have made */
+    public int getGoodGenes(){
+        return goodGenes;
+    }
+
+    /** Gets number of leading genes unchanged since the last robot run in a maze
+     * @param maze
+     *            The maze the individual is evaluated in
+     * @return int The unchanged genes, or -1 if the individual was never run in this maze
+     */
+    int getUnchangedGenes(Maze maze) {
+        return this.evaluatedMaze == maze ? this.unchangedGenes : -1;
+    }
+
+    /** Checks if the chromosome changed since the individual was last evaluated in a maze
+     *
+     * Only genes whose direction actually changes make an individual dirty,
+     * setting a gene to the direction it already has doesn't. A clean
+     * individual is evaluated without running a robot.
+     *
+     * @param maze
+     *            The maze the individual is evaluated in
+     * @return boolean True if it was never evaluated in the maze, or a gene changed since
+     */
+    public boolean isDirty(Maze maze) {
+        return this.evaluatedMaze != maze || this.unchangedGenes < this.chromosomeLength;
+    }
+
+    /** Gets fitness of the last robot run */
+    int getEvaluatedMoves() {
+        return this.evaluatedMoves;
+    }
+
+    /** Gets steps of the last robot run */
+    int getEvaluatedSteps() {
+        return this.evaluatedSteps;
+    }
+
+    /** Gets the robot's cells recorded every GENES_PER_WORD steps
+     *
+     * Entry k holds the cell the robot was in before step k * GENES_PER_WORD.
+     * Only the first getCheckpointCount entries belong to the last run.
+     *
+     * @return int[] The checkpoints
+     */
+    int[] getCheckpoints() {
+        if (this.checkpoints == null) {
+            this.checkpoints = new int[wordCount(this.chromosomeLength)];
+        }
+        return this.checkpoints;
+    }
+
+    /** Gets the robot's closest distance to the goal at each checkpoint
+     *
+     * Entry k holds the smallest distance of the cells the robot visited up
+     * to the cell of checkpoint k. Only written when fitness is the distance
+     * to the goal.
+     *
+     * @return int[] The distances
+     */
+    int[] getClosestCheckpoints() {
+        if (this.closestCheckpoints == null) {
+            this.closestCheckpoints = new int[wordCount(this.chromosomeLength)];
+        }
+        return this.closestCheckpoints;
+    }
+
+    /** Gets number of valid checkpoints */
+    int getCheckpointCount() {
+        return this.checkpointCount;
+    }
+
+    /** Record a robot run, the chromosome is unchanged from here on
+     * @param maze
+     *            The maze the robot ran in
+     * @param moves
+     *            The robot's moves
+     * @param steps
+     *            The robot's steps
+     * @param checkpointCount
+     *            Number of valid checkpoints
+     */
+    void setEvaluated(Maze maze, int moves, int steps, int checkpointCount) {
+        this.evaluatedMaze = maze;
+        this.evaluatedMoves = moves;
+        this.evaluatedSteps = steps;
+        this.unchangedGenes = this.chromosomeLength;
+        this.checkpointCount = checkpointCount;
+    }
+
+
+    /** Display the chromosome as a string.
+     * @return string representation of the chromosome
+     */
+    public String toString() {
+        String output = "";
+
+        // To display the entire chromosome
+        /*for (int gene = 0; gene < this.chromosomeLength; gene++) {
+            output += this.getGene(gene)+" ";
+        }*/
+
+        // To display the chromosome until the robot is destroyed
+        for (int gene = 0; gene < this.goodGenes; gene++) {
+            output += this.getGene(gene)+" ";
+        }
+        return output;
+    }
+
+}
+
@@ -0,0 +1,41 @@
+package com.meritonqela.robotmaze;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Inversion mutation reverses a short run of genes starting at each picked
+ * gene, so the robot makes the same moves in the opposite order. The length
+ * of a run is drawn between 2 and a maximum, runs are cut at the end of the
+ * chromosome.
+ *
+ * @author Meriton Çela
+ */
+public class InversionMutation extends PointMutation {
+    private final int maxLength;
+
+    /** Initializes inversion mutation
+     * @param maxLength
+     *            The longest run of genes reversed, at least 2
+     */
+    public InversionMutation(int maxLength) {
+        if (maxLength < 2) {
+            throw new IllegalArgumentException("maxLength must be at least 2");
+        }
+        this.maxLength = maxLength;
+    }
+
+    @Override
+    protected void mutateGene(Individual individual, int offset, RandomGenerator random) {
+        int last = Math.min(individual.getChromosomeLength(), offset + random.nextInt(2, this.maxLength + 1)) - 1;
+        for (int first = offset; first < last; first++, last--) {
+            int gene = individual.getGene(first);
+            individual.setGene(first, individual.getGene(last));
+            individual.setGene(last, gene);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "InversionMutation(" + this.maxLength + ")";
+    }
+}
@@ -0,0 +1,340 @@
+package com.meritonqela.robotmaze;
+
+import java.util.Arrays;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * The island model runs several populations side by side, each evolved by
+ * its own GeneticAlgorithm on its own thread. Every few generations the
+ * islands send copies of their best individuals to their neighbours, which
+ * replace their worst individuals with them. Islands explore on their own
+ * between migrations, which keeps the search from converging early on a
+ * deceptive dead end, and they use one core each.
+ *
+ * Islands meet at each migration, so every island receives its migrants in
+ * the same generation they are sent. Each island publishes its migrants in
+ * an outbox of its own, and receivers read the outboxes in island order.
+ * The best individual found by any island is shared and can be read while
+ * the model runs.
+ *
+ * Migration is synchronous rather than handed over through lock-free queues
+ * an island would poll whenever it gets to it: what an island receives
+ * would then depend on how fast its neighbours run, and a seed couldn't
+ * repeat a run. Islands only wait for each other once every migration
+ * interval, a wait on a Phaser, and the outboxes are double buffered so no
+ * lock is taken to write or read them.
+ *
+ * With a seed, see setSeed, a run is repeated exactly: each island draws
+ * from its own stream of the seed, migrants arrive in the same order, a
+ * target fitness stops the islands at the same migration, and ties for the
+ * best individual go to the lowest island.
+ *
+ * @author Meriton Çela
+ */
+public class IslandModel {
+
+    public enum Topology {
+        /** Each island sends to the next one, the last to the first */
+        RING,
+        /** Each island sends to every other island */
+        FULLY_CONNECTED
+    }
+
+    private final GeneticAlgorithm[] algorithms;
+    // Migrants of each island, double buffered: an island may write the
+    // next migration's outbox while its neighbours still read this one
+    private final Individual[][][] outboxes;
+    // Of each island, reused by every migration: the migrants it receives,
+    // fittest first, and the indices of its least fit individuals, least fit first
+    private final Individual[][] arrivals;
+    private final int[][] worst;
+    private final AtomicReference<Best> bestSoFar = new AtomicReference<>();
+    // First generation an island exceeded the target fitness in
+    private final AtomicInteger targetGeneration = new AtomicInteger(Integer.MAX_VALUE);
+    private Topology topology = Topology.RING;
+    private int migrationInterval = 20;
+    private int migrationSize = 2;
+    private double targetFitness = Double.POSITIVE_INFINITY;
+    private RandomStreams randomStreams;
+    private volatile boolean failed;
+
+    /** Initializes the islands
+     * @param islandCount
+     *            Number of islands
+     * @param algorithms
+     *            Creates the genetic algorithm of each island, called once per island
+     */
+    public IslandModel(int islandCount, Supplier<GeneticAlgorithm> algorithms) {
+        if (islandCount < 1) {
+            throw new IllegalArgumentException("islandCount must be positive");
+        }
+        this.algorithms = new GeneticAlgorithm[islandCount];
+        this.outboxes = new Individual[2][islandCount][];
+        this.arrivals = new Individual[islandCount][0];
+        this.worst = new int[islandCount][0];
+        for (int i = 0; i < islandCount; i++) {
+            this.algorithms[i] = algorithms.get();
+        }
+    }
+
+    /** Set how islands are connected, a ring by default */
+    public void setTopology(Topology topology) {
+        this.topology = topology;
+    }
+
+    /** Configure migration
+     * @param migrationInterval
+     *            Number of generations between migrations
+     * @param migrationSize
+     *            Number of best individuals sent to each neighbour
+     */
+    public void setMigration(int migrationInterval, int migrationSize) {
+        if (migrationInterval < 1 || migrationSize < 0) {
+            throw new IllegalArgumentException("migrationInterval must be positive and migrationSize not negative");
+        }
+        this.migrationInterval = migrationInterval;
+        this.migrationSize = migrationSize;
+    }
+
+    /** Set the fitness that stops every island once an island exceeds it, none by default
+     *
+     * The islands stop together at the first migration after it was exceeded.
+     */
+    public void setTargetFitness(double targetFitness) {
+        this.targetFitness = targetFitness;
+    }
+
+    /** Seed the islands, so runs are repeated exactly
+     *
+     * Every run gives island i the generator of stream i of the seed,
+     * replacing the generator of its genetic algorithm.
+     *
+     * @param seed
+     *            The run's seed
+     */
+    public void setSeed(long seed) {
+        this.randomStreams = new RandomStreams(seed);
+    }
+
+    /** Gets number of islands */
+    public int getIslandCount() {
+        return this.algorithms.length;
+    }
+
+    /** Gets the genetic algorithm of an island, for instance to configure it
+     * @param island
+     *            The island's index
+     * @return GeneticAlgorithm The island's genetic algorithm
+     */
+    public GeneticAlgorithm getAlgorithm(int island) {
+        return this.algorithms[island];
+    }
+
+    /** Gets the best individual found so far by any island
+     * @return Individual A copy of the best individual, or null before the first evaluation
+     */
+    public Individual getBestSoFar() {
+        Best best = this.bestSoFar.get();
+        return best == null ? null : best.individual;
+    }
+
+    /** Evolve every island in the maze
+     * @param maze
+     *            The maze to solve
+     * @param chromosomeLength
+     *            The length of the individuals chromosome
+     * @param maxGenerations
+     *            Number of generations to terminate after
+     * @return Individual The best individual found by any island
+     */
+    public Individual run(Maze maze, int chromosomeLength, int maxGenerations) throws InterruptedException {
+        int islandCount = this.algorithms.length;
+        Phaser migrations = new Phaser(islandCount);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread[] threads = new Thread[islandCount];
+        this.failed = false;
+        this.bestSoFar.set(null);
+        this.targetGeneration.set(Integer.MAX_VALUE);
+
+        for (int i = 0; i < islandCount; i++) {
+            int island = i;
+            if (this.randomStreams != null) {
+                this.algorithms[i].setRandom(this.randomStreams.stream(i));
+            }
+            threads[i] = new Thread(() -> {
+                try {
+                    this.evolve(island, maze, chromosomeLength, maxGenerations, migrations);
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                    this.failed = true;
+                } finally {
+                    // Don't keep the other islands waiting at the next migration
+                    migrations.arriveAndDeregister();
+                }
+            }, "island-" + i);
+            threads[i].start();
+        }
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        if (failure.get() != null) {
+            throw new IllegalStateException("An island failed", failure.get());
+        }
+        return this.getBestSoFar();
+    }
+
+    /** Evolve one island, the same loop as RobotController with migration added */
+    private void evolve(int island, Maze maze, int chromosomeLength, int maxGenerations, Phaser migrations) {
+        GeneticAlgorithm ga = this.algorithms[island];
+        PopulationPool pool = ga.initPopulationPool(chromosomeLength);
+        Population population = pool.getCurrent();
+        ga.evalPopulation(population, maze);
+        this.offerBest(island, 0, population.getFittest(0));
+
+        int generation = 1;
+        while (!ga.isTerminationConditionMet(generation, maxGenerations) && !this.failed) {
+            // Apply crossover and mutation
+            population = ga.breed(pool);
+
+            // Evaluate population
+            ga.evalPopulation(population, maze);
+            this.offerBest(island, generation, population.getFittest(0));
+
+            if (generation % this.migrationInterval == 0) {
+                int outbox = (generation / this.migrationInterval) & 1;
+                if (this.migrationSize > 0) {
+                    this.emigrate(island, outbox, population);
+                }
+                migrations.arriveAndAwaitAdvance();
+                if (this.migrationSize > 0) {
+                    this.immigrate(island, outbox, population);
+                }
+                // Every island that exceeded the target by now has said so,
+                // islands running ahead can only report later generations
+                if (this.targetGeneration.get() <= generation) {
+                    break;
+                }
+            }
+
+            generation++;
+        }
+    }
+
+    /** Publish copies of the best individuals of an island */
+    private void emigrate(int island, int outbox, Population population) {
+        int count = Math.min(this.migrationSize, population.size());
+        Individual[] migrants = new Individual[count];
+        for (int i = 0; i < count; i++) {
+            migrants[i] = copyOf(population.getFittest(i));
+        }
+        this.outboxes[outbox][island] = migrants;
+    }
+
+    /** Replace the worst individuals of an island with the migrants of its neighbours */
+    private void immigrate(int island, int outbox, Population population) {
+        int islandCount = this.algorithms.length;
+        int count = 0;
+        // Read the neighbours in island order, so migrants always arrive in the same order
+        for (int source = 0; source < islandCount; source++) {
+            boolean neighbour = this.topology == Topology.RING
+                    ? (source + 1) % islandCount == island
+                    : source != island;
+            if (!neighbour || source == island) {
+                continue;
+            }
+            for (Individual migrant : this.outboxes[outbox][source]) {
+                if (count == this.arrivals[island].length) {
+                    this.arrivals[island] = Arrays.copyOf(this.arrivals[island], Math.max(4, 2 * count));
+                }
+                // Keep the arrivals fittest first, the first of equals first
+                Individual[] arrivals = this.arrivals[island];
+                int i = count++;
+                for (; i > 0 && arrivals[i - 1].getFitness() < migrant.getFitness(); i--) {
+                    arrivals[i] = arrivals[i - 1];
+                }
+                arrivals[i] = migrant;
+            }
+        }
+        Individual[] arrivals = this.arrivals[island];
+
+        // Find as many of the least fit individuals in a single pass
+        Individual[] individuals = population.getIndividuals();
+        count = Math.min(count, individuals.length);
+        if (this.worst[island].length < count) {
+            this.worst[island] = new int[count];
+        }
+        int[] worst = this.worst[island];
+        int found = 0;
+        for (int index = 0; index < individuals.length; index++) {
+            double fitness = individuals[index].getFitness();
+            if (found == count && (count == 0 || fitness >= individuals[worst[count - 1]].getFitness())) {
+                continue;
+            }
+            int i = found < count ? found++ : count - 1;
+            for (; i > 0 && individuals[worst[i - 1]].getFitness() > fitness; i--) {
+                worst[i] = worst[i - 1];
+            }
+            worst[i] = index;
+        }
+
+        // The fittest migrants replace the least fit individuals, as long as they are fitter
+        for (int i = 0; i < count; i++) {
+            Individual migrant = arrivals[i];
+            Individual replaced = individuals[worst[i]];
+            if (replaced.getFitness() >= migrant.getFitness()) {
+                // Everyone left is at least as good as the migrants left
+                break;
+            }
+            // Copy into the pool's individual, the migrant is read by other islands too
+            replaced.copyFrom(migrant);
+            replaced.setFitness(migrant.getFitness());
+            replaced.setGoodGenes(migrant.getGoodGenes());
+        }
+        Arrays.fill(arrivals, null);
+        population.invalidateRanking();
+    }
+
+    /** Share an island's best individual if it beats the best so far, the lower island wins a tie */
+    private void offerBest(int island, int generation, Individual candidate) {
+        Best current = this.bestSoFar.get();
+        Best best = null;
+        while (current == null || candidate.getFitness() > current.individual.getFitness()
+                || (candidate.getFitness() == current.individual.getFitness() && island < current.island)) {
+            if (best == null) {
+                best = new Best(copyOf(candidate), island);
+            }
+            if (this.bestSoFar.compareAndSet(current, best)) {
+                break;
+            }
+            current = this.bestSoFar.get();
+        }
+
+        if (candidate.getFitness() > this.targetFitness) {
+            this.targetGeneration.accumulateAndGet(generation, Math::min);
+        }
+    }
+
+    /** Copy an individual along with its fitness, so it can leave its island */
+    private static Individual copyOf(Individual individual) {
+        Individual copy = new Individual(individual);
+        copy.setFitness(individual.getFitness());
+        copy.setGoodGenes(individual.getGoodGenes());
+        return copy;
+    }
+
+    /** The best individual so far and the island that found it */
+    private static class Best {
+        final Individual individual;
+        final int island;
+
+        Best(Individual individual, int island) {
+            this.individual = individual;
+            this.island = island;
+        }
+    }
+}
@@ -0,0 +1,406 @@
+package com.meritonqela.robotmaze;
+
+import java.nio.LongBuffer;
+import java.util.Arrays;
+
+/**
+ * This class abstracts a maze through which a robot will have to move. The
+ * maze is represented as a 2d array of integers, with different environment
+ * types represented by integers as follows:
+ *
+ * 0 = Empty
+ * 1 = Wall
+ * 2 = Starting position
+ * 4 = Goal position
+ *
+ * The first time robots need it, the maze is compiled into a transition table
+ * that is cached and shared, so the grid must not change after that. The
+ * same goes for the distance of every cell to the goal.
+ *
+ * A maze can also be packed, see toPacked: only the walls are stored, a bit
+ * per cell in one long[], and the start and goal are kept as coordinates. A
+ * packed maze takes 32 times less memory than the int grid, and with no
+ * array per row a lookup is a single word read. Mazes too large for a
+ * transition table are walked on their wall bits instead, see CompiledMaze.
+ * The bits can also be mapped from a file without reading them onto the
+ * heap, see MazeFile.
+ *
+ * References 'Genetic Algorithms in Java Basics' - Lee Jacobson, Burak Kanber
+ *
+ * @author Meriton Çela
+ *
+ */
+
+public class Maze {
+    // The grid, or null if the maze is packed
+    private final int maze[][];
+    // The walls of a packed maze, bit x * columns + y, null for a grid
+    private final LongBuffer walls;
+    private final int rows;
+    private final int columns;
+    private int startX;
+    private int startY;
+    private int endX;
+    private int endY;
+    private int freeSpaces;
+    private volatile CompiledMaze compiled;
+    private volatile int[] goalDistances;
+
+    /** Distance of a cell the goal can't be reached from, or of a wall */
+    public static final int UNREACHABLE = -1;
+
+    public Maze(int maze[][]) {
+        this.maze = maze;
+        this.walls = null;
+        this.rows = maze.length;
+        this.columns = maze[0].length;
+        set_start_finish_positions();
+        setFreeSpaces();
+    }
+
+    /** Wraps a grid whose start, goal and free spaces are already known,
+     * without scanning it
+     */
+    Maze(int maze[][], int startX, int startY, int endX, int endY, int freeSpaces) {
+        this.maze = maze;
+        this.walls = null;
+        this.rows = maze.length;
+        this.columns = maze[0].length;
+        this.startX = startX;
+        this.startY = startY;
+        this.endX = endX;
+        this.endY = endY;
+        this.freeSpaces = freeSpaces;
+    }
+
+    /** Initializes a packed maze
+     * @param walls
+     *            The walls, bit x * columns + y of the array is set for a wall,
+     *            taken without a copy
+     * @param rows
+     *            Number of rows
+     * @param columns
+     *            Number of columns
+     * @param startX
+     *            Row of the starting position
+     * @param startY
+     *            Column of the starting position
+     * @param endX
+     *            Row of the goal
+     * @param endY
+     *            Column of the goal
+     */
+    public Maze(long[] walls, int rows, int columns, int startX, int startY, int endX, int endY) {
+        this(LongBuffer.wrap(walls), rows, columns, startX, startY, endX, endY, -1);
+    }
+
+    /** Wraps packed walls, on the heap or mapped, counting the free spaces if freeSpaces is negative */
+    Maze(LongBuffer walls, int rows, int columns, int startX, int startY, int endX, int endY, int freeSpaces) {
+        if (rows < 1 || columns < 1 || (long) rows * columns > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("rows and columns must be positive, with fewer than 2^31 cells");
+        }
+        if (walls.limit() < wordCount(rows * columns)) {
+            throw new IllegalArgumentException("walls must hold a bit per cell");
+        }
+        this.maze = null;
+        this.walls = walls;
+        this.rows = rows;
+        this.columns = columns;
+        this.startX = startX;
+        this.startY = startY;
+        this.endX = endX;
+        this.endY = endY;
+        if (this.isWall(startX, startY) || this.isWall(endX, endY)) {
+            throw new IllegalArgumentException("start and goal must be free cells in the maze");
+        }
+
+        if (freeSpaces < 0) {
+            // Every cell but the walls, the start and the goal
+            int cells = rows * columns;
+            int wallCount = 0;
+            for (int word = 0; word < cells >>> 6; word++) {
+                wallCount += Long.bitCount(walls.get(word));
+            }
+            if ((cells & 63) != 0) {
+                wallCount += Long.bitCount(walls.get(cells >>> 6) & (1L << cells) - 1);
+            }
+            freeSpaces = cells - wallCount - (startX == endX && startY == endY ? 1 : 2);
+        }
+        this.freeSpaces = freeSpaces;
+    }
+
+    /** Gets the number of longs holding a bit per cell */
+    static int wordCount(int cells) {
+        return (int) ((cells + 63L) >>> 6);
+    }
+
+    /** Gets the maze with its walls packed into bits
+     *
+     * Cells are either walls or free, besides the start and the goal. A grid
+     * with several goals keeps only the one getEndX and getEndY point to.
+     *
+     * @return Maze A packed maze, this maze if it is packed already
+     */
+    public Maze toPacked() {
+        if (this.walls != null) {
+            return this;
+        }
+        long[] walls = new long[wordCount(this.rows * this.columns)];
+        for (int x = 0; x < this.rows; x++) {
+            int[] row = this.maze[x];
+            for (int y = 0; y < this.columns; y++) {
+                if (row[y] == 1) {
+                    int cell = x * this.columns + y;
+                    walls[cell >>> 6] |= 1L << cell;
+                }
+            }
+        }
+        return new Maze(LongBuffer.wrap(walls), this.rows, this.columns, this.startX, this.startY,
+                this.endX, this.endY, this.freeSpaces);
+    }
+
+    /** Checks if the walls are packed into bits */
+    public boolean isPacked() {
+        return this.walls != null;
+    }
+
+    /** Gets the walls of a packed maze, bit x * columns + y is set for a wall
+     * @return LongBuffer The walls, not to be modified, or null for a grid
+     */
+    LongBuffer getWalls() {
+        return this.walls;
+    }
+
+    /** Set start & finish positions in maze */
+    private void set_start_finish_positions(){
+        for (int i = 0; i <= getMaxX(); i++){
+            for (int j = 0; j <= getMaxY(); j++){
+                if (maze[i][j] == 2){
+                    startX = i;
+                    startY = j;
+                }
+
+                if (maze[i][j]== 4){
+                    endX = i;
+                    endY = j;
+                }
+            }
+        }
+    }
+
+    /** Count number of free spaces in maze */
+    private void setFreeSpaces() {
+        for (int i = 0; i <= getMaxX(); i++) {
+            for (int j = 0; j <= getMaxY(); j++) {
+                if (maze[i][j] == 0) {
+                    freeSpaces++;
+                }
+            }
+        }
+    }
+
+    /** Gets index of row, that is  located start position */
+    public int getStartX(){
+        return startX;
+    }
+
+    /** Gets index of column, that is  located start position */
+    public int getStartY(){
+        return startY;
+    }
+
+    /** Gets index of row, that is  located finish position */
+    public int getEndX(){
+        return endX;
+    }
+
+    /** Gets index of column, that is  located finish position */
+    public int getEndY(){
+        return endY;
+    }
+
+    /** Gets number of free spaces in maze */
+    public int getNumOfFreeSpaces(){
+        return freeSpaces;
+    }
+
+    /** Gets value for position of maze
+     * @param x
+     *            position
+     * @param y
+     *            position
+     * @return int Position value
+     */
+    public int getPositionValue(int x, int y) {
+        if (x < 0 || y < 0 || x >= this.rows || y >= this.columns) {
+            return 1;
+        }
+        if (this.walls == null) {
+            return this.maze[x][y];
+        }
+        int cell = x * this.columns + y;
+        if ((this.walls.get(cell >>> 6) & 1L << cell) != 0) {
+            return 1;
+        }
+        if (x == this.endX && y == this.endY) {
+            return 4;
+        }
+        return x == this.startX && y == this.startY ? 2 : 0;
+    }
+
+    /** Check if position is wall
+     * @param x
+     *            position
+     * @param y
+     *            position
+     * @return boolean
+     */
+    public boolean isWall(int x, int y) {
+        if (this.walls != null) {
+            if (x < 0 || y < 0 || x >= this.rows || y >= this.columns) {
+                return true;
+            }
+            int cell = x * this.columns + y;
+            return (this.walls.get(cell >>> 6) & 1L << cell) != 0;
+        }
+        return (this.getPositionValue(x, y) == 1);
+    }
+
+    /** Gets maximum index of x position
+     * @return int Max index
+     */
+    public int getMaxX() {
+
+        return this.rows - 1;
+    }
+
+    /** Gets maximum index of y position
+     * @return int Max index
+     */
+    public int getMaxY() {
+        return this.columns - 1;
+    }
+
+    /** Gets the maze compiled into a transition table
+     *
+     * The table is built once and cached. Compiling is deterministic, so if
+     * two threads race, both get equivalent tables. Mazes of more than
+     * CompiledMaze.TABLE_CELL_LIMIT cells get no table, their robots step
+     * on the wall bits.
+     *
+     * @return CompiledMaze The compiled maze
+     */
+    public CompiledMaze getCompiled() {
+        CompiledMaze compiled = this.compiled;
+        if (compiled == null) {
+            compiled = new CompiledMaze(this, (long) this.rows * this.columns <= CompiledMaze.TABLE_CELL_LIMIT);
+            this.compiled = compiled;
+        }
+        return compiled;
+    }
+
+    /** Gets the distance of every cell to the goal
+     *
+     * The distances are the fewest moves from the cell to the goal, found
+     * with a breadth first search from the goal that is run once and cached.
+     * Cells are numbered like in the compiled maze, x * columns + y. The
+     * search takes 8 bytes per cell, so mazes of more than
+     * CompiledMaze.TABLE_CELL_LIMIT cells have no distances, see
+     * getGoalDistance.
+     *
+     * @return int[] The distances, UNREACHABLE for walls and cells cut off
+     *         from the goal, not to be modified, or null for a maze too large
+     */
+    public int[] getGoalDistances() {
+        if ((long) this.rows * this.columns > CompiledMaze.TABLE_CELL_LIMIT) {
+            return null;
+        }
+        int[] distances = this.goalDistances;
+        if (distances == null) {
+            distances = this.searchGoalDistances();
+            this.goalDistances = distances;
+        }
+        return distances;
+    }
+
+    /** Gets the distance of a cell to the goal
+     *
+     * For mazes too large for getGoalDistances, the distance ignoring the
+     * walls is used instead: the Manhattan distance, which never exceeds
+     * the real one. It is UNREACHABLE only if the maze has no goal.
+     *
+     * @param cell
+     *            The cell, x * columns + y
+     * @return int The distance, see getGoalDistances
+     */
+    public int getGoalDistance(int cell) {
+        int[] distances = this.getGoalDistances();
+        if (distances != null) {
+            return distances[cell];
+        }
+        if (this.getPositionValue(this.endX, this.endY) != 4) {
+            return UNREACHABLE;
+        }
+        int columns = this.getCompiled().getColumns();
+        return Math.abs(cell / columns - this.endX) + Math.abs(cell % columns - this.endY);
+    }
+
+    /** Gets the distance of the starting position to the goal, UNREACHABLE if it's cut off */
+    public int getStartDistance() {
+        CompiledMaze compiled = this.getCompiled();
+        return this.getGoalDistance(compiled.getStartCell());
+    }
+
+    private int[] searchGoalDistances() {
+        CompiledMaze compiled = this.getCompiled();
+        int[] distances = new int[this.rows * this.columns];
+        Arrays.fill(distances, UNREACHABLE);
+        if (this.getPositionValue(this.endX, this.endY) != 4) {
+            // No goal
+            return distances;
+        }
+
+        // Moves go both ways between free cells, so the cells a cell can
+        // move to are the ones that can move to it
+        int[] queue = new int[distances.length];
+        int head = 0;
+        int tail = 0;
+        int goal = this.endX * compiled.getColumns() + this.endY;
+        distances[goal] = 0;
+        queue[tail++] = goal;
+        while (head < tail) {
+            int cell = queue[head++];
+            for (int direction = 1; direction <= 4; direction++) {
+                int next = compiled.next(cell, direction);
+                if (next == CompiledMaze.DEAD) {
+                    continue;
+                }
+                next = CompiledMaze.cellOf(next);
+                if (distances[next] == UNREACHABLE) {
+                    distances[next] = distances[cell] + 1;
+                    queue[tail++] = next;
+                }
+            }
+        }
+        return distances;
+    }
+
+    /** Gets 2d array of maze
+     *
+     * A packed maze is unpacked into a new grid on every call.
+     *
+     * @return  int[][] */
+    public int[][] getMaze(){
+        if (this.walls == null) {
+            return maze;
+        }
+        int[][] grid = new int[this.rows][this.columns];
+        for (int x = 0; x < this.rows; x++) {
+            for (int y = 0; y < this.columns; y++) {
+                grid[x][y] = this.getPositionValue(x, y);
+            }
+        }
+        return grid;
+    }
+
+}
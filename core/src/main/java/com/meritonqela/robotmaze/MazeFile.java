@@ -0,0 +1,295 @@
+package com.meritonqela.robotmaze;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads and writes mazes in a binary file, so they don't have to be written
+ * as Java arrays and can be larger than the heap would allow as a grid.
+ *
+ * The file is little endian: a 40 byte header of the magic "RMAZ", the
+ * version, the rows and columns, the start and goal coordinates and the
+ * number of free spaces, then the walls packed like in a packed Maze, a bit
+ * per cell, cell x * columns + y being bit cell % 64 of long cell / 64.
+ *
+ * A maze file is loaded by mapping its walls into memory, so loading takes
+ * the same time whatever the size of the maze, and the walls are paged in
+ * by the operating system as robots reach them, outside of the heap.
+ *
+ * Mazes in plain text are converted in one pass, a row per line and a
+ * character per cell, without holding the maze in memory:
+ *
+ * 1 or # = Wall
+ * 0 or . = Empty
+ * 2 or S = Starting position
+ * 4 or G = Goal position
+ *
+ * Spaces, tabs, commas and braces between cells are ignored, so the rows of
+ * a Java array literal can be pasted as they are.
+ *
+ * @author Meriton Çela
+ */
+public final class MazeFile {
+    private static final int MAGIC = 0x5a414d52; // "RMAZ" in little endian
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 40;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private MazeFile() {
+    }
+
+    /** Load a maze file, mapping its walls into memory
+     *
+     * The mapping outlives the file channel and is released with the maze.
+     *
+     * @param path
+     *            The maze file
+     * @return Maze A packed maze over the mapped walls
+     * @throws IOException
+     *            If the file can't be read, or isn't a maze file
+     */
+    public static Maze map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining()) {
+                if (channel.read(header, header.position()) < 0) {
+                    throw new IOException(header.position() < Integer.BYTES || header.getInt(0) != MAGIC
+                            ? "Not a maze file: " + path : "Maze file truncated: " + path);
+                }
+            }
+            header.flip();
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Not a maze file: " + path);
+            }
+            if (header.getInt() != VERSION) {
+                throw new IOException("Unsupported maze file version: " + path);
+            }
+            int rows = header.getInt();
+            int columns = header.getInt();
+            int startX = header.getInt();
+            int startY = header.getInt();
+            int endX = header.getInt();
+            int endY = header.getInt();
+            int freeSpaces = header.getInt();
+
+            long cells = (long) rows * columns;
+            if (rows < 1 || columns < 1 || cells > Integer.MAX_VALUE) {
+                throw new IOException("Invalid maze size " + rows + "x" + columns + ": " + path);
+            }
+            long wallBytes = (long) Maze.wordCount((int) cells) * Long.BYTES;
+            if (channel.size() < HEADER_SIZE + wallBytes) {
+                throw new IOException("Maze file truncated: " + path);
+            }
+
+            LongBuffer walls = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, wallBytes)
+                    .order(ByteOrder.LITTLE_ENDIAN)
+                    .asLongBuffer();
+            try {
+                return new Maze(walls, rows, columns, startX, startY, endX, endY, freeSpaces);
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Invalid maze file: " + path, e);
+            }
+        }
+    }
+
+    /** Check if a file starts with the magic of a maze file, whether or not the rest is valid
+     * @param path
+     *            The file
+     * @return boolean True if the file is a maze file, false if it is something else, a maze in plain text for instance
+     * @throws IOException
+     *            If the file can't be read
+     */
+    public static boolean isMazeFile(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (magic.hasRemaining()) {
+                if (channel.read(magic, magic.position()) < 0) {
+                    return false;
+                }
+            }
+            return magic.getInt(0) == MAGIC;
+        }
+    }
+
+    /** Write a maze file
+     *
+     * A grid is packed on the way, keeping only the goal getEndX and getEndY
+     * point to, see Maze.toPacked.
+     *
+     * @param maze
+     *            The maze to write
+     * @param path
+     *            The maze file, replaced if it exists
+     * @throws IOException
+     *            If the file can't be written
+     */
+    public static void write(Maze maze, Path path) throws IOException {
+        Maze packed = maze.toPacked();
+        LongBuffer walls = packed.getWalls();
+        int words = Maze.wordCount((packed.getMaxX() + 1) * (packed.getMaxY() + 1));
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            putHeader(buffer, packed.getMaxX() + 1, packed.getMaxY() + 1, packed.getStartX(), packed.getStartY(),
+                    packed.getEndX(), packed.getEndY(), packed.getNumOfFreeSpaces());
+            for (int word = 0; word < words; word++) {
+                if (!buffer.hasRemaining()) {
+                    flush(buffer, channel);
+                }
+                buffer.putLong(walls.get(word));
+            }
+            flush(buffer, channel);
+        }
+    }
+
+    /** Convert a maze in plain text into a maze file, in one pass over the text
+     * @param text
+     *            The maze in plain text, a row per line
+     * @param path
+     *            The maze file, replaced if it exists
+     * @throws IOException
+     *            If a file can't be read or written, or the text isn't a maze
+     */
+    public static void convert(Path text, Path path) throws IOException {
+        try (InputStream in = Files.newInputStream(text);
+             FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            // The header is written once the size is known
+            buffer.position(HEADER_SIZE);
+
+            byte[] chunk = new byte[BUFFER_SIZE];
+            long word = 0;
+            int bit = 0;
+            int rows = 0;
+            int columns = -1;
+            int column = 0;
+            int startX = -1;
+            int startY = -1;
+            int endX = -1;
+            int endY = -1;
+            int freeSpaces = 0;
+
+            for (int read = in.read(chunk); read >= 0; read = in.read(chunk)) {
+                for (int i = 0; i < read; i++) {
+                    int c = chunk[i];
+                    if (c == '\n') {
+                        if (column > 0) {
+                            if (columns == -1) {
+                                columns = column;
+                            } else if (column != columns) {
+                                throw new IOException("Row " + (rows + 1) + " has " + column + " cells instead of "
+                                        + columns + ": " + text);
+                            }
+                            rows++;
+                            column = 0;
+                            if ((long) rows * columns > Integer.MAX_VALUE) {
+                                throw new IOException("Maze has 2^31 cells or more: " + text);
+                            }
+                        }
+                        continue;
+                    }
+                    if (c == '\r' || c == ' ' || c == '\t' || c == ',' || c == '{' || c == '}') {
+                        continue;
+                    }
+
+                    switch (c) {
+                        case '1':
+                        case '#':
+                            word |= 1L << bit;
+                            break;
+                        case '0':
+                        case '.':
+                            freeSpaces++;
+                            break;
+                        case '2':
+                        case 'S':
+                            startX = rows;
+                            startY = column;
+                            break;
+                        case '4':
+                        case 'G':
+                            endX = rows;
+                            endY = column;
+                            break;
+                        default:
+                            throw new IOException("Unexpected '" + (char) c + "' in row " + (rows + 1) + ": " + text);
+                    }
+                    column++;
+                    if (++bit == Long.SIZE) {
+                        if (!buffer.hasRemaining()) {
+                            flush(buffer, channel);
+                        }
+                        buffer.putLong(word);
+                        word = 0;
+                        bit = 0;
+                    }
+                }
+            }
+            if (column > 0) {
+                // The last row, without a line break
+                if (columns != -1 && column != columns) {
+                    throw new IOException("Row " + (rows + 1) + " has " + column + " cells instead of "
+                            + columns + ": " + text);
+                }
+                columns = column;
+                rows++;
+                if ((long) rows * columns > Integer.MAX_VALUE) {
+                    throw new IOException("Maze has 2^31 cells or more: " + text);
+                }
+            }
+            if (rows == 0) {
+                throw new IOException("No maze in " + text);
+            }
+            if (startX == -1 || endX == -1) {
+                throw new IOException("The maze needs a start and a goal: " + text);
+            }
+
+            if (bit > 0) {
+                if (!buffer.hasRemaining()) {
+                    flush(buffer, channel);
+                }
+                buffer.putLong(word);
+            }
+            flush(buffer, channel);
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            putHeader(header, rows, columns, startX, startY, endX, endY, freeSpaces);
+            header.flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+        }
+    }
+
+    private static void putHeader(ByteBuffer buffer, int rows, int columns, int startX, int startY,
+                                  int endX, int endY, int freeSpaces) {
+        buffer.putInt(MAGIC);
+        buffer.putInt(VERSION);
+        buffer.putInt(rows);
+        buffer.putInt(columns);
+        buffer.putInt(startX);
+        buffer.putInt(startY);
+        buffer.putInt(endX);
+        buffer.putInt(endY);
+        buffer.putInt(freeSpaces);
+        buffer.putInt(0);
+    }
+
+    /** Write out a buffer and empty it */
+    private static void flush(ByteBuffer buffer, FileChannel channel) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,409 @@
+package com.meritonqela.robotmaze;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Generates mazes of any size for load tests and benchmarks. A generator is
+ * seeded, so the same seed, settings and size always give the same maze.
+ *
+ * Three styles are available:
+ *
+ * RECURSIVE_BACKTRACKER - a depth first carve, long winding corridors
+ * PRIM - randomized Prim, many short dead ends
+ * CELLULAR_AUTOMATA - smoothed random noise, open caves
+ *
+ * The carved styles produce a perfect maze, walls are then removed at random
+ * until the wall density is reached, which adds loops. For cellular automata
+ * the wall density is the share of walls in the initial noise. The corridor
+ * length is how far the carved styles keep going straight before turning.
+ *
+ * The start is placed in the largest open region and the goal in the cell of
+ * that region farthest from the start, so every generated maze is solvable.
+ * The grid is filled in place and wrapped by the Maze without a copy.
+ *
+ * @author Meriton Çela
+ */
+public class MazeGenerator {
+
+    public enum Style {
+        RECURSIVE_BACKTRACKER,
+        PRIM,
+        CELLULAR_AUTOMATA
+    }
+
+    private static final int[] DX = {-1, 0, 0, 1};
+    private static final int[] DY = {0, -1, 1, 0};
+
+    private final long seed;
+    private double wallDensity = 0.5;
+    private int corridorLength = 1;
+
+    /** Initializes a generator
+     * @param seed
+     *            The seed of every maze this generator makes
+     */
+    public MazeGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    /** Set the wall density
+     * @param wallDensity
+     *            Share of walls, between 0 and 1
+     */
+    public void setWallDensity(double wallDensity) {
+        if (!(wallDensity >= 0 && wallDensity <= 1)) {
+            throw new IllegalArgumentException("wallDensity must be between 0 and 1");
+        }
+        this.wallDensity = wallDensity;
+    }
+
+    /** Set the corridor length of the carved styles
+     * @param corridorLength
+     *            Number of cells carved straight before turning, at least 1
+     */
+    public void setCorridorLength(int corridorLength) {
+        if (corridorLength < 1) {
+            throw new IllegalArgumentException("corridorLength must be positive");
+        }
+        this.corridorLength = corridorLength;
+    }
+
+    /** Generate a maze
+     * @param style
+     *            The style of the maze
+     * @param rows
+     *            Number of rows
+     * @param columns
+     *            Number of columns
+     * @return Maze The generated maze
+     */
+    public Maze generate(Style style, int rows, int columns) {
+        if (rows < 2 || columns < 2) {
+            throw new IllegalArgumentException("a maze needs at least 2 rows and 2 columns");
+        }
+
+        SplittableRandom rnd = new SplittableRandom(this.seed);
+        int[][] grid = new int[rows][columns];
+        switch (style) {
+            case RECURSIVE_BACKTRACKER:
+                this.carveBacktracker(grid, rnd);
+                this.braid(grid, rnd);
+                break;
+            case PRIM:
+                this.carvePrim(grid, rnd);
+                this.braid(grid, rnd);
+                break;
+            case CELLULAR_AUTOMATA:
+                this.growCaves(grid, rnd);
+                break;
+        }
+        return placeStartAndGoal(grid);
+    }
+
+    /** Carve a perfect maze depth first
+     *
+     * Rooms are the cells at even coordinates, the cell between two rooms is
+     * the wall or passage connecting them. An explicit stack is used, so the
+     * size of the maze isn't limited by the thread's stack.
+     */
+    private void carveBacktracker(int[][] grid, SplittableRandom rnd) {
+        fill(grid, 1);
+        int rows = grid.length;
+        int columns = grid[0].length;
+        int[] stack = new int[((rows + 1) / 2) * ((columns + 1) / 2)];
+        int[] directions = new int[4];
+        int size = 0;
+
+        grid[0][0] = 0;
+        stack[size++] = 0;
+        int direction = -1;
+        int run = 0;
+        while (size > 0) {
+            int room = stack[size - 1];
+            int x = room / columns;
+            int y = room % columns;
+
+            // Keep going straight while the corridor is shorter than asked
+            int count = this.unvisitedRooms(grid, x, y, directions);
+            if (count == 0) {
+                size--;
+                direction = -1;
+                continue;
+            }
+            int next = -1;
+            if (run < this.corridorLength) {
+                for (int i = 0; i < count; i++) {
+                    if (directions[i] == direction) {
+                        next = direction;
+                    }
+                }
+            }
+            if (next == -1) {
+                next = directions[rnd.nextInt(count)];
+                run = 0;
+            }
+
+            grid[x + DX[next]][y + DY[next]] = 0;
+            grid[x + 2 * DX[next]][y + 2 * DY[next]] = 0;
+            stack[size++] = (x + 2 * DX[next]) * columns + y + 2 * DY[next];
+            direction = next;
+            run++;
+        }
+    }
+
+    /** Carve a perfect maze with randomized Prim
+     *
+     * Each step picks a random frontier room, connects it to a random carved
+     * neighbour and then extends the corridor straight on through unvisited
+     * rooms, up to the corridor length.
+     */
+    private void carvePrim(int[][] grid, SplittableRandom rnd) {
+        fill(grid, 1);
+        int rows = grid.length;
+        int columns = grid[0].length;
+        int[] frontier = new int[((rows + 1) / 2) * ((columns + 1) / 2)];
+        boolean[] inFrontier = new boolean[rows * columns];
+        int[] directions = new int[4];
+        int size = 0;
+
+        grid[0][0] = 0;
+        size = this.addFrontier(grid, 0, 0, frontier, inFrontier, size);
+        while (size > 0) {
+            // Take a random frontier room, swapping the last one in its place
+            int pick = rnd.nextInt(size);
+            int room = frontier[pick];
+            frontier[pick] = frontier[--size];
+
+            int x = room / columns;
+            int y = room % columns;
+            if (grid[x][y] == 0) {
+                // Already carved as part of a corridor
+                continue;
+            }
+            int count = this.carvedRooms(grid, x, y, directions);
+            int from = directions[rnd.nextInt(count)];
+            grid[x + DX[from]][y + DY[from]] = 0;
+            grid[x][y] = 0;
+            size = this.addFrontier(grid, x, y, frontier, inFrontier, size);
+
+            // Continue away from the room we came from
+            int direction = 3 - from;
+            for (int run = 1; run < this.corridorLength; run++) {
+                int nx = x + 2 * DX[direction];
+                int ny = y + 2 * DY[direction];
+                if (nx < 0 || ny < 0 || nx >= rows || ny >= columns || grid[nx][ny] == 0) {
+                    break;
+                }
+                grid[x + DX[direction]][y + DY[direction]] = 0;
+                grid[nx][ny] = 0;
+                x = nx;
+                y = ny;
+                size = this.addFrontier(grid, x, y, frontier, inFrontier, size);
+            }
+        }
+    }
+
+    private int addFrontier(int[][] grid, int x, int y, int[] frontier, boolean[] inFrontier, int size) {
+        int columns = grid[0].length;
+        for (int d = 0; d < 4; d++) {
+            int nx = x + 2 * DX[d];
+            int ny = y + 2 * DY[d];
+            if (nx >= 0 && ny >= 0 && nx < grid.length && ny < columns && grid[nx][ny] == 1
+                    && !inFrontier[nx * columns + ny]) {
+                inFrontier[nx * columns + ny] = true;
+                frontier[size++] = nx * columns + ny;
+            }
+        }
+        return size;
+    }
+
+    /** Collects the directions to rooms two cells away that are still walls */
+    private int unvisitedRooms(int[][] grid, int x, int y, int[] directions) {
+        return this.roomsWithValue(grid, x, y, directions, 1);
+    }
+
+    /** Collects the directions to rooms two cells away that are carved */
+    private int carvedRooms(int[][] grid, int x, int y, int[] directions) {
+        return this.roomsWithValue(grid, x, y, directions, 0);
+    }
+
+    private int roomsWithValue(int[][] grid, int x, int y, int[] directions, int value) {
+        int count = 0;
+        for (int d = 0; d < 4; d++) {
+            int nx = x + 2 * DX[d];
+            int ny = y + 2 * DY[d];
+            if (nx >= 0 && ny >= 0 && nx < grid.length && ny < grid[0].length && grid[nx][ny] == value) {
+                directions[count++] = d;
+            }
+        }
+        return count;
+    }
+
+    /** Knock down walls between two passages until the wall density is reached
+     *
+     * Removing walls only adds connections, so the maze stays solvable.
+     */
+    private void braid(int[][] grid, SplittableRandom rnd) {
+        int rows = grid.length;
+        int columns = grid[0].length;
+        long walls = 0;
+        long removable = 0;
+        for (int x = 0; x < rows; x++) {
+            for (int y = 0; y < columns; y++) {
+                if (grid[x][y] == 1) {
+                    walls++;
+                    if (this.separatesPassages(grid, x, y)) {
+                        removable++;
+                    }
+                }
+            }
+        }
+
+        long excess = walls - (long) Math.ceil(this.wallDensity * rows * columns);
+        if (excess <= 0 || removable == 0) {
+            return;
+        }
+
+        // Each removable wall goes with the same probability, one pass over the grid
+        double probability = Math.min(1, (double) excess / removable);
+        for (int x = 0; x < rows; x++) {
+            for (int y = 0; y < columns; y++) {
+                if (grid[x][y] == 1 && this.separatesPassages(grid, x, y) && rnd.nextDouble() < probability) {
+                    grid[x][y] = 0;
+                }
+            }
+        }
+    }
+
+    /** Check if a wall sits between two passages in a row or a column */
+    private boolean separatesPassages(int[][] grid, int x, int y) {
+        boolean vertical = x > 0 && x < grid.length - 1 && grid[x - 1][y] == 0 && grid[x + 1][y] == 0;
+        boolean horizontal = y > 0 && y < grid[0].length - 1 && grid[x][y - 1] == 0 && grid[x][y + 1] == 0;
+        return vertical || horizontal;
+    }
+
+    /** Grow caves from random noise, with the 4-5 rule of cellular automata
+     *
+     * A cell becomes a wall when at least 5 of the 9 cells around it,
+     * itself included, are walls. The outside counts as wall.
+     */
+    private void growCaves(int[][] grid, SplittableRandom rnd) {
+        int rows = grid.length;
+        int columns = grid[0].length;
+        for (int x = 0; x < rows; x++) {
+            for (int y = 0; y < columns; y++) {
+                grid[x][y] = rnd.nextDouble() < this.wallDensity ? 1 : 0;
+            }
+        }
+
+        // Two rows of the previous generation are enough to update in place
+        int[] above = new int[columns];
+        int[] current = new int[columns];
+        for (int generation = 0; generation < 4; generation++) {
+            Arrays.fill(above, 1);
+            for (int x = 0; x < rows; x++) {
+                System.arraycopy(grid[x], 0, current, 0, columns);
+                for (int y = 0; y < columns; y++) {
+                    int walls = 0;
+                    for (int dy = -1; dy <= 1; dy++) {
+                        int ny = y + dy;
+                        if (ny < 0 || ny >= columns) {
+                            walls += 3;
+                            continue;
+                        }
+                        walls += above[ny] + current[ny] + (x + 1 < rows ? grid[x + 1][ny] : 1);
+                    }
+                    grid[x][y] = walls >= 5 ? 1 : 0;
+                }
+                int[] swap = above;
+                above = current;
+                current = swap;
+            }
+        }
+    }
+
+    /** Put the start in the largest open region and the goal as far from it as possible
+     * @return Maze The maze wrapping the grid
+     */
+    private static Maze placeStartAndGoal(int[][] grid) {
+        int rows = grid.length;
+        int columns = grid[0].length;
+        int cells = rows * columns;
+        int[] region = new int[cells];
+        int[] queue = new int[cells];
+
+        // Label the open regions, remembering the largest
+        int best = -1;
+        int bestSize = 0;
+        int freeSpaces = 0;
+        int label = 0;
+        for (int cell = 0; cell < cells; cell++) {
+            if (grid[cell / columns][cell % columns] == 0 && region[cell] == 0) {
+                label++;
+                int size = bfs(grid, cell, region, label, queue);
+                freeSpaces += size;
+                if (size > bestSize) {
+                    bestSize = size;
+                    best = cell;
+                }
+            }
+        }
+
+        if (best == -1) {
+            // Nothing open, clear a way along the first row
+            for (int y = 0; y < columns; y++) {
+                grid[0][y] = 0;
+            }
+            best = 0;
+            freeSpaces = columns;
+        }
+
+        // The last cell of a breadth first search is the farthest one
+        Arrays.fill(region, 0);
+        int size = bfs(grid, best, region, 1, queue);
+        int goal = queue[size - 1];
+        if (goal == best) {
+            // A region of one cell, open a neighbour for the goal
+            goal = best + (best % columns + 1 < columns ? 1 : -1);
+            grid[goal / columns][goal % columns] = 0;
+            freeSpaces++;
+        }
+
+        grid[best / columns][best % columns] = 2;
+        grid[goal / columns][goal % columns] = 4;
+        return new Maze(grid, best / columns, best % columns, goal / columns, goal % columns, freeSpaces - 2);
+    }
+
+    /** Breadth first search over open cells, labelling them
+     * @return int Number of cells reached, in order in queue
+     */
+    private static int bfs(int[][] grid, int start, int[] region, int label, int[] queue) {
+        int columns = grid[0].length;
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = start;
+        region[start] = label;
+        while (head < tail) {
+            int cell = queue[head++];
+            int x = cell / columns;
+            int y = cell % columns;
+            for (int d = 0; d < 4; d++) {
+                int nx = x + DX[d];
+                int ny = y + DY[d];
+                if (nx >= 0 && ny >= 0 && nx < grid.length && ny < columns
+                        && grid[nx][ny] == 0 && region[nx * columns + ny] == 0) {
+                    region[nx * columns + ny] = label;
+                    queue[tail++] = nx * columns + ny;
+                }
+            }
+        }
+        return tail;
+    }
+
+    private static void fill(int[][] grid, int value) {
+        for (int[] row : grid) {
+            Arrays.fill(row, value);
+        }
+    }
+}
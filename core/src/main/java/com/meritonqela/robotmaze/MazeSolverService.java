@@ -0,0 +1,229 @@
+package com.meritonqela.robotmaze;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Solves many mazes in one JVM, on a fixed number of worker threads.
+ *
+ * Each submitted maze becomes a job with an EvolutionEngine of its own and
+ * a future for its best individual. A job doesn't hold a thread while it
+ * waits: the workers take turns on the jobs, evolving a job for a slice of
+ * a few generations, then putting it back at the end of the queue. So every
+ * job keeps making progress however many long jobs were submitted before
+ * it, and the number of threads stays at the number of cores whatever the
+ * number of jobs.
+ *
+ * Cancelling a job's future stops its engine after the generation being
+ * evaluated. The engines are independent, a job's result is the one its
+ * engine would give when run alone with the same seed.
+ *
+ * @author Meriton Çela
+ */
+public class MazeSolverService {
+    private final ExecutorService workers;
+    private final Function<Maze, EvolutionEngine> engines;
+    private final Set<Job> jobs = ConcurrentHashMap.newKeySet();
+    private volatile int sliceGenerations = 10;
+    private boolean shutdown;
+
+    /** Initializes a service with a worker per core and the default engine, see newEngine */
+    public MazeSolverService() {
+        this(Runtime.getRuntime().availableProcessors(), MazeSolverService::newEngine);
+    }
+
+    /** Initializes a service
+     * @param workerCount
+     *            Number of worker threads
+     * @param engines
+     *            Creates the engine of a submitted maze, called on the submitting thread
+     */
+    public MazeSolverService(int workerCount, Function<Maze, EvolutionEngine> engines) {
+        if (workerCount < 1) {
+            throw new IllegalArgumentException("workerCount must be positive");
+        }
+        AtomicInteger threads = new AtomicInteger();
+        ThreadFactory factory = runnable -> {
+            Thread thread = new Thread(runnable, "maze-solver-" + threads.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+        // An unbounded FIFO queue, slices run in the order they were queued
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), factory);
+        this.engines = engines;
+    }
+
+    /** The default engine: the genetic algorithm of RobotController with --distance, with serial
+     * evaluation since the service already keeps every core busy
+     * @param maze
+     *            The maze to solve
+     * @return EvolutionEngine An engine for the maze
+     */
+    public static EvolutionEngine newEngine(Maze maze) {
+        int chromosomeLength = GeneticAlgorithm.chromosomeLength(maze);
+        GeneticAlgorithm ga = new GeneticAlgorithm(200, 0.12, 0.9, 2, 10);
+        ga.setFitnessCacheCapacity(10000);
+        ga.setMaxMoves(chromosomeLength);
+        ga.setFitnessMode(GeneticAlgorithm.FitnessMode.DISTANCE);
+        return new EvolutionEngine(ga, maze, chromosomeLength);
+    }
+
+    /** Set the number of generations a job is evolved for before the next job's turn, 10 by default
+     *
+     * Shorter slices share the workers more evenly, longer ones spend less
+     * time switching between jobs.
+     *
+     * @param sliceGenerations
+     *            Generations per slice
+     */
+    public void setSliceGenerations(int sliceGenerations) {
+        if (sliceGenerations < 1) {
+            throw new IllegalArgumentException("sliceGenerations must be positive");
+        }
+        this.sliceGenerations = sliceGenerations;
+    }
+
+    /** Solve a maze with an engine of the service's factory
+     * @param maze
+     *            The maze to solve
+     * @param condition
+     *            When to stop
+     * @return CompletableFuture The future of the best individual found
+     */
+    public CompletableFuture<Individual> submit(Maze maze, TerminationCondition condition) {
+        return this.submit(this.engines.apply(maze), condition);
+    }
+
+    /** Run an engine until the condition is met
+     *
+     * The engine belongs to the service until the future completes, it can
+     * only be read in the meantime, for instance its best individual so far.
+     *
+     * @param engine
+     *            The engine, not running
+     * @param condition
+     *            When to stop
+     * @return CompletableFuture The future of the best individual found, cancelling it stops the engine
+     * @throws RejectedExecutionException
+     *            If the service is shut down
+     */
+    public CompletableFuture<Individual> submit(EvolutionEngine engine, TerminationCondition condition) {
+        Job job = new Job(engine, condition);
+        synchronized (this) {
+            if (this.shutdown) {
+                throw new RejectedExecutionException("The service is shut down");
+            }
+            this.jobs.add(job);
+        }
+        job.future.whenComplete((result, failure) -> {
+            if (job.future.isCancelled()) {
+                engine.stop();
+            }
+            this.done(job);
+        });
+        this.schedule(job);
+        return job.future;
+    }
+
+    /** Gets the number of jobs submitted and not yet done */
+    public int getPendingJobs() {
+        return this.jobs.size();
+    }
+
+    /** Stop accepting jobs, the submitted ones still run to the end */
+    public synchronized void shutdown() {
+        this.shutdown = true;
+        if (this.jobs.isEmpty()) {
+            this.workers.shutdown();
+        }
+    }
+
+    /** Stop accepting jobs and cancel the submitted ones */
+    public synchronized void shutdownNow() {
+        this.shutdown = true;
+        for (Job job : this.jobs) {
+            job.future.cancel(false);
+        }
+        this.workers.shutdownNow();
+    }
+
+    /** Wait until the submitted jobs are done, after shutdown
+     * @param timeout
+     *            The longest time to wait
+     * @param unit
+     *            The unit of the timeout
+     * @return boolean True if every job is done, false if the time ran out
+     */
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return this.workers.awaitTermination(timeout, unit);
+    }
+
+    /** Forget a job that is done, and let the workers go once the last one is */
+    private synchronized void done(Job job) {
+        this.jobs.remove(job);
+        if (this.shutdown && this.jobs.isEmpty()) {
+            this.workers.shutdown();
+        }
+    }
+
+    /** Queue a job's next slice */
+    private void schedule(Job job) {
+        try {
+            this.workers.execute(() -> this.runSlice(job));
+        } catch (RejectedExecutionException e) {
+            // Only after shutdownNow, which cancelled the job already
+            job.engine.close();
+            job.future.completeExceptionally(e);
+        }
+    }
+
+    /** Evolve a job for a slice, then queue it again unless it's done */
+    private void runSlice(Job job) {
+        if (job.future.isDone()) {
+            // Cancelled while it waited in the queue
+            job.engine.close();
+            return;
+        }
+        try {
+            if (!job.started) {
+                job.engine.start();
+                job.started = true;
+            }
+            if (job.engine.step(job.condition, this.sliceGenerations)) {
+                job.engine.close();
+                job.future.complete(job.engine.getBestSoFar());
+                return;
+            }
+        } catch (Throwable e) {
+            job.engine.close();
+            job.future.completeExceptionally(e);
+            return;
+        }
+        this.schedule(job);
+    }
+
+    /** A submitted engine, evolved by one worker at a time */
+    private static class Job {
+        final EvolutionEngine engine;
+        final TerminationCondition condition;
+        final CompletableFuture<Individual> future = new CompletableFuture<>();
+        // Only read and written by the worker running the job's slice, the
+        // queue hands it from one worker to the next
+        boolean started;
+
+        Job(EvolutionEngine engine, TerminationCondition condition) {
+            this.engine = engine;
+            this.condition = condition;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.meritonqela.robotmaze;
+
+/**
+ * Receives the metrics of each generation of a genetic algorithm, see
+ * GeneticAlgorithm.setMetricsListener. It is called on the thread that
+ * evaluated the generation, once evalPopulation is done.
+ *
+ * @author Meriton Çela
+ */
+public interface MetricsListener {
+
+    /** Called when a generation has been evaluated
+     * @param metrics
+     *            The generation's metrics, only valid during the call as
+     *            the same instance is reused for the next generation
+     */
+    void generationCompleted(GenerationMetrics metrics);
+}
@@ -0,0 +1,30 @@
+package com.meritonqela.robotmaze;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * A mutation operator changes the genes of an individual in place. The
+ * genetic algorithm calls it once for every individual that isn't an elite,
+ * with its mutation rate, see GeneticAlgorithm.setMutation.
+ *
+ * Implementations may keep values derived from the rate between calls, so
+ * an instance must not be shared by genetic algorithms running on different
+ * threads. They draw only from the generator they are given, so a seeded
+ * generator mutates the same genes every run. A checkpoint tells
+ * implementations apart by toString, which should name the operator and
+ * its parameters.
+ *
+ * @author Meriton Çela
+ */
+public interface Mutation {
+
+    /** Mutate an individual
+     * @param individual
+     *            The individual to mutate in place
+     * @param mutationRate
+     *            The probability of a gene to mutate
+     * @param random
+     *            The generator to draw from
+     */
+    void mutate(Individual individual, double mutationRate, RandomGenerator random);
+}
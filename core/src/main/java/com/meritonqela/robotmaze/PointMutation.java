@@ -0,0 +1,64 @@
+package com.meritonqela.robotmaze;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * A mutation that picks each gene independently with the mutation rate and
+ * changes the picked genes one at a time, see mutateGene.
+ *
+ * Rather than drawing a number for every gene to decide whether it mutates,
+ * the number of genes skipped before the next picked one is drawn from the
+ * geometric distribution of the gaps between picked genes. The genes picked
+ * are distributed the same, but it takes one draw per mutation instead of
+ * one per gene, so at low rates mutating costs almost nothing however long
+ * the chromosome.
+ *
+ * @author Meriton Çela
+ */
+public abstract class PointMutation implements Mutation {
+    // log(1 - rate) of the last rate, for the geometric distribution
+    private double rate = Double.NaN;
+    private double logKeep;
+
+    @Override
+    public void mutate(Individual individual, double mutationRate, RandomGenerator random) {
+        if (!(mutationRate > 0)) {
+            return;
+        }
+        if (mutationRate != this.rate) {
+            this.rate = mutationRate;
+            this.logKeep = Math.log1p(-mutationRate);
+        }
+
+        int length = individual.getChromosomeLength();
+        long gene = -1;
+        while ((gene += 1 + this.skip(random)) < length) {
+            this.mutateGene(individual, (int) gene, random);
+        }
+    }
+
+    /** Gets the number of genes to leave before the next mutated one */
+    private long skip(RandomGenerator random) {
+        if (this.rate >= 1) {
+            return 0;
+        }
+        // Inverse of the geometric distribution's CDF, 1 - nextDouble is never 0
+        double skip = Math.floor(Math.log(1 - random.nextDouble()) / this.logKeep);
+        return skip < Integer.MAX_VALUE ? (long) skip : Integer.MAX_VALUE;
+    }
+
+    /** Mutate a picked gene
+     * @param individual
+     *            The individual to mutate in place
+     * @param offset
+     *            The picked gene
+     * @param random
+     *            The generator to draw from
+     */
+    protected abstract void mutateGene(Individual individual, int offset, RandomGenerator random);
+
+    @Override
+    public String toString() {
+        return this.getClass().getSimpleName();
+    }
+}
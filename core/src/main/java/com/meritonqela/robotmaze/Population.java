@@ -0,0 +1,295 @@
+package com.meritonqela.robotmaze;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * A population is an abstraction of a collection of individuals. The population
+ * class is generally used to perform group-level operations on its individuals,
+ * such as finding the strongest individuals, collecting stats on the population
+ * as a whole, and selecting individuals to mutate or crossover.
+ *
+ * References 'Genetic Algorithms in Java Basics' - Lee Jacobson, Burak Kanber
+ *
+ * @author Meriton Çela
+ *
+ */
+
+public class Population {
+    /** Orders individuals from the strongest to the weakest */
+    private static final Comparator<Individual> BY_FITNESS = new Comparator<Individual>() {
+        @Override
+        public int compare(Individual o1, Individual o2) {
+            return Double.compare(o2.getFitness(), o1.getFitness());
+        }
+    };
+
+    private Individual[] population;
+    private double populationFitness = -1;
+
+    /** Ranked view of the population, ordered by fitness up to rankedCount */
+    private Individual[] ranked;
+    private int rankedCount;
+
+    /** Initializes blank population of individuals
+     * @param populationSize
+     *             The number of individuals in the population
+     */
+    public Population(int populationSize) {
+        // Initial population
+        this.population = new Individual[populationSize];
+    }
+
+    /** Initializes population of individuals
+     * @param populationSize
+     *            The number of individuals in the population
+     * @param chromosomeLength
+     *            The size of each individual's chromosome
+     */
+    public Population(int populationSize, int chromosomeLength) {
+        this(populationSize, chromosomeLength, ThreadLocalRandom.current());
+    }
+
+    /** Initializes population of individuals, drawing their genes from a generator
+     * @param populationSize
+     *            The number of individuals in the population
+     * @param chromosomeLength
+     *            The size of each individual's chromosome
+     * @param random
+     *            The generator the genes are drawn from
+     */
+    public Population(int populationSize, int chromosomeLength, RandomGenerator random) {
+        // Initialize the population as an array of individuals
+        this.population = new Individual[populationSize];
+
+        // Create each individual in turn
+        for (int individualCount = 0; individualCount < populationSize; individualCount++) {
+            // Create an individual, initializing its chromosome to the given
+            // length
+            Individual individual = new Individual(chromosomeLength, random);
+            // Add individual to population
+            this.population[individualCount] = individual;
+        }
+    }
+
+    /** Get individuals from the population
+     * @return individuals Individuals in population
+     */
+    public Individual[] getIndividuals() {
+        return this.population;
+    }
+
+    /**
+     * Find an individual in the population by its fitness
+     *
+     * This method lets you select an individual in order of its fitness. This
+     * can be used to find the single strongest individual (eg, if you're
+     * testing for a solution), but it can also be used to find weak individuals
+     * (if you're looking to cull the population) or some of the strongest
+     * individuals (if you're using "elitism").
+     *
+     * @param offset
+     *            The offset of the individual you want, sorted by fitness. 0 is
+     *            the strongest, population.length - 1 is the weakest.
+     * @return individual Individual at offset
+     */
+    public Individual getFittest(int offset) {
+        // Make sure the individuals up to offset are ranked
+        this.rankFittest(offset + 1);
+
+        // Return the fittest individual
+        return this.ranked[offset];
+    }
+
+    /**
+     * Rank the strongest individuals of the population
+     *
+     * The ranking is computed once and kept until an individual is replaced
+     * with setIndividual or the population is evaluated, which sets its
+     * fitness with setPopulationFitness, so repeated calls to getFittest
+     * don't sort again. An individual doesn't know its population, so a
+     * caller changing the fitness of individuals any other way, with
+     * GeneticAlgorithm.calcFitness or Individual.setFitness, must call
+     * invalidateRanking before ranking them again.
+     *
+     * Only the first count individuals are ordered, which lets elitism and
+     * reporting pay for a partial selection instead of a full sort. Asking
+     * for more than is already ranked extends the ranking.
+     *
+     * @param count
+     *            The number of strongest individuals to rank
+     */
+    public void rankFittest(int count) {
+        int size = this.population.length;
+        count = Math.min(count, size);
+        if (count <= this.rankedCount) {
+            return;
+        }
+
+        if (this.rankedCount == 0) {
+            // Start the ranked view from the current population
+            if (this.ranked == null || this.ranked.length != size) {
+                this.ranked = new Individual[size];
+            }
+            System.arraycopy(this.population, 0, this.ranked, 0, size);
+        }
+
+        // Grow geometrically, so ranking one more offset at a time stays cheap
+        count = Math.max(count, Math.min(2 * this.rankedCount, size));
+
+        if (count > size / 2) {
+            // Most of the population is needed, a full sort is cheaper
+            Arrays.sort(this.ranked, this.rankedCount, size, BY_FITNESS);
+            this.rankedCount = size;
+        } else {
+            // Move the next strongest to the front of the unranked part and order only those
+            select(this.ranked, this.rankedCount, size - 1, count);
+            Arrays.sort(this.ranked, this.rankedCount, count, BY_FITNESS);
+            this.rankedCount = count;
+        }
+    }
+
+    /** Get individual from the ranked view
+     *
+     * The first individuals ranked with rankFittest are in order of fitness,
+     * the rest follow in no particular order.
+     *
+     * @param offset
+     *            The offset in the ranked view
+     * @return individual Individual at offset
+     */
+    public Individual getRanked(int offset) {
+        if (this.rankedCount == 0) {
+            this.rankFittest(1);
+        }
+        return this.ranked[offset];
+    }
+
+    /** Forget the ranking, it is computed again on the next request
+     *
+     * Needed after the fitness of individuals changed outside of
+     * evalPopulation, see rankFittest.
+     */
+    public void invalidateRanking() {
+        this.rankedCount = 0;
+    }
+
+    /** Partition individuals so that the ones in [left, k) are all at least as
+     * fit as the ones in [k, right], using quickselect.
+     */
+    private static void select(Individual[] individuals, int left, int right, int k) {
+        while (left < right) {
+            // Median of three pivot
+            int middle = (left + right) >>> 1;
+            if (BY_FITNESS.compare(individuals[middle], individuals[left]) < 0) {
+                swap(individuals, left, middle);
+            }
+            if (BY_FITNESS.compare(individuals[right], individuals[left]) < 0) {
+                swap(individuals, left, right);
+            }
+            if (BY_FITNESS.compare(individuals[right], individuals[middle]) < 0) {
+                swap(individuals, middle, right);
+            }
+            double pivot = individuals[middle].getFitness();
+
+            int i = left;
+            int j = right;
+            while (i <= j) {
+                while (individuals[i].getFitness() > pivot) {
+                    i++;
+                }
+                while (individuals[j].getFitness() < pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(individuals, i, j);
+                    i++;
+                    j--;
+                }
+            }
+
+            // Continue on the side holding the boundary
+            if (k - 1 <= j) {
+                right = j;
+            } else if (k - 1 >= i) {
+                left = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private static void swap(Individual[] individuals, int i, int j) {
+        Individual a = individuals[i];
+        individuals[i] = individuals[j];
+        individuals[j] = a;
+    }
+
+    /** Set population's group fitness
+     * @param fitness
+     *            The population's total fitness
+     */
+    public void setPopulationFitness(double fitness) {
+        this.populationFitness = fitness;
+
+        // The population was evaluated, the ranking is stale
+        this.rankedCount = 0;
+    }
+
+    /** Get population's group fitness
+     * @return populationFitness The population's total fitness
+     */
+    public double getPopulationFitness() {
+        return this.populationFitness;
+    }
+
+    /** Get population's size
+     * @return size The population's size
+     */
+    public int size() {
+        return this.population.length;
+    }
+
+    /** Set individual at offset
+     *
+     * @param individual
+     * @param offset
+     * @return individual
+     */
+    public Individual setIndividual(int offset, Individual individual) {
+        this.rankedCount = 0;
+        return population[offset] = individual;
+    }
+
+    /** Get individual at offset
+     *
+     * @param offset
+     * @return individual
+     */
+    public Individual getIndividual(int offset) {
+        return population[offset];
+    }
+
+    /** Shuffles the population in-place
+     *
+     * The ranked view keeps its own order, so shuffling doesn't invalidate it.
+     */
+    public void shuffle() {
+        this.shuffle(ThreadLocalRandom.current());
+    }
+
+    /** Shuffles the population in-place, drawing from a generator
+     * @param rnd
+     *            The generator the permutation is drawn from
+     */
+    public void shuffle(RandomGenerator rnd) {
+        for (int i = population.length - 1; i > 0; i--) {
+            int index = rnd.nextInt(i + 1);
+            Individual a = population[index];
+            population[index] = population[i];
+            population[i] = a;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.meritonqela.robotmaze;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * Two populations that take turns. Each generation, the current population
+ * is bred into the spare one, and then the two swap roles. The individuals
+ * of both populations are created once, with their chromosome storage, and
+ * are overwritten from then on, so evolving a pool allocates nothing.
+ *
+ * An individual of the pool must not be kept across generations, its genes
+ * are overwritten two generations later. Copy it instead.
+ *
+ * @author Meriton Çela
+ */
+public class PopulationPool {
+    private Population current;
+    private Population spare;
+
+    /** Initializes a pool with a random current population
+     * @param populationSize
+     *            The number of individuals in each population
+     * @param chromosomeLength
+     *            The size of each individual's chromosome
+     */
+    public PopulationPool(int populationSize, int chromosomeLength) {
+        this(populationSize, chromosomeLength, ThreadLocalRandom.current());
+    }
+
+    /** Initializes a pool with a random current population, drawn from a generator
+     * @param populationSize
+     *            The number of individuals in each population
+     * @param chromosomeLength
+     *            The size of each individual's chromosome
+     * @param random
+     *            The generator the genes of the current population are drawn from
+     */
+    public PopulationPool(int populationSize, int chromosomeLength, RandomGenerator random) {
+        this.current = new Population(populationSize, chromosomeLength, random);
+        this.spare = new Population(populationSize, chromosomeLength);
+    }
+
+    /** Gets the population of the current generation */
+    public Population getCurrent() {
+        return this.current;
+    }
+
+    /** Gets the population the next generation is written to */
+    public Population getSpare() {
+        return this.spare;
+    }
+
+    /** Make the spare population the current one */
+    public void swap() {
+        Population swap = this.current;
+        this.current = this.spare;
+        this.spare = swap;
+    }
+}
@@ -0,0 +1,17 @@
+package com.meritonqela.robotmaze;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Random reset mutation gives each picked gene a random direction, which
+ * may be the direction it had. This is the genetic algorithm's default.
+ *
+ * @author Meriton Çela
+ */
+public class RandomResetMutation extends PointMutation {
+
+    @Override
+    protected void mutateGene(Individual individual, int offset, RandomGenerator random) {
+        individual.setGene(offset, random.nextInt(1, 5));
+    }
+}
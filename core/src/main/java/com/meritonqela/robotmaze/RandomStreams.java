@@ -0,0 +1,81 @@
+package com.meritonqela.robotmaze;
+
+import java.util.SplittableRandom;
+
+/**
+ * Derives the random number streams of a run from a single seed. Each
+ * worker, an island for instance, asks for the stream with its own index and
+ * draws from it alone, so no generator is shared between threads and the
+ * numbers a worker sees don't depend on how the threads are scheduled.
+ * Two runs with the same seed and the same number of workers get the same
+ * streams.
+ *
+ * A stream depends only on the seed and its index, not on which streams were
+ * taken before it, so the seed is all that has to be kept to repeat a run.
+ * A worker can also take a stream per generation, then the seed and the
+ * generation are all it takes to continue a run from the middle.
+ *
+ * @author Meriton Çela
+ */
+public class RandomStreams {
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private final long seed;
+
+    /** Initializes the streams of a run
+     * @param seed
+     *            The run's seed
+     */
+    public RandomStreams(long seed) {
+        this.seed = seed;
+    }
+
+    /** Initializes the streams of a run with a seed of its own, see getSeed */
+    public RandomStreams() {
+        this(new SplittableRandom().nextLong());
+    }
+
+    /** Gets the run's seed, to repeat the run */
+    public long getSeed() {
+        return this.seed;
+    }
+
+    /** Gets a worker's stream
+     *
+     * Every call returns a new generator positioned at the start of the stream.
+     *
+     * @param index
+     *            The worker's index, not negative
+     * @return SplittableRandom The worker's generator
+     */
+    public SplittableRandom stream(int index) {
+        if (index < 0) {
+            throw new IllegalArgumentException("index must not be negative");
+        }
+        // SplittableRandom seeds that are a multiple of its gamma apart give
+        // the same sequence shifted, so the worker's seed is mixed first
+        return new SplittableRandom(mix(this.seed + (index + 1) * GOLDEN_GAMMA));
+    }
+
+    /** Gets a worker's stream for one generation
+     * @param index
+     *            The worker's index, not negative
+     * @param generation
+     *            The generation, not negative
+     * @return SplittableRandom The generator of the worker's generation
+     */
+    public SplittableRandom stream(int index, int generation) {
+        if (index < 0 || generation < 0) {
+            throw new IllegalArgumentException("index and generation must not be negative");
+        }
+        long worker = mix(this.seed + (index + 1) * GOLDEN_GAMMA);
+        return new SplittableRandom(mix(worker + (generation + 1L) * GOLDEN_GAMMA));
+    }
+
+    /** Stafford's mix13, the finalizer of SplittableRandom */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
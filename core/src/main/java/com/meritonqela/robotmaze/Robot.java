@@ -0,0 +1,296 @@
+package com.meritonqela.robotmaze;
+
+import java.util.Arrays;
+
+/**
+ * A robot abstraction. Give it a maze and an instruction set, and it will
+ * attempt to reach the finish.
+ *
+ * A robot doesn't copy the maze, it walks the maze's compiled transition
+ * table. It can be reset and run again for another
+ * individual, so evaluating fitness allocates nothing. The cells a robot
+ * visits are only recorded when a run is traced on demand.
+ *
+ * References 'Genetic Algorithms in Java Basics' - Lee Jacobson, Burak Kanber
+ *
+ * @author Meriton Çela
+ *
+ */
+public class Robot{
+    int maxMoves;
+    int moves;
+    private Individual directions;
+    private Maze maze;
+    private CompiledMaze compiled;
+    private int cell;
+    private boolean atGoal;
+    private int[] checkpoints;
+    int step;
+
+    /** Distances to the goal while the closest approach is tracked, null otherwise */
+    private boolean trackClosest;
+    private int[] distances;
+    /** Whether the closest approach is tracked by Maze.getGoalDistance, for mazes without distances */
+    private boolean estimateClosest;
+    private int[] closestCheckpoints;
+    /** Smallest distance to the goal of the cells visited, when tracked */
+    int closest;
+
+    /** Cells visited by a traced run, null while not tracing */
+    private int[] path;
+    private int pathLength;
+
+    /**
+     * Initalize a robot with controller
+     *
+     * @param directions The directions that robot have to follow
+     * @param maze The maze the robot will use
+     * @param maxMoves The maximum number of moves the robot can make
+     */
+    public Robot(int[] directions, Maze maze, int maxMoves){
+        this(new Individual(directions), maze, maxMoves);
+    }
+
+    /**
+     * Initalize a robot with an individual's chromosome as controller
+     *
+     * @param directions The individual whose genes the robot has to follow
+     * @param maze The maze the robot will use
+     * @param maxMoves The maximum number of moves the robot can make
+     */
+    public Robot(Individual directions, Maze maze, int maxMoves){
+        this(maxMoves);
+        reset(directions, maze);
+    }
+
+    /**
+     * Initalize a robot without controller, it has to be reset before it runs
+     *
+     * @param maxMoves The maximum number of moves the robot can make
+     */
+    public Robot(int maxMoves){
+        this.maxMoves = maxMoves;
+    }
+
+    /**
+     * Puts the robot back at the start of a maze with new directions
+     *
+     * @param directions The individual whose genes the robot has to follow
+     * @param maze The maze the robot will use
+     */
+    public void reset(Individual directions, Maze maze){
+        if (this.maze != maze){
+            this.maze = maze;
+            this.compiled = maze.getCompiled();
+        }
+        resume(directions, maze, 0, compiled.getStartCell());
+        atGoal = compiled.isStartGoal();
+        if (distances != null || estimateClosest){
+            closest = maze.getGoalDistance(cell);
+        }
+    }
+
+    /**
+     * Puts the robot at a state reached by an earlier run, so it continues
+     * from there instead of starting over. The robot must have been alive and
+     * away from the goal at that step.
+     *
+     * @param directions The individual whose genes the robot has to follow
+     * @param maze The maze the robot will use
+     * @param step The number of moves already made
+     * @param cell The cell the robot was in at that step
+     */
+    public void resume(Individual directions, Maze maze, int step, int cell){
+        if (this.maze != maze){
+            this.maze = maze;
+            this.compiled = maze.getCompiled();
+        }
+        this.cell = cell;
+        atGoal = false;
+        moves = step;
+        this.directions = directions;
+        this.checkpoints = directions.getCheckpoints();
+        this.step = step;
+        distances = trackClosest ? maze.getGoalDistances() : null;
+        estimateClosest = trackClosest && distances == null;
+    }
+
+    /**
+     * Puts the robot at a state reached by an earlier run that tracked the
+     * closest approach to the goal, see trackClosest.
+     *
+     * @param directions The individual whose genes the robot has to follow
+     * @param maze The maze the robot will use
+     * @param step The number of moves already made
+     * @param cell The cell the robot was in at that step
+     * @param closest The smallest distance to the goal up to that step
+     */
+    void resume(Individual directions, Maze maze, int step, int cell, int closest){
+        resume(directions, maze, step, cell);
+        this.closest = closest;
+    }
+
+    /**
+     * Track the smallest distance to the goal of the cells the robot visits,
+     * from the next reset or resume on. The closest distance is written to
+     * the individual's checkpoints along with the cell.
+     *
+     * @param track Whether to track the closest approach
+     */
+    void trackClosest(boolean track){
+        trackClosest = track;
+    }
+
+    /**
+     * Runs the robot's actions based on directions
+     *
+     * Each move is a lookup in the maze's transition table, or is worked out
+     * from the maze's walls when the maze has no table. The robot stops
+     * when it reaches the goal, which is worth 100 extra moves, when it is
+     * destroyed, or after maxMoves moves. On the way, the cell, and the
+     * closest approach to the goal if it is tracked, are written to the
+     * individual's checkpoints every GENES_PER_WORD steps.
+     */
+    public void run(){
+        final CompiledMaze compiled = this.compiled;
+        final int[] transitions = compiled.getTransitions();
+        final int[] distances = this.distances;
+        final boolean estimateClosest = this.estimateClosest;
+        final Individual directions = this.directions;
+        final int[] path = this.path;
+        final int[] checkpoints = this.checkpoints;
+        final int[] closestCheckpoints = distances != null || estimateClosest
+                ? directions.getClosestCheckpoints() : null;
+        int cell = this.cell;
+        int step = this.step;
+        int closest = this.closest;
+
+        // Break if we start on the goal
+        if (atGoal){
+            reachGoal(cell, step);
+            return;
+        }
+
+        while (step < maxMoves){
+            // Remember where we are every GENES_PER_WORD steps
+            if (step % Individual.GENES_PER_WORD == 0){
+                checkpoints[step / Individual.GENES_PER_WORD] = cell;
+                if (closestCheckpoints != null){
+                    closestCheckpoints[step / Individual.GENES_PER_WORD] = closest;
+                }
+            }
+
+            int next = transitions != null
+                    ? transitions[(cell << 2) + directions.getGene(step) - 1]
+                    : compiled.next(cell, directions.getGene(step));
+            step++;
+
+            if (next < 0){
+                if (next == CompiledMaze.DEAD){
+                    // Robot is destroyed
+                    stop(cell, step, closest, step);
+                } else {
+                    // We reach the goal, counted on the move after it
+                    cell = CompiledMaze.cellOf(next);
+                    if (path != null){
+                        path[pathLength++] = cell;
+                    }
+                    reachGoal(cell, step);
+                }
+                return;
+            }
+
+            cell = next;
+            if (distances != null){
+                if (distances[cell] < closest){
+                    closest = distances[cell];
+                }
+            } else if (estimateClosest){
+                closest = Math.min(closest, maze.getGoalDistance(cell));
+            }
+            if (path != null){
+                path[pathLength++] = cell;
+            }
+        }
+
+        // We reach the maximum number of moves
+        stop(cell, step, closest, maxMoves + 1);
+    }
+
+    /** Keeps the state a run stopped in and the moves it scored */
+    private void stop(int cell, int step, int closest, int moves){
+        this.cell = cell;
+        this.step = step;
+        this.closest = closest;
+        this.moves = moves;
+    }
+
+    /** Stops a run on the goal, which is worth 100 extra moves */
+    private void reachGoal(int cell, int step){
+        atGoal = true;
+        stop(cell, step, 0, step + 1 + 100);
+    }
+
+    /**
+     * Runs the next action and check if robot is destroyed
+     */
+    public int makeNextAction(){
+        int next = compiled.next(cell, getNextAction());
+        if (next == CompiledMaze.DEAD){
+            return -1;
+        }
+
+        cell = CompiledMaze.cellOf(next);
+        atGoal = CompiledMaze.isGoal(next);
+        if (path != null){
+            path[pathLength++] = cell;
+        }
+        return 0;
+    }
+
+    /** Get next action depending on directions which has taken
+     *
+     * @return int Next action
+     */
+    public int getNextAction(){
+        int nxtA = this.directions.getGene(this.step);
+        this.step = step+1;
+        return nxtA;
+    }
+
+    /** Replays the robot's run from the start and records the cells it visits
+     *
+     * @return int[] Visited cells in order, each as row * (maxY + 1) + column
+     */
+    public int[] tracePath(){
+        reset(directions, maze);
+        path = new int[maxMoves];
+        pathLength = 0;
+        try {
+            run();
+            return Arrays.copyOf(path, pathLength);
+        } finally {
+            path = null;
+        }
+    }
+
+    /** Replays the robot's run and marks the visited cells with 5 in a copy of the maze
+     *
+     * @return int[][] The maze with the robot's path
+     */
+    public int[][] traceMaze(){
+        int[] visited = tracePath();
+        int columns = compiled.getColumns();
+        int[][] copymaze = new int[maze.getMaxX() + 1][columns];
+        for (int i = 0; i < copymaze.length; i++){
+            for (int j = 0; j < columns; j++){
+                copymaze[i][j] = maze.getPositionValue(i,j);
+            }
+        }
+        for (int cell : visited){
+            copymaze[cell / columns][cell % columns] = 5;
+        }
+        return copymaze;
+    }
+
+}
@@ -0,0 +1,185 @@
+package com.meritonqela.robotmaze;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/** The main executive class for the Robot Controller problem.
+ *
+ * We'll create a maze by hand, and feed it to the GeneticAlgorithm's
+ * `evalPopulation` method, which is then responsible for scoring an abstract robot
+ *
+ * A generated maze can be solved instead, by passing its style, size and
+ * optionally a seed, and a checkpoint file the run is resumed from if it
+ * exists and written to every 100 generations:
+ *
+ *     RobotController backtracker|prim|cellular rows columns [seed [checkpoint]]
+ *
+ * Or a maze can be loaded from a file, a maze file or a maze in plain text,
+ * see MazeFile:
+ *
+ *     RobotController maze-file
+ *
+ * Robots are scored by how long they survive. With --distance before the
+ * other arguments, they are scored by how close they get to the goal
+ * instead, see GeneticAlgorithm.setFitnessMode.
+ *
+ * References 'Genetic Algorithms in Java Basics' - Lee Jacobson, Burak Kanber
+ *
+ * @author Meriton Çela
+ */
+
+
+public class RobotController{
+
+    /** Upper bound for the number of generations to run for. This number can be lower or higher,
+     *  depending on the complexity of maze.
+     */
+    private static int maxGenerations = 2000;
+
+    /** Largest maze drawn, in cells */
+    private static final int MAX_DRAWN_CELLS = 1 << 22;
+
+    public static void main(String[] args) throws IOException {
+        boolean distance = args.length > 0 && args[0].equals("--distance");
+        if (distance) {
+            args = Arrays.copyOfRange(args, 1, args.length);
+        }
+
+        /** * Initialize a maze. We'll write this by hand.
+         *
+         * As a reminder:
+         * 0 = Empty
+         * 1 = Wall
+         * 2 = Starting position
+         * 4 = Goal position
+         */
+
+        Maze maze;
+        if (args.length >= 3) {
+            maze = generateMaze(args);
+        } else if (args.length == 1) {
+            maze = loadMaze(Paths.get(args[0]));
+        } else {
+            maze = new Maze(new int[][]{
+                    {2, 0, 0, 0, 0, 1, 0, 0},
+                    {0, 1, 1, 1, 1, 0, 1, 0},
+                    {0, 0, 0, 0, 0, 0, 1, 0},
+                    {0, 1, 0, 1, 0, 0, 1, 1},
+                    {0, 1, 0, 1, 1, 0, 1, 0},
+                    {1, 1, 0, 0, 4, 0, 0, 0},
+                    {1, 1, 0, 0, 1, 0, 1, 0},
+                    {0, 0, 0, 1, 1, 0, 1, 1}}
+            );
+        }
+
+        // Larger mazes need longer chromosomes to be crossed
+        long cells = (long) (maze.getMaxX() + 1) * (maze.getMaxY() + 1);
+        int chromosomeLength = GeneticAlgorithm.chromosomeLength(maze);
+
+
+        DrawMaze draw_maze = cells <= MAX_DRAWN_CELLS ? new DrawMaze(maze.getMaze(), "Maze") : null;
+
+
+        // Create genetic algorithm
+        GeneticAlgorithm ga = new GeneticAlgorithm(200, 0.12, 0.9, 2, 10);
+        // Spread the evaluation over all available cores
+        ga.setEvaluationParallelism(Runtime.getRuntime().availableProcessors(), 50);
+        // Don't run robots again for genes that were already evaluated
+        ga.setFitnessCacheCapacity(10000);
+        ga.setMaxMoves(chromosomeLength);
+        if (distance) {
+            // Reward getting closer to the goal rather than surviving
+            ga.setFitnessMode(GeneticAlgorithm.FitnessMode.DISTANCE);
+        }
+        // Stop at the generation limit, or once the goal was reached and no
+        // shorter path turned up for a while
+        TerminationCondition termination = TerminationCondition.maxGenerations(maxGenerations)
+                .or(TerminationCondition.goalReached().and(TerminationCondition.stagnation(100)));
+        EvolutionEngine engine = new EvolutionEngine(ga, maze, chromosomeLength);
+        if (args.length > 3) {
+            // The maze's seed repeats the whole run
+            engine.setSeed(Long.parseLong(args[3]));
+        }
+        Path checkpoint = args.length > 4 ? Paths.get(args[4]) : null;
+        if (checkpoint != null) {
+            engine.setCheckpoint(checkpoint, 100);
+        }
+        Individual[] drawn = new Individual[1];
+        ga.setMetricsListener(metrics -> {
+            // Print fittest individual from population
+            Individual fittest = engine.getPopulation().getFittest(0);
+            System.out.println(
+                    "G" + engine.getGeneration() + " Best solution (" + fittest.getFitness() + "): " + fittest.toString());
+            // Report where the time goes every 100 generations
+            if (metrics.getGeneration() % 100 == 0) {
+                System.out.println(metrics);
+            }
+            // Draw the best path whenever it improves, the drawing catches up on its own
+            Individual best = engine.getBestSoFar();
+            if (draw_maze != null && best != null && best != drawn[0]) {
+                drawn[0] = best;
+                draw_maze.showPath(new Robot(best, maze, chromosomeLength).tracePath());
+            }
+        });
+        Individual fittest;
+        if (checkpoint != null && Files.exists(checkpoint)) {
+            System.out.println("Resuming from " + checkpoint);
+            fittest = engine.resume(checkpoint, termination);
+        } else {
+            fittest = engine.run(termination);
+        }
+
+        System.out.println("Stopped after " + (engine.getGeneration() - 1) + " generations.");
+        System.out.println("Best solution (" + fittest.getFitness() + "): " + fittest.toString());
+        System.out.println("Fitness cache hit rate: " + ga.getFitnessCache().getHitRate());
+
+        // Replay the best solution to trace its path through the maze
+        if (draw_maze != null) {
+            Robot robot = new Robot(fittest, maze, chromosomeLength);
+            draw_maze.showPath(robot.tracePath());
+        }
+
+    }
+
+    /** Load a maze file, converting a maze in plain text first
+     * @param path
+     *            A maze file, or a maze in plain text
+     * @return Maze The loaded maze
+     */
+    private static Maze loadMaze(Path path) throws IOException {
+        if (MazeFile.isMazeFile(path)) {
+            // A broken maze file is an error, not a maze in plain text
+            return MazeFile.map(path);
+        }
+        Path converted = Files.createTempFile("maze", ".rmaz");
+        converted.toFile().deleteOnExit();
+        MazeFile.convert(path, converted);
+        return MazeFile.map(converted);
+    }
+
+    /** Generate the maze described by the command line
+     * @param args
+     *            Style, rows, columns and an optional seed
+     * @return Maze The generated maze
+     */
+    private static Maze generateMaze(String[] args) {
+        MazeGenerator.Style style;
+        switch (args[0]) {
+            case "backtracker": style = MazeGenerator.Style.RECURSIVE_BACKTRACKER; break;
+            case "prim": style = MazeGenerator.Style.PRIM; break;
+            case "cellular": style = MazeGenerator.Style.CELLULAR_AUTOMATA; break;
+            default: throw new IllegalArgumentException("Unknown maze style: " + args[0]);
+        }
+
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : System.nanoTime();
+        MazeGenerator generator = new MazeGenerator(seed);
+        if (style == MazeGenerator.Style.CELLULAR_AUTOMATA) {
+            // Sparser noise, so caves are connected
+            generator.setWallDensity(0.45);
+        }
+        return generator.generate(style, Integer.parseInt(args[1]), Integer.parseInt(args[2]));
+    }
+}
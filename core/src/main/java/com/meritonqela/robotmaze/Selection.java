@@ -0,0 +1,55 @@
+package com.meritonqela.robotmaze;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * A selection scheme picks the parents used for crossover. The genetic
+ * algorithm calls prepare once per generation, before any parent is drawn
+ * from the population, and then select once per crossover.
+ *
+ * Implementations may keep reusable buffers between calls, so an instance
+ * must not be shared by genetic algorithms running on different threads.
+ * They draw only from the generator they are given, so a seeded generator
+ * selects the same parents every run. A checkpoint tells implementations
+ * apart by toString, which should name the scheme and its parameters.
+ *
+ * @author Meriton Çela
+ */
+public interface Selection {
+
+    /** Prepare the selection for a new generation
+     * @param population
+     *            The population parents will be drawn from
+     * @param random
+     *            The generator to draw from
+     */
+    default void prepare(Population population, RandomGenerator random) {
+    }
+
+    /** Prepare the selection for a new generation, drawing from the thread's generator
+     * @param population
+     *            The population parents will be drawn from
+     */
+    default void prepare(Population population) {
+        this.prepare(population, ThreadLocalRandom.current());
+    }
+
+    /** Select a parent
+     * @param population
+     *            The population to select from
+     * @param random
+     *            The generator to draw from
+     * @return The individual selected as a parent
+     */
+    Individual select(Population population, RandomGenerator random);
+
+    /** Select a parent, drawing from the thread's generator
+     * @param population
+     *            The population to select from
+     * @return The individual selected as a parent
+     */
+    default Individual select(Population population) {
+        return this.select(population, ThreadLocalRandom.current());
+    }
+}
@@ -0,0 +1,88 @@
+package com.meritonqela.robotmaze;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Stochastic universal sampling is a fitness proportionate selection. The
+ * roulette wheel is spun once per generation with as many evenly spaced
+ * pointers as there are individuals, which keeps the number of times an
+ * individual is chosen close to its expected value.
+ *
+ * The cumulative fitness is computed once in prepare and kept in a reusable
+ * buffer. Each spin walks the wheel once for all its pointers, then shuffles
+ * the chosen individuals, since the pointers find them in population order
+ * and consecutive parents would otherwise always be neighbours. Each select
+ * call then hands out the next one.
+ *
+ * @author Meriton Çela
+ */
+public class StochasticUniversalSampling implements Selection {
+    private double[] cumulativeFitness = new double[0];
+    private int[] chosen = new int[0];
+    private double spacing;
+    private int pointerCount;
+
+    @Override
+    public void prepare(Population population, RandomGenerator random) {
+        int size = population.size();
+        if (this.cumulativeFitness.length != size) {
+            this.cumulativeFitness = new double[size];
+            this.chosen = new int[size];
+        }
+
+        // Build the wheel, unevaluated individuals get no share
+        double total = 0;
+        for (int i = 0; i < size; i++) {
+            total += Math.max(0, population.getIndividual(i).getFitness());
+            this.cumulativeFitness[i] = total;
+        }
+
+        this.spacing = total / size;
+        this.spin(random);
+    }
+
+    @Override
+    public Individual select(Population population, RandomGenerator random) {
+        if (this.pointerCount == this.chosen.length) {
+            // All pointers were used, spin the wheel again
+            this.spin(random);
+        }
+
+        return population.getIndividual(this.chosen[this.pointerCount++]);
+    }
+
+    private void spin(RandomGenerator random) {
+        int size = this.chosen.length;
+        if (this.spacing <= 0) {
+            // Nobody has any fitness, fall back to uniform picks
+            for (int i = 0; i < size; i++) {
+                this.chosen[i] = random.nextInt(size);
+            }
+        } else {
+            // Pointers are increasing, so the wheel is walked only once per spin
+            double pointer = random.nextDouble() * this.spacing;
+            int position = 0;
+            for (int i = 0; i < size; i++) {
+                while (position < size - 1 && this.cumulativeFitness[position] <= pointer) {
+                    position++;
+                }
+                this.chosen[i] = position;
+                pointer += this.spacing;
+            }
+
+            // Fisher-Yates shuffle, so mates aren't picked in population order
+            for (int i = size - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int swap = this.chosen[i];
+                this.chosen[i] = this.chosen[j];
+                this.chosen[j] = swap;
+            }
+        }
+        this.pointerCount = 0;
+    }
+
+    @Override
+    public String toString() {
+        return "StochasticUniversalSampling";
+    }
+}
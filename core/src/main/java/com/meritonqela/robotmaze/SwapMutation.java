@@ -0,0 +1,21 @@
+package com.meritonqela.robotmaze;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Swap mutation exchanges each picked gene with another gene of the
+ * chromosome chosen at random. The individual keeps the same number of
+ * moves in each direction, only their order changes.
+ *
+ * @author Meriton Çela
+ */
+public class SwapMutation extends PointMutation {
+
+    @Override
+    protected void mutateGene(Individual individual, int offset, RandomGenerator random) {
+        int other = random.nextInt(individual.getChromosomeLength());
+        int gene = individual.getGene(offset);
+        individual.setGene(offset, individual.getGene(other));
+        individual.setGene(other, gene);
+    }
+}
@@ -0,0 +1,114 @@
+package com.meritonqela.robotmaze;
+
+import java.time.Duration;
+
+/**
+ * Decides when an EvolutionEngine stops. The engine checks its condition
+ * after every generation, so a condition reads the engine's progress: the
+ * generation, the best individual so far, how long it hasn't improved, the
+ * population's diversity, the evaluations and the time spent.
+ *
+ * Conditions are combined with or and and, for instance stopping at a time
+ * budget, or once the goal was reached and nothing better came for a while:
+ *
+ * <pre>
+ * TerminationCondition.timeLimit(Duration.ofMillis(200))
+ *         .or(TerminationCondition.goalReached().and(TerminationCondition.stagnation(50)))
+ * </pre>
+ *
+ * @author Meriton Çela
+ */
+@FunctionalInterface
+public interface TerminationCondition {
+
+    /** Check if the engine should stop
+     * @param engine
+     *            The engine, after evaluating a generation
+     * @return boolean True if the engine should stop, otherwise, false
+     */
+    boolean isMet(EvolutionEngine engine);
+
+    /** Gets a condition met when this one or the other one is met */
+    default TerminationCondition or(TerminationCondition other) {
+        return engine -> this.isMet(engine) || other.isMet(engine);
+    }
+
+    /** Gets a condition met when both this one and the other one are met */
+    default TerminationCondition and(TerminationCondition other) {
+        return engine -> this.isMet(engine) && other.isMet(engine);
+    }
+
+    /** Gets a condition met when any of the conditions is met */
+    static TerminationCondition anyOf(TerminationCondition... conditions) {
+        TerminationCondition[] copy = conditions.clone();
+        return engine -> {
+            for (TerminationCondition condition : copy) {
+                if (condition.isMet(engine)) {
+                    return true;
+                }
+            }
+            return false;
+        };
+    }
+
+    /** Stop after a number of generations, like GeneticAlgorithm.isTerminationConditionMet
+     * @param maxGenerations
+     *            Number of generations to terminate after
+     */
+    static TerminationCondition maxGenerations(int maxGenerations) {
+        return engine -> engine.getGeneration() > maxGenerations;
+    }
+
+    /** Stop once the best individual's fitness exceeds a target
+     * @param targetFitness
+     *            The fitness to exceed
+     */
+    static TerminationCondition targetFitness(double targetFitness) {
+        return engine -> engine.getBestSoFar() != null && engine.getBestSoFar().getFitness() > targetFitness;
+    }
+
+    /** Stop once the best individual reached the goal, whatever the fitness mode */
+    static TerminationCondition goalReached() {
+        return EvolutionEngine::isGoalReached;
+    }
+
+    /** Stop when the best fitness hasn't improved for a number of generations
+     * @param generations
+     *            Number of generations without improvement
+     */
+    static TerminationCondition stagnation(int generations) {
+        if (generations < 1) {
+            throw new IllegalArgumentException("generations must be positive");
+        }
+        return engine -> engine.getGenerationsWithoutImprovement() >= generations;
+    }
+
+    /** Stop when the population's diversity falls below a floor, see EvolutionEngine.getDiversity
+     * @param minDiversity
+     *            The lowest diversity to go on with, from 0 to 1
+     */
+    static TerminationCondition diversityFloor(double minDiversity) {
+        return engine -> engine.getDiversity() < minDiversity;
+    }
+
+    /** Stop once a wall clock budget is spent
+     *
+     * The budget is checked between generations, so a run overshoots it by
+     * at most one generation.
+     *
+     * @param limit
+     *            The budget, from the start of the run
+     */
+    static TerminationCondition timeLimit(Duration limit) {
+        long limitNanos = limit.toNanos();
+        return engine -> engine.getElapsedNanos() >= limitNanos;
+    }
+
+    /** Stop once a number of individuals have been evaluated
+     * @param maxEvaluations
+     *            The evaluation budget, counting the initial population
+     */
+    static TerminationCondition evaluationLimit(long maxEvaluations) {
+        return engine -> engine.getEvaluations() >= maxEvaluations;
+    }
+}
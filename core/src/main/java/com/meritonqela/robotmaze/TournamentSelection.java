@@ -0,0 +1,66 @@
+package com.meritonqela.robotmaze;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Tournament selection works by choosing N random individuals, and then
+ * choosing the best of those.
+ *
+ * The contestants are drawn as distinct indices into a reusable buffer, so
+ * the population is never reordered and no tournament population is built.
+ *
+ * @author Meriton Çela
+ */
+public class TournamentSelection implements Selection {
+    private final int[] contestants;
+
+    /** Initializes tournament selection
+     * @param tournamentSize
+     *            The number of individuals taking part in each tournament
+     */
+    public TournamentSelection(int tournamentSize) {
+        if (tournamentSize < 1) {
+            throw new IllegalArgumentException("tournamentSize must be positive");
+        }
+        this.contestants = new int[tournamentSize];
+    }
+
+    @Override
+    public Individual select(Population population, RandomGenerator rnd) {
+        int size = population.size();
+        int tournamentSize = Math.min(this.contestants.length, size);
+
+        // Draw distinct random indices, the tournament is small so a linear
+        // duplicate check is cheaper than anything fancier
+        Individual best = null;
+        for (int i = 0; i < tournamentSize; i++) {
+            int index;
+            boolean drawn;
+            do {
+                index = rnd.nextInt(size);
+                drawn = false;
+                for (int j = 0; j < i; j++) {
+                    if (this.contestants[j] == index) {
+                        drawn = true;
+                        break;
+                    }
+                }
+            } while (drawn);
+            this.contestants[i] = index;
+
+            // Keep the best, the first drawn wins a tie
+            Individual contestant = population.getIndividual(index);
+            if (best == null || contestant.getFitness() > best.getFitness()) {
+                best = contestant;
+            }
+        }
+
+        // Return the best
+        return best;
+    }
+
+    @Override
+    public String toString() {
+        return "TournamentSelection(" + this.contestants.length + ")";
+    }
+}
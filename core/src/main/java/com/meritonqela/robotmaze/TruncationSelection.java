@@ -0,0 +1,50 @@
+package com.meritonqela.robotmaze;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Truncation selection picks parents uniformly among the strongest part of
+ * the population, the rest never reproduce through selection.
+ *
+ * Only the truncated part is ranked, using the population's ranked view.
+ *
+ * @author Meriton Çela
+ */
+public class TruncationSelection implements Selection {
+    private final double proportion;
+    private int count;
+
+    /** Initializes truncation selection
+     * @param proportion
+     *            The share of the population parents are picked from, in (0, 1]
+     */
+    public TruncationSelection(double proportion) {
+        if (!(proportion > 0 && proportion <= 1)) {
+            throw new IllegalArgumentException("proportion must be in (0, 1]");
+        }
+        this.proportion = proportion;
+    }
+
+    @Override
+    public void prepare(Population population, RandomGenerator random) {
+        this.count = Math.max(1, (int) Math.ceil(population.size() * this.proportion));
+        population.rankFittest(this.count);
+    }
+
+    @Override
+    public Individual select(Population population, RandomGenerator random) {
+        if (this.count == 0) {
+            // Used without prepare
+            this.prepare(population, random);
+        } else {
+            // Nothing to do unless the population changed since prepare
+            population.rankFittest(this.count);
+        }
+        return population.getRanked(random.nextInt(this.count));
+    }
+
+    @Override
+    public String toString() {
+        return "TruncationSelection(" + this.proportion + ")";
+    }
+}
@@ -0,0 +1,172 @@
+package com.meritonqela.robotmaze;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks that robots moving in lockstep, from the start or resumed from a
+ * checkpoint, end exactly like robots run one by one.
+ *
+ * @author Meriton Çela
+ */
+class BatchEvaluatorTest {
+
+    private static final int MAX_MOVES = 400;
+    private static final int BATCH = 16;
+
+    /** An open room, so robots live long, a generated maze, and both packed */
+    static Stream<Maze> mazes() {
+        int[][] room = new int[41][41];
+        room[0][0] = 2;
+        room[20][20] = 4;
+        Maze open = new Maze(room);
+        Maze generated = new MazeGenerator(3).generate(MazeGenerator.Style.PRIM, 41, 41);
+        return Stream.of(open, generated, open.toPacked(), generated.toPacked());
+    }
+
+    private static Individual[] randomIndividuals(int count, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        Individual[] individuals = new Individual[count];
+        for (int i = 0; i < count; i++) {
+            individuals[i] = new Individual(MAX_MOVES, random);
+        }
+        return individuals;
+    }
+
+    /** Run a robot for each individual, one by one */
+    private static Robot[] runSerially(Individual[] individuals, Maze maze) {
+        Robot[] robots = new Robot[individuals.length];
+        for (int i = 0; i < individuals.length; i++) {
+            robots[i] = new Robot(individuals[i], maze, MAX_MOVES);
+            robots[i].run();
+        }
+        return robots;
+    }
+
+    private static void assertSameRun(Robot robot, Individual serial, BatchEvaluator batch, int lane, String message) {
+        assertEquals(robot.moves, batch.getMoves(lane), message);
+        assertEquals(robot.step, batch.getSteps(lane), message);
+        // Checkpoints up to the last step the robot started
+        int checkpoints = (robot.step - 1) / Individual.GENES_PER_WORD + 1;
+        assertArrayEquals(Arrays.copyOf(serial.getCheckpoints(), checkpoints),
+                Arrays.copyOf(batch.getIndividual(lane).getCheckpoints(), checkpoints), message);
+    }
+
+    @ParameterizedTest
+    @MethodSource("mazes")
+    void batchesMatchRobots(Maze maze) {
+        Individual[] individuals = randomIndividuals(40, 1);
+        Individual[] copies = new Individual[individuals.length];
+        for (int i = 0; i < individuals.length; i++) {
+            copies[i] = new Individual(individuals[i].getChromosome());
+        }
+        Robot[] robots = runSerially(individuals, maze);
+
+        BatchEvaluator batch = new BatchEvaluator(BATCH);
+        for (int first = 0; first < copies.length; first += BATCH) {
+            batch.clear();
+            int end = Math.min(copies.length, first + BATCH);
+            for (int i = first; i < end; i++) {
+                batch.add(copies[i]);
+            }
+            batch.run(maze, MAX_MOVES);
+            for (int i = first; i < end; i++) {
+                assertSameRun(robots[i], individuals[i], batch, i - first, "individual " + i);
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("mazes")
+    void resumedLanesMatchRobots(Maze maze) {
+        SplittableRandom random = new SplittableRandom(2);
+        Individual[] individuals = randomIndividuals(BATCH, 3);
+        GeneticAlgorithm ga = new GeneticAlgorithm(BATCH, 0, 0, 0, 1);
+        ga.setMaxMoves(MAX_MOVES);
+        for (Individual individual : individuals) {
+            ga.calcFitness(individual, maze);
+        }
+
+        // Resume each copy from a random checkpoint of the first run, some from the start
+        BatchEvaluator batch = new BatchEvaluator(BATCH);
+        for (Individual individual : individuals) {
+            Individual copy = new Individual(individual);
+            int checkpoint = random.nextInt(individual.getCheckpointCount());
+            if (checkpoint == 0) {
+                batch.add(copy);
+            } else {
+                batch.add(copy, checkpoint * Individual.GENES_PER_WORD, individual.getCheckpoints()[checkpoint]);
+            }
+        }
+        batch.run(maze, MAX_MOVES);
+
+        Robot[] robots = runSerially(individuals, maze);
+        for (int lane = 0; lane < batch.size(); lane++) {
+            Individual copy = batch.getIndividual(lane);
+            for (int i = 0; i < individuals.length; i++) {
+                if (Arrays.equals(individuals[i].getChromosome(), copy.getChromosome())) {
+                    assertSameRun(robots[i], individuals[i], batch, lane, "individual " + i);
+                }
+            }
+        }
+    }
+
+    @Test
+    void addRejectsStepsBetweenCheckpoints() {
+        BatchEvaluator batch = new BatchEvaluator(2);
+
+        assertThrows(IllegalArgumentException.class, () -> batch.add(new Individual(MAX_MOVES), 5, 0));
+    }
+
+    @ParameterizedTest
+    @MethodSource("mazes")
+    void batchedGenerationsMatchSerialGenerations(Maze maze) {
+        EvolutionEngine[] engines = new EvolutionEngine[2];
+        for (int k = 0; k < engines.length; k++) {
+            GeneticAlgorithm ga = new GeneticAlgorithm(60, 0.002, 0.9, 2, 5);
+            ga.setMaxMoves(MAX_MOVES);
+            if (k == 1) {
+                ga.setBatchSize(BATCH);
+            }
+            engines[k] = new EvolutionEngine(ga, maze, MAX_MOVES);
+            engines[k].setSeed(9);
+            engines[k].start();
+        }
+
+        for (int generation = 0; generation < 30; generation++) {
+            for (EvolutionEngine engine : engines) {
+                engine.step(TerminationCondition.maxGenerations(1000), 1);
+            }
+            Individual[] serial = engines[0].getPopulation().getIndividuals();
+            Individual[] batched = engines[1].getPopulation().getIndividuals();
+            for (int i = 0; i < serial.length; i++) {
+                String message = "generation " + generation + ", individual " + i;
+                assertArrayEquals(serial[i].getChromosome(), batched[i].getChromosome(), message);
+                assertEquals(serial[i].getFitness(), batched[i].getFitness(), message);
+                assertEquals(serial[i].getEvaluatedSteps(), batched[i].getEvaluatedSteps(), message);
+                assertArrayEquals(Arrays.copyOf(serial[i].getCheckpoints(), serial[i].getCheckpointCount()),
+                        Arrays.copyOf(batched[i].getCheckpoints(), batched[i].getCheckpointCount()), message);
+            }
+        }
+    }
+
+    @Test
+    void batchesRejectDistanceFitness() {
+        GeneticAlgorithm ga = new GeneticAlgorithm(10, 0, 0, 0, 1);
+        ga.setBatchSize(8);
+        assertThrows(IllegalStateException.class, () -> ga.setFitnessMode(GeneticAlgorithm.FitnessMode.DISTANCE));
+
+        ga.setBatchSize(0);
+        ga.setFitnessMode(GeneticAlgorithm.FitnessMode.DISTANCE);
+        assertThrows(IllegalStateException.class, () -> ga.setBatchSize(8));
+    }
+}
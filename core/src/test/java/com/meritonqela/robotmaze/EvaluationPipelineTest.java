@@ -0,0 +1,210 @@
+package com.meritonqela.robotmaze;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that pipelined generations are the generations bred without a
+ * pipeline, that steady state replacement keeps the population whole, and
+ * that the workers stop when a step fails.
+ *
+ * @author Meriton Çela
+ */
+class EvaluationPipelineTest {
+
+    private static final int MAX_MOVES = 300;
+    private static final int SIZE = 60;
+
+    private final Maze maze = new MazeGenerator(4).generate(MazeGenerator.Style.CELLULAR_AUTOMATA, 31, 31);
+
+    private static GeneticAlgorithm newGeneticAlgorithm(int batchSize) {
+        GeneticAlgorithm ga = new GeneticAlgorithm(SIZE, 0.01, 0.9, 3, 5);
+        ga.setMaxMoves(MAX_MOVES);
+        ga.setBatchSize(batchSize);
+        return ga;
+    }
+
+    private EvolutionEngine newEngine(GeneticAlgorithm ga) {
+        EvolutionEngine engine = new EvolutionEngine(ga, this.maze, MAX_MOVES);
+        engine.setSeed(21);
+        return engine;
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 8})
+    void pipelinedGenerationsAreTheGenerationsBredWithout(int batchSize) {
+        EvolutionEngine serial = this.newEngine(newGeneticAlgorithm(batchSize));
+        EvolutionEngine pipelined = this.newEngine(newGeneticAlgorithm(batchSize));
+        pipelined.setPipeline(3, 8);
+        serial.start();
+        pipelined.start();
+
+        try {
+            for (int generation = 0; generation < 40; generation++) {
+                serial.step(TerminationCondition.maxGenerations(1000), 1);
+                pipelined.step(TerminationCondition.maxGenerations(1000), 1);
+
+                Individual[] expected = serial.getPopulation().getIndividuals();
+                Individual[] actual = pipelined.getPopulation().getIndividuals();
+                for (int i = 0; i < SIZE; i++) {
+                    String message = "generation " + generation + ", individual " + i;
+                    assertArrayEquals(expected[i].getChromosome(), actual[i].getChromosome(), message);
+                    assertEquals(expected[i].getFitness(), actual[i].getFitness(), message);
+                }
+                assertEquals(serial.getPopulation().getPopulationFitness(),
+                        pipelined.getPopulation().getPopulationFitness(), "generation " + generation);
+                assertEquals(serial.getBestSoFar().getFitness(), pipelined.getBestSoFar().getFitness());
+            }
+        } finally {
+            pipelined.close();
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 4})
+    void steadyStateOnlyReplacesWithFitterOffspring(int batchSize) throws ReflectiveOperationException {
+        GeneticAlgorithm ga = newGeneticAlgorithm(batchSize);
+        EvolutionEngine engine = this.newEngine(ga);
+        engine.setPipeline(3, 5);
+        engine.setSteadyState(true);
+        engine.start();
+        GeneticAlgorithm fresh = newGeneticAlgorithm(0);
+
+        try {
+            int[][] previousGenes = genesOf(engine.getPopulation().getIndividuals());
+            double[] previousFitness = fitnessOf(engine.getPopulation().getIndividuals());
+            for (int generation = 0; generation < 30; generation++) {
+                engine.step(TerminationCondition.maxGenerations(1000), 1);
+                String message = "generation " + generation;
+
+                Individual[] current = engine.getPopulation().getIndividuals();
+                assertEquals(SIZE, current.length, message);
+                Set<Individual> population = identitySet(current);
+                assertEquals(SIZE, population.size(), message + ": an individual is in two places");
+                Set<Individual> spare = identitySet(pool(engine).getSpare().getIndividuals());
+                assertEquals(SIZE, spare.size(), message + ": an individual is in two places of the spare");
+                spare.retainAll(population);
+                assertTrue(spare.isEmpty(), message + ": an individual is in the population and the spare");
+
+                // Each index keeps its individual, or was given fitter ones
+                for (int i = 0; i < SIZE; i++) {
+                    if (current[i].getFitness() == previousFitness[i]) {
+                        assertArrayEquals(previousGenes[i], current[i].getChromosome(), message + ", index " + i);
+                    } else {
+                        assertTrue(current[i].getFitness() > previousFitness[i], message + ", index " + i);
+                    }
+                    assertEquals(fresh.calcFitness(new Individual(current[i].getChromosome()), this.maze),
+                            current[i].getFitness(), message + ", index " + i);
+                }
+
+                previousGenes = genesOf(current);
+                previousFitness = fitnessOf(current);
+            }
+        } finally {
+            engine.close();
+        }
+    }
+
+    private static Set<Individual> identitySet(Individual[] individuals) {
+        Set<Individual> set = Collections.newSetFromMap(new IdentityHashMap<>());
+        set.addAll(Arrays.asList(individuals));
+        return set;
+    }
+
+    private static int[][] genesOf(Individual[] individuals) {
+        return Arrays.stream(individuals).map(Individual::getChromosome).toArray(int[][]::new);
+    }
+
+    private static double[] fitnessOf(Individual[] individuals) {
+        return Arrays.stream(individuals).mapToDouble(Individual::getFitness).toArray();
+    }
+
+    private static PopulationPool pool(EvolutionEngine engine) throws ReflectiveOperationException {
+        Field field = EvolutionEngine.class.getDeclaredField("pool");
+        field.setAccessible(true);
+        return (PopulationPool) field.get(engine);
+    }
+
+    /** The evaluation workers still alive */
+    private static Set<Thread> evaluators() {
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().startsWith("evaluator-") && thread.isAlive())
+                .collect(Collectors.toSet());
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void failedStepStopsTheWorkers(boolean steadyState) {
+        Set<Thread> before = evaluators();
+        GeneticAlgorithm ga = newGeneticAlgorithm(0);
+        Mutation mutation = ga.getMutation();
+        AtomicInteger mutations = new AtomicInteger();
+        ga.setMutation((individual, rate, random) -> {
+            if (mutations.incrementAndGet() > 3 * SIZE) {
+                throw new IllegalStateException("mutation failed");
+            }
+            mutation.mutate(individual, rate, random);
+        });
+        EvolutionEngine engine = this.newEngine(ga);
+        engine.setPipeline(3, 4);
+        engine.setSteadyState(steadyState);
+        engine.start();
+
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> engine.step(TerminationCondition.maxGenerations(1000), 10));
+        assertEquals("mutation failed", e.getMessage());
+        assertTrue(engine.getPipeline().isClosed());
+        assertEquals(before, evaluators());
+    }
+
+    @Test
+    void interruptedStepStopsTheWorkers() {
+        Set<Thread> before = evaluators();
+        EvolutionEngine engine = this.newEngine(newGeneticAlgorithm(0));
+        engine.setPipeline(3, 4);
+        engine.start();
+
+        Thread.currentThread().interrupt();
+        try {
+            assertThrows(IllegalStateException.class, () -> engine.step(TerminationCondition.maxGenerations(1000), 10));
+            assertTrue(Thread.currentThread().isInterrupted());
+        } finally {
+            Thread.interrupted();
+        }
+        assertTrue(engine.getPipeline().isClosed());
+        assertEquals(before, evaluators());
+    }
+
+    @Test
+    void closeStopsTheWorkersAndKeepsTheStatistics() {
+        Set<Thread> before = evaluators();
+        EvolutionEngine engine = this.newEngine(newGeneticAlgorithm(0));
+        assertNull(engine.getPipeline());
+        engine.setPipeline(2, 4);
+        engine.start();
+        engine.step(TerminationCondition.maxGenerations(1000), 3);
+        assertFalse(engine.getPipeline().isClosed());
+        assertEquals(2, engine.getPipeline().getEvaluatorCount());
+
+        engine.close();
+        assertTrue(engine.getPipeline().isClosed());
+        assertEquals(before, evaluators());
+        assertEquals(4, engine.getPipeline().getCapacity());
+    }
+}
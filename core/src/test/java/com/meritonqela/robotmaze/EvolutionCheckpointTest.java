@@ -0,0 +1,146 @@
+package com.meritonqela.robotmaze;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that a run stopped at a checkpoint and resumed ends like the same
+ * run left alone, and that checkpoints that don't fit are refused.
+ *
+ * @author Meriton Çela
+ */
+class EvolutionCheckpointTest {
+
+    private static final int MAX_MOVES = 300;
+    private static final long SEED = 77;
+
+    @TempDir
+    Path directory;
+
+    private Maze maze;
+    private Path path;
+
+    @BeforeEach
+    void setUp() {
+        this.maze = new MazeGenerator(9).generate(MazeGenerator.Style.CELLULAR_AUTOMATA, 31, 31);
+        this.path = this.directory.resolve("run.ck");
+    }
+
+    private static GeneticAlgorithm newGeneticAlgorithm() {
+        GeneticAlgorithm ga = new GeneticAlgorithm(80, 0.02, 0.9, 3, 10);
+        ga.setMaxMoves(MAX_MOVES);
+        return ga;
+    }
+
+    private EvolutionEngine newEngine(GeneticAlgorithm ga) {
+        EvolutionEngine engine = new EvolutionEngine(ga, this.maze, MAX_MOVES);
+        engine.setSeed(SEED);
+        return engine;
+    }
+
+    /** Run 37 generations and write a checkpoint every 10 and at the end */
+    private EvolutionEngine runToCheckpoint() {
+        EvolutionEngine engine = this.newEngine(newGeneticAlgorithm());
+        engine.setCheckpoint(this.path, 10);
+        engine.run(TerminationCondition.maxGenerations(37));
+        return engine;
+    }
+
+    private static void assertSameState(EvolutionEngine expected, EvolutionEngine actual) {
+        assertEquals(expected.getGeneration(), actual.getGeneration());
+        assertEquals(expected.getEvaluations(), actual.getEvaluations());
+        assertEquals(expected.getGenerationsWithoutImprovement(), actual.getGenerationsWithoutImprovement());
+        assertEquals(expected.getBestSoFar().getFitness(), actual.getBestSoFar().getFitness());
+        assertArrayEquals(expected.getBestSoFar().getChromosome(), actual.getBestSoFar().getChromosome());
+        Individual[] expectedIndividuals = expected.getPopulation().getIndividuals();
+        Individual[] actualIndividuals = actual.getPopulation().getIndividuals();
+        for (int i = 0; i < expectedIndividuals.length; i++) {
+            assertArrayEquals(expectedIndividuals[i].getChromosome(), actualIndividuals[i].getChromosome(),
+                    "individual " + i);
+            assertEquals(expectedIndividuals[i].getFitness(), actualIndividuals[i].getFitness(), "individual " + i);
+        }
+    }
+
+    @Test
+    void resumedRunEndsLikeUninterruptedRun() throws IOException {
+        EvolutionEngine uninterrupted = this.newEngine(newGeneticAlgorithm());
+        uninterrupted.run(TerminationCondition.maxGenerations(80));
+        // The goal isn't found early, so the resumed run has generations to go
+        assertFalse(uninterrupted.isGoalReached());
+
+        // Checkpointing doesn't change the run
+        EvolutionEngine checkpointed = this.runToCheckpoint();
+        EvolutionEngine shorter = this.newEngine(newGeneticAlgorithm());
+        shorter.run(TerminationCondition.maxGenerations(37));
+        assertSameState(shorter, checkpointed);
+        assertTrue(Files.exists(this.path));
+        assertFalse(Files.exists(this.path.resolveSibling("run.ck.tmp")));
+
+        EvolutionEngine resumed = new EvolutionEngine(newGeneticAlgorithm(), this.maze, MAX_MOVES);
+        resumed.resume(this.path, TerminationCondition.maxGenerations(80));
+        assertEquals(SEED, resumed.getSeed());
+        assertSameState(uninterrupted, resumed);
+    }
+
+    @Test
+    void corruptedCheckpointIsRefused() throws IOException {
+        this.runToCheckpoint();
+        byte[] bytes = Files.readAllBytes(this.path);
+        bytes[bytes.length / 2] ^= 1;
+        Files.write(this.path, bytes);
+
+        EvolutionEngine engine = new EvolutionEngine(newGeneticAlgorithm(), this.maze, MAX_MOVES);
+        IOException e = assertThrows(IOException.class,
+                () -> engine.resume(this.path, TerminationCondition.maxGenerations(80)));
+        assertTrue(e.getMessage().startsWith("Checkpoint corrupted"), e.getMessage());
+    }
+
+    @Test
+    void truncatedCheckpointIsRefused() throws IOException {
+        this.runToCheckpoint();
+        byte[] bytes = Files.readAllBytes(this.path);
+        Files.write(this.path, Arrays.copyOf(bytes, bytes.length - 1));
+
+        EvolutionEngine engine = new EvolutionEngine(newGeneticAlgorithm(), this.maze, MAX_MOVES);
+        assertThrows(IOException.class, () -> engine.resume(this.path, TerminationCondition.maxGenerations(80)));
+    }
+
+    @Test
+    void otherOperatorsAreRefused() {
+        this.runToCheckpoint();
+
+        GeneticAlgorithm otherSelection = newGeneticAlgorithm();
+        otherSelection.setSelection(new TruncationSelection(0.5));
+        EvolutionEngine engine = new EvolutionEngine(otherSelection, this.maze, MAX_MOVES);
+        assertThrows(IllegalArgumentException.class,
+                () -> engine.resume(this.path, TerminationCondition.maxGenerations(80)));
+
+        GeneticAlgorithm otherMutation = newGeneticAlgorithm();
+        otherMutation.setMutation(new InversionMutation(8));
+        EvolutionEngine other = new EvolutionEngine(otherMutation, this.maze, MAX_MOVES);
+        assertThrows(IllegalArgumentException.class,
+                () -> other.resume(this.path, TerminationCondition.maxGenerations(80)));
+    }
+
+    @Test
+    void otherMazeIsRefused() {
+        this.runToCheckpoint();
+
+        Maze otherMaze = new MazeGenerator(10).generate(MazeGenerator.Style.CELLULAR_AUTOMATA, 31, 31);
+        EvolutionEngine engine = new EvolutionEngine(newGeneticAlgorithm(), otherMaze, MAX_MOVES);
+        assertThrows(IllegalArgumentException.class,
+                () -> engine.resume(this.path, TerminationCondition.maxGenerations(80)));
+    }
+}
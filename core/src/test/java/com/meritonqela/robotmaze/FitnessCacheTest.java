@@ -0,0 +1,182 @@
+package com.meritonqela.robotmaze;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the fitness cache finds the runs sharing the genes a robot
+ * read, and nothing else, through evictions, filter rebuilds and hash
+ * collisions, and that evolution with the cache scores like without it.
+ *
+ * @author Meriton Çela
+ */
+class FitnessCacheTest {
+
+    private static final int MAX_MOVES = 200;
+
+    private final Maze maze = new MazeGenerator(1).generate(MazeGenerator.Style.PRIM, 21, 21);
+    private final SplittableRandom random = new SplittableRandom(5);
+
+    private static long result(int moves, int step) {
+        return ((long) moves << 32) | step;
+    }
+
+    /** A copy of an individual with a gene changed */
+    private static Individual withChangedGene(Individual individual, int offset) {
+        Individual changed = new Individual(individual.getChromosome());
+        changed.setGene(offset, individual.getGene(offset) % 4 + 1);
+        return changed;
+    }
+
+    @Test
+    void sharedConsumedPrefixHits() {
+        FitnessCache cache = new FitnessCache(64, MAX_MOVES);
+        Individual individual = new Individual(MAX_MOVES, this.random);
+        // A robot that read 70 genes, across two word boundaries
+        cache.store(individual, this.maze, 71, 70);
+
+        assertEquals(result(71, 70), cache.lookup(individual, this.maze));
+        // The genes the robot didn't read don't matter
+        for (int offset : new int[] {70, 71, 96, MAX_MOVES - 1}) {
+            assertEquals(result(71, 70), cache.lookup(withChangedGene(individual, offset), this.maze), "gene " + offset);
+        }
+        // The genes it read do
+        for (int offset : new int[] {0, 31, 32, 63, 64, 69}) {
+            assertEquals(FitnessCache.MISS, cache.lookup(withChangedGene(individual, offset), this.maze), "gene " + offset);
+        }
+        // So do the maze and the shortest length probed
+        assertEquals(FitnessCache.MISS, cache.lookup(individual, new MazeGenerator(2).generate(MazeGenerator.Style.PRIM, 21, 21)));
+        assertEquals(result(71, 70), cache.lookup(individual, this.maze, 70));
+        assertEquals(FitnessCache.MISS, cache.lookup(individual, this.maze, 71));
+    }
+
+    @Test
+    void shortRunsAndRunsOfWholeWordsHit() {
+        for (int step : new int[] {0, 1, 31, 32, 64, MAX_MOVES}) {
+            // A run that read no genes matches every individual, so each length gets its own cache
+            FitnessCache cache = new FitnessCache(64, MAX_MOVES);
+            Individual individual = new Individual(MAX_MOVES, this.random);
+            cache.store(individual, this.maze, step + 1, step);
+            assertEquals(result(step + 1, step), cache.lookup(individual, this.maze), "step " + step);
+        }
+    }
+
+    @Test
+    void keyCollisionsMiss() throws ReflectiveOperationException {
+        FitnessCache cache = new FitnessCache(4, MAX_MOVES);
+        Individual individual = new Individual(MAX_MOVES, this.random);
+        cache.store(individual, this.maze, 51, 50);
+
+        // Another individual whose prefix hashes like the cached one, only the genes tell them apart
+        Individual other = withChangedGene(individual, 49);
+        long[] keys = (long[]) field("keys").get(cache);
+        int[] lengths = (int[]) field("lengths").get(cache);
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (lengths[slot] == 50) {
+                keys[slot] = other.prefixHash(50);
+            }
+        }
+
+        assertEquals(FitnessCache.MISS, cache.lookup(other, this.maze));
+    }
+
+    private static Field field(String name) throws NoSuchFieldException {
+        Field field = FitnessCache.class.getDeclaredField(name);
+        field.setAccessible(true);
+        return field;
+    }
+
+    @Test
+    void fullSetEvictsLeastRecentlyUsed() {
+        // One set of four slots
+        FitnessCache cache = new FitnessCache(4, MAX_MOVES);
+        assertEquals(4, cache.getCapacity());
+        Individual[] runs = new Individual[6];
+        for (int i = 0; i < runs.length; i++) {
+            runs[i] = new Individual(MAX_MOVES, this.random);
+        }
+        for (int i = 0; i < 4; i++) {
+            cache.store(runs[i], this.maze, 10 + i, 40);
+        }
+        assertEquals(4, cache.size());
+
+        // Every run was used, the first one goes
+        cache.store(runs[4], this.maze, 14, 40);
+        assertEquals(4, cache.size());
+        assertEquals(FitnessCache.MISS, cache.lookup(runs[0], this.maze));
+
+        // The second run was used again, so the third goes
+        assertEquals(result(11, 40), cache.lookup(runs[1], this.maze));
+        cache.store(runs[5], this.maze, 15, 40);
+        assertEquals(FitnessCache.MISS, cache.lookup(runs[2], this.maze));
+        for (int i : new int[] {1, 3, 4, 5}) {
+            assertEquals(result(10 + i, 40), cache.lookup(runs[i], this.maze), "run " + i);
+        }
+        assertEquals(4, cache.size());
+    }
+
+    @Test
+    void lookupsSurviveFilterRebuilds() {
+        // One set, the filter is rebuilt every four stores
+        FitnessCache cache = new FitnessCache(4, MAX_MOVES);
+        Individual kept = new Individual(MAX_MOVES, this.random);
+        Individual evicted = new Individual(MAX_MOVES, this.random);
+        cache.store(evicted, this.maze, 3, 90);
+        cache.store(kept, this.maze, 2, 100);
+
+        for (int i = 0; i < 50; i++) {
+            // Keep the run used, so runs stored since replace each other and the evicted one
+            assertEquals(result(2, 100), cache.lookup(kept, this.maze), "store " + i);
+            Individual run = new Individual(MAX_MOVES, this.random);
+            cache.store(run, this.maze, 1000 + i, 33 + i);
+            assertEquals(result(1000 + i, 33 + i), cache.lookup(run, this.maze), "store " + i);
+        }
+        assertEquals(FitnessCache.MISS, cache.lookup(evicted, this.maze));
+        assertEquals(result(2, 100), cache.lookup(kept, this.maze));
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertEquals(FitnessCache.MISS, cache.lookup(kept, this.maze));
+    }
+
+    @Test
+    void capacityIsRoundedUpToWholeSets() {
+        assertEquals(4, new FitnessCache(1, MAX_MOVES).getCapacity());
+        assertEquals(8, new FitnessCache(5, MAX_MOVES).getCapacity());
+        assertEquals(16384, new FitnessCache(10000, MAX_MOVES).getCapacity());
+        assertEquals(8192, new FitnessCache(8192, MAX_MOVES).getCapacity());
+    }
+
+    @Test
+    void parallelEvaluationWithCacheScoresLikeWithout() {
+        GeneticAlgorithm ga = new GeneticAlgorithm(200, 0.005, 0.9, 2, 10);
+        ga.setMaxMoves(MAX_MOVES);
+        ga.setRandom(new SplittableRandom(3));
+        ga.setFitnessCacheCapacity(500);
+        ga.setEvaluationParallelism(4, 8);
+        GeneticAlgorithm uncached = new GeneticAlgorithm(1, 0, 0, 0, 1);
+        uncached.setMaxMoves(MAX_MOVES);
+
+        try {
+            Population population = ga.initPopulation(MAX_MOVES);
+            for (int generation = 0; generation < 30; generation++) {
+                ga.evalPopulation(population, this.maze);
+                for (Individual individual : population.getIndividuals()) {
+                    Individual fresh = new Individual(individual.getChromosome());
+                    assertEquals(uncached.calcFitness(fresh, this.maze), individual.getFitness(),
+                            "generation " + generation);
+                    assertEquals(fresh.getGoodGenes(), individual.getGoodGenes(), "generation " + generation);
+                }
+                population = ga.mutatePopulation(ga.crossoverPopulation(population));
+            }
+        } finally {
+            ga.close();
+        }
+        assertTrue(ga.getFitnessCache().getHits() > 0);
+    }
+}
@@ -0,0 +1,69 @@
+package com.meritonqela.robotmaze;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that evaluating a population on a fork-join pool scores every
+ * individual, and the population, like evaluating it serially.
+ *
+ * @author Meriton Çela
+ */
+class GeneticAlgorithmTest {
+
+    private static final int MAX_MOVES = 300;
+    private static final int SIZE = 250;
+
+    private static GeneticAlgorithm newGeneticAlgorithm(GeneticAlgorithm.FitnessMode mode, int batchSize) {
+        GeneticAlgorithm ga = new GeneticAlgorithm(SIZE, 0.02, 0.9, 3, 5);
+        ga.setMaxMoves(MAX_MOVES);
+        ga.setFitnessMode(mode);
+        ga.setBatchSize(batchSize);
+        ga.setRandom(new SplittableRandom(8));
+        return ga;
+    }
+
+    @ParameterizedTest
+    @CsvSource({"SURVIVAL, 0", "SURVIVAL, 8", "DISTANCE, 0"})
+    void parallelEvaluationScoresLikeSerial(GeneticAlgorithm.FitnessMode mode, int batchSize) {
+        Maze maze = new MazeGenerator(12).generate(MazeGenerator.Style.CELLULAR_AUTOMATA, 41, 41);
+        GeneticAlgorithm serial = newGeneticAlgorithm(mode, batchSize);
+        GeneticAlgorithm parallel = newGeneticAlgorithm(mode, batchSize);
+        // Chunks far smaller than the population, so it is split many times
+        parallel.setEvaluationParallelism(4, 16);
+        PopulationPool serialPool = serial.initPopulationPool(MAX_MOVES);
+        PopulationPool parallelPool = parallel.initPopulationPool(MAX_MOVES);
+
+        try {
+            for (int generation = 0; generation < 25; generation++) {
+                // Evaluation draws no random numbers, both populations are bred alike
+                if (generation > 0) {
+                    serial.breed(serialPool);
+                    parallel.breed(parallelPool);
+                }
+                Population expected = serialPool.getCurrent();
+                Population actual = parallelPool.getCurrent();
+                serial.evalPopulation(expected, maze);
+                parallel.evalPopulation(actual, maze);
+
+                String message = "generation " + generation;
+                for (int i = 0; i < SIZE; i++) {
+                    assertArrayEquals(expected.getIndividual(i).getChromosome(), actual.getIndividual(i).getChromosome(),
+                            message);
+                    assertEquals(expected.getIndividual(i).getFitness(), actual.getIndividual(i).getFitness(), message);
+                    assertEquals(expected.getIndividual(i).getGoodGenes(), actual.getIndividual(i).getGoodGenes(),
+                            message);
+                }
+                assertEquals(expected.getPopulationFitness(), actual.getPopulationFitness(), message);
+                assertEquals(serial.getSkippedEvaluations(), parallel.getSkippedEvaluations(), message);
+            }
+        } finally {
+            parallel.close();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.meritonqela.robotmaze;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that an individual evaluated again after a change, which resumes
+ * its robot from a checkpoint or reuses the last run, scores the same as
+ * an evaluation from the start.
+ *
+ * @author Meriton Çela
+ */
+class IncrementalEvaluationTest {
+
+    private static final int MAX_MOVES = 500;
+
+    /** An open maze, so robots live long enough to pass many checkpoints */
+    private static Maze openMaze() {
+        SplittableRandom random = new SplittableRandom(7);
+        int[][] grid = new int[41][41];
+        for (int[] row : grid) {
+            for (int j = 0; j < row.length; j++) {
+                row[j] = random.nextInt(100) < 5 ? 1 : 0;
+            }
+        }
+        grid[0][0] = 2;
+        grid[40][40] = 4;
+        return new Maze(grid);
+    }
+
+    private static GeneticAlgorithm newGeneticAlgorithm(GeneticAlgorithm.FitnessMode mode) {
+        GeneticAlgorithm ga = new GeneticAlgorithm(100, 0.01, 0.9, 2, 10);
+        ga.setMaxMoves(MAX_MOVES);
+        ga.setFitnessMode(mode);
+        return ga;
+    }
+
+    /** Evaluate a copy of the genes that has never been evaluated, with a new genetic algorithm */
+    private static void assertSameAsFresh(Individual individual, Maze maze, GeneticAlgorithm.FitnessMode mode,
+            String message) {
+        Individual fresh = new Individual(individual.getChromosome());
+        GeneticAlgorithm ga = newGeneticAlgorithm(mode);
+        assertEquals(ga.calcFitness(fresh, maze), individual.getFitness(), message);
+        assertEquals(fresh.getEvaluatedSteps(), individual.getEvaluatedSteps(), message);
+        assertEquals(fresh.getGoodGenes(), individual.getGoodGenes(), message);
+    }
+
+    @ParameterizedTest
+    @EnumSource(GeneticAlgorithm.FitnessMode.class)
+    void changedIndividualsScoreAsIfNew(GeneticAlgorithm.FitnessMode mode) {
+        Maze maze = openMaze();
+        GeneticAlgorithm ga = newGeneticAlgorithm(mode);
+        SplittableRandom random = new SplittableRandom(1);
+
+        for (int i = 0; i < 50; i++) {
+            Individual individual = new Individual(MAX_MOVES, random);
+            ga.calcFitness(individual, maze);
+
+            for (int change = 0; change < 20; change++) {
+                int reached = individual.getEvaluatedSteps();
+                if (random.nextBoolean()) {
+                    // Point mutation, mostly inside the genes the robot read
+                    int offset = random.nextInt(Math.max(1, Math.min(MAX_MOVES, reached + 40)));
+                    individual.setGene(offset, 1 + random.nextInt(4));
+                } else {
+                    // Crossover with a random individual from a random point
+                    int from = random.nextInt(MAX_MOVES);
+                    int to = from + random.nextInt(MAX_MOVES - from + 1);
+                    individual.setGenes(new Individual(MAX_MOVES, random), from, to);
+                }
+                ga.calcFitness(individual, maze);
+                assertSameAsFresh(individual, maze, mode, "individual " + i + ", change " + change);
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(GeneticAlgorithm.FitnessMode.class)
+    void bredPopulationsScoreAsIfNew(GeneticAlgorithm.FitnessMode mode) {
+        Maze maze = openMaze();
+        GeneticAlgorithm ga = newGeneticAlgorithm(mode);
+        ga.setRandom(new SplittableRandom(2));
+
+        Population population = ga.initPopulation(MAX_MOVES);
+        ga.evalPopulation(population, maze);
+        for (int generation = 0; generation < 20; generation++) {
+            population = ga.crossoverPopulation(population);
+            population = ga.mutatePopulation(population);
+            ga.evalPopulation(population, maze);
+
+            for (Individual individual : population.getIndividuals()) {
+                assertSameAsFresh(individual, maze, mode, "generation " + generation);
+            }
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.meritonqela.robotmaze;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the packed chromosome against plain arrays of genes, around the
+ * boundaries of the words the genes are packed in.
+ *
+ * @author Meriton Çela
+ */
+class IndividualTest {
+
+    private static int[] randomGenes(int length, SplittableRandom random) {
+        int[] genes = new int[length];
+        for (int i = 0; i < length; i++) {
+            genes[i] = 1 + random.nextInt(4);
+        }
+        return genes;
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 31, 32, 33, 63, 64, 65, 100, 128})
+    void chromosomeRoundTrips(int length) {
+        int[] genes = randomGenes(length, new SplittableRandom(length));
+        Individual individual = new Individual(genes);
+
+        assertEquals(length, individual.getChromosomeLength());
+        assertArrayEquals(genes, individual.getChromosome());
+        for (int i = 0; i < length; i++) {
+            assertEquals(genes[i], individual.getGene(i));
+        }
+    }
+
+    @Test
+    void setGeneChangesOnlyItsGene() {
+        int length = 100;
+        int[] genes = randomGenes(length, new SplittableRandom(1));
+        Individual individual = new Individual(genes);
+
+        for (int offset : new int[] {0, 31, 32, 63, 64, 99}) {
+            for (int gene = 1; gene <= 4; gene++) {
+                individual.setGene(offset, gene);
+                genes[offset] = gene;
+                assertArrayEquals(genes, individual.getChromosome(), "gene " + offset);
+            }
+        }
+    }
+
+    @Test
+    void setGeneRejectsInvalidGenes() {
+        Individual individual = new Individual(10);
+
+        assertThrows(IllegalArgumentException.class, () -> individual.setGene(3, 0));
+        assertThrows(IllegalArgumentException.class, () -> individual.setGene(3, 5));
+    }
+
+    @Test
+    void setGenesSplicesRanges() {
+        SplittableRandom random = new SplittableRandom(2);
+        int length = 100;
+        int[] genes = randomGenes(length, random);
+        Individual individual = new Individual(genes);
+
+        for (int i = 0; i < 1000; i++) {
+            int[] other = randomGenes(length, random);
+            int from = random.nextInt(length + 1);
+            int to = from + random.nextInt(length - from + 1);
+
+            individual.setGenes(new Individual(other), from, to);
+            System.arraycopy(other, from, genes, from, to - from);
+            assertArrayEquals(genes, individual.getChromosome(), "genes " + from + " to " + to);
+        }
+    }
+
+    @Test
+    void setGenesRejectsOtherLengths() {
+        Individual individual = new Individual(64);
+
+        assertThrows(IllegalArgumentException.class, () -> individual.setGenes(new Individual(65), 0, 10));
+    }
+
+    @Test
+    void copiesAreIndependent() {
+        int[] genes = randomGenes(70, new SplittableRandom(3));
+        Individual individual = new Individual(genes);
+        Individual copy = new Individual(individual);
+
+        copy.setGene(40, genes[40] % 4 + 1);
+        assertArrayEquals(genes, individual.getChromosome());
+    }
+
+    @Test
+    void prefixesIgnoreLaterGenes() {
+        SplittableRandom random = new SplittableRandom(4);
+        int length = 100;
+        int[] genes = randomGenes(length, random);
+        Individual individual = new Individual(genes);
+
+        for (int prefixLength : new int[] {0, 1, 31, 32, 33, 64, 65, 99, 100}) {
+            long[] prefix = individual.copyPrefix(prefixLength);
+            long hash = individual.prefixHash(prefixLength);
+
+            // Genes past the prefix don't matter
+            int[] changed = Arrays.copyOf(genes, length);
+            for (int i = prefixLength; i < length; i++) {
+                changed[i] = changed[i] % 4 + 1;
+            }
+            Individual other = new Individual(changed);
+            assertTrue(other.prefixEquals(prefix, prefixLength), "prefix " + prefixLength);
+            assertEquals(hash, other.prefixHash(prefixLength), "prefix " + prefixLength);
+
+            // The last gene of the prefix does
+            if (prefixLength > 0) {
+                changed[prefixLength - 1] = changed[prefixLength - 1] % 4 + 1;
+                other = new Individual(changed);
+                assertFalse(other.prefixEquals(prefix, prefixLength), "prefix " + prefixLength);
+                assertNotEquals(hash, other.prefixHash(prefixLength), "prefix " + prefixLength);
+            }
+        }
+    }
+}
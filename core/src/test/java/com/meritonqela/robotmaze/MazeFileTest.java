@@ -0,0 +1,142 @@
+package com.meritonqela.robotmaze;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that mazes written to a maze file, or converted from text, map
+ * back to the grid they were made from, whatever the number of columns.
+ *
+ * @author Meriton Çela
+ */
+class MazeFileTest {
+
+    @TempDir
+    Path directory;
+
+    private static void assertSameMaze(Maze expected, Maze actual) {
+        assertEquals(expected.getMaxX(), actual.getMaxX());
+        assertEquals(expected.getMaxY(), actual.getMaxY());
+        assertEquals(expected.getStartX(), actual.getStartX());
+        assertEquals(expected.getStartY(), actual.getStartY());
+        assertEquals(expected.getEndX(), actual.getEndX());
+        assertEquals(expected.getEndY(), actual.getEndY());
+        assertEquals(expected.getNumOfFreeSpaces(), actual.getNumOfFreeSpaces());
+        for (int x = 0; x <= expected.getMaxX(); x++) {
+            for (int y = 0; y <= expected.getMaxY(); y++) {
+                assertEquals(expected.getPositionValue(x, y), actual.getPositionValue(x, y), x + ", " + y);
+            }
+        }
+    }
+
+    /** The rows of a grid as a Java array literal, with CRLF line ends and no final one */
+    private static String asArrayLiteral(int[][] grid) {
+        StringBuilder text = new StringBuilder();
+        for (int x = 0; x < grid.length; x++) {
+            text.append("  {");
+            for (int y = 0; y < grid[x].length; y++) {
+                text.append(y > 0 ? ", " : "").append(grid[x][y]);
+            }
+            text.append("},");
+            if (x < grid.length - 1) {
+                text.append("\r\n");
+            }
+        }
+        return text.toString();
+    }
+
+    /** The rows of a grid drawn with #, ., S and G */
+    private static String asDrawing(int[][] grid) {
+        StringBuilder text = new StringBuilder();
+        for (int[] row : grid) {
+            for (int value : row) {
+                text.append(value == 1 ? '#' : value == 2 ? 'S' : value == 4 ? 'G' : '.');
+            }
+            text.append('\n');
+        }
+        return text.toString();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {2, 47, 63, 64, 65, 100, 128})
+    void writtenMazesMapBack(int columns) throws IOException {
+        Maze maze = new MazeGenerator(columns).generate(MazeGenerator.Style.CELLULAR_AUTOMATA, 33, columns);
+        Path path = this.directory.resolve("maze.rmaz");
+
+        MazeFile.write(maze, path);
+        Maze mapped = MazeFile.map(path);
+
+        assertTrue(mapped.isPacked());
+        assertSameMaze(maze, mapped);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {47, 64, 65, 100})
+    void convertedTextMapsBack(int columns) throws IOException {
+        Maze maze = new MazeGenerator(columns).generate(MazeGenerator.Style.PRIM, 33, columns);
+        int[][] grid = maze.getMaze();
+        Path written = this.directory.resolve("written.rmaz");
+        MazeFile.write(maze, written);
+
+        for (String text : new String[] {asArrayLiteral(grid), asDrawing(grid)}) {
+            Path source = this.directory.resolve("maze.txt");
+            Path converted = this.directory.resolve("converted.rmaz");
+            Files.writeString(source, text);
+
+            MazeFile.convert(source, converted);
+            assertSameMaze(maze, MazeFile.map(converted));
+            assertArrayEquals(Files.readAllBytes(written), Files.readAllBytes(converted));
+        }
+    }
+
+    @Test
+    void tellsMazeFilesFromText() throws IOException {
+        Maze maze = new MazeGenerator(1).generate(MazeGenerator.Style.PRIM, 9, 9);
+        Path file = this.directory.resolve("maze.rmaz");
+        Path text = this.directory.resolve("maze.txt");
+        MazeFile.write(maze, file);
+        Files.writeString(text, asDrawing(maze.getMaze()));
+
+        assertTrue(MazeFile.isMazeFile(file));
+        assertFalse(MazeFile.isMazeFile(text));
+        assertThrows(IOException.class, () -> MazeFile.map(text));
+    }
+
+    @Test
+    void refusesBadText() throws IOException {
+        Path text = this.directory.resolve("maze.txt");
+        Path file = this.directory.resolve("maze.rmaz");
+
+        // Rows of different lengths, an unknown cell, no start, and nothing at all
+        for (String bad : new String[] {"S.\n.", "S.G\n..x\n", "...\n..G\n", ""}) {
+            Files.writeString(text, bad);
+            assertThrows(IOException.class, () -> MazeFile.convert(text, file), bad);
+        }
+    }
+
+    @Test
+    void refusesTruncatedFiles() throws IOException {
+        Maze maze = new MazeGenerator(2).generate(MazeGenerator.Style.PRIM, 9, 9);
+        Path file = this.directory.resolve("maze.rmaz");
+        MazeFile.write(maze, file);
+        byte[] bytes = Files.readAllBytes(file);
+
+        for (int length : new int[] {8, 39, bytes.length - 1}) {
+            Files.write(file, Arrays.copyOf(bytes, length));
+            assertThrows(IOException.class, () -> MazeFile.map(file), "length " + length);
+        }
+    }
+}
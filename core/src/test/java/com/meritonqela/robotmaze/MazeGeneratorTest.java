@@ -0,0 +1,110 @@
+package com.meritonqela.robotmaze;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that every generated maze has a start and a goal, that the goal
+ * can be reached from the start, and that a seed gives the same maze.
+ *
+ * @author Meriton Çela
+ */
+class MazeGeneratorTest {
+
+    private static final int[][] SIZES = {{2, 2}, {2, 9}, {5, 3}, {21, 21}, {40, 61}, {199, 301}};
+
+    static Stream<Arguments> stylesAndSizes() {
+        return Stream.of(MazeGenerator.Style.values())
+                .flatMap(style -> Stream.of(SIZES).map(size -> Arguments.of(style, size[0], size[1])));
+    }
+
+    private static MazeGenerator newGenerator(MazeGenerator.Style style, long seed) {
+        MazeGenerator generator = new MazeGenerator(seed);
+        if (style == MazeGenerator.Style.CELLULAR_AUTOMATA && seed % 2 == 0) {
+            // The density RobotController uses, as well as the default
+            generator.setWallDensity(0.45);
+        }
+        return generator;
+    }
+
+    @ParameterizedTest
+    @MethodSource("stylesAndSizes")
+    void goalCanBeReachedFromTheStart(MazeGenerator.Style style, int rows, int columns) {
+        for (long seed = 0; seed < 8; seed++) {
+            String message = style + " " + rows + "x" + columns + ", seed " + seed;
+            Maze maze = newGenerator(style, seed).generate(style, rows, columns);
+            int[][] grid = maze.getMaze();
+            assertEquals(rows, grid.length, message);
+            assertEquals(columns, grid[0].length, message);
+
+            // One start and one goal, where the maze says they are
+            int starts = 0;
+            int goals = 0;
+            int free = 0;
+            for (int[] row : grid) {
+                for (int value : row) {
+                    starts += value == 2 ? 1 : 0;
+                    goals += value == 4 ? 1 : 0;
+                    free += value == 0 ? 1 : 0;
+                }
+            }
+            assertEquals(1, starts, message);
+            assertEquals(1, goals, message);
+            assertEquals(free, maze.getNumOfFreeSpaces(), message);
+            assertEquals(2, maze.getPositionValue(maze.getStartX(), maze.getStartY()), message);
+            assertEquals(4, maze.getPositionValue(maze.getEndX(), maze.getEndY()), message);
+
+            // The distance the DISTANCE fitness mode scores robots by
+            int distance = maze.getStartDistance();
+            assertNotEquals(Maze.UNREACHABLE, distance, message);
+            assertTrue(distance > 0, message);
+            assertEquals(distance, maze.toPacked().getStartDistance(), message);
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("stylesAndSizes")
+    void sameSeedGivesTheSameMaze(MazeGenerator.Style style, int rows, int columns) {
+        Maze first = newGenerator(style, 42).generate(style, rows, columns);
+        // A generator makes the same maze every time, not only a new generator
+        MazeGenerator generator = newGenerator(style, 42);
+        generator.generate(style, rows, columns);
+        Maze second = generator.generate(style, rows, columns);
+
+        assertArrayEquals(first.getMaze(), second.getMaze());
+        assertEquals(first.getStartX(), second.getStartX());
+        assertEquals(first.getStartY(), second.getStartY());
+        assertEquals(first.getEndX(), second.getEndX());
+        assertEquals(first.getEndY(), second.getEndY());
+    }
+
+    @Test
+    void otherSeedsGiveOtherMazes() {
+        for (MazeGenerator.Style style : MazeGenerator.Style.values()) {
+            Maze first = new MazeGenerator(1).generate(style, 41, 41);
+            Maze second = new MazeGenerator(2).generate(style, 41, 41);
+            assertFalse(Arrays.deepEquals(first.getMaze(), second.getMaze()), style.toString());
+        }
+    }
+
+    @Test
+    void tooSmallMazesAreRejected() {
+        MazeGenerator generator = new MazeGenerator(1);
+        assertThrows(IllegalArgumentException.class, () -> generator.generate(MazeGenerator.Style.PRIM, 1, 10));
+        assertThrows(IllegalArgumentException.class, () -> generator.generate(MazeGenerator.Style.PRIM, 10, 1));
+        assertThrows(IllegalArgumentException.class, () -> generator.setWallDensity(1.5));
+        assertThrows(IllegalArgumentException.class, () -> generator.setCorridorLength(0));
+    }
+}
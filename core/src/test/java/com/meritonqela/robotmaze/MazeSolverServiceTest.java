@@ -0,0 +1,209 @@
+package com.meritonqela.robotmaze;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the service evolves its jobs in turns, that each job's
+ * future gets the result its engine gives alone, and that cancelling a
+ * job stops its engine while the other jobs finish.
+ *
+ * @author Meriton Çela
+ */
+class MazeSolverServiceTest {
+
+    private static final int MAX_MOVES = 300;
+    private static final long TIMEOUT_SECONDS = 60;
+
+    private static Maze maze(long seed) {
+        return new MazeGenerator(seed).generate(MazeGenerator.Style.PRIM, 15, 15);
+    }
+
+    private static EvolutionEngine newEngine(Maze maze, long seed) {
+        GeneticAlgorithm ga = new GeneticAlgorithm(40, 0.02, 0.9, 2, 5);
+        ga.setMaxMoves(MAX_MOVES);
+        EvolutionEngine engine = new EvolutionEngine(ga, maze, MAX_MOVES);
+        engine.setSeed(seed);
+        return engine;
+    }
+
+    /** A condition that holds the worker running it until released, then is met */
+    private static TerminationCondition gate(CountDownLatch reached, CountDownLatch released) {
+        return engine -> {
+            reached.countDown();
+            try {
+                released.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+            return true;
+        };
+    }
+
+    private static Individual await(CompletableFuture<Individual> future) throws Exception {
+        return future.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void jobsTakeTurnsASliceAtATime() throws Exception {
+        MazeSolverService service = new MazeSolverService(1, maze -> newEngine(maze, 1));
+        service.setSliceGenerations(2);
+        // Hold the only worker until every job is queued
+        CountDownLatch reached = new CountDownLatch(1);
+        CountDownLatch released = new CountDownLatch(1);
+        CompletableFuture<Individual> gate = service.submit(maze(1), gate(reached, released));
+        assertTrue(reached.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        List<Integer> turns = new ArrayList<>();
+        List<CompletableFuture<Individual>> futures = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            int job = i;
+            TerminationCondition condition = TerminationCondition.maxGenerations(20);
+            futures.add(service.submit(newEngine(maze(2 + i), 2 + i), engine -> {
+                synchronized (turns) {
+                    // A new turn starts when the job changes
+                    if (turns.isEmpty() || turns.get(turns.size() - 1) != job) {
+                        turns.add(job);
+                    }
+                }
+                return condition.isMet(engine);
+            }));
+        }
+        assertEquals(4, service.getPendingJobs());
+        released.countDown();
+        await(gate);
+        for (CompletableFuture<Individual> future : futures) {
+            await(future);
+        }
+
+        // 20 generations in slices of 2, each job gets a turn in the order submitted
+        List<Integer> expected = new ArrayList<>();
+        for (int slice = 0; slice < 10; slice++) {
+            expected.addAll(List.of(0, 1, 2));
+        }
+        assertEquals(expected, turns);
+        service.shutdown();
+        assertTrue(service.awaitTermination(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void cancelledJobStopsAndTheOthersFinish() throws Exception {
+        MazeSolverService service = new MazeSolverService(2, maze -> newEngine(maze, 1));
+        service.setSliceGenerations(3);
+
+        // A job that never stops on its own
+        CountDownLatch running = new CountDownLatch(1);
+        EvolutionEngine endless = newEngine(maze(10), 10);
+        CompletableFuture<Individual> cancelled = service.submit(endless, engine -> {
+            if (engine.getGeneration() >= 5) {
+                running.countDown();
+            }
+            return false;
+        });
+
+        List<CompletableFuture<Individual>> futures = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            futures.add(service.submit(newEngine(maze(20 + i), 20 + i), TerminationCondition.maxGenerations(40)));
+        }
+        // Through the service's own factory
+        futures.add(service.submit(maze(30), TerminationCondition.maxGenerations(40)));
+
+        assertTrue(running.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertTrue(cancelled.cancel(false));
+        assertTrue(cancelled.isCancelled());
+        assertThrows(CancellationException.class, cancelled::join);
+
+        // Every other job gets the result its engine gives alone with the same seed
+        for (int i = 0; i < futures.size(); i++) {
+            Individual result = await(futures.get(i));
+            EvolutionEngine alone = i < 4 ? newEngine(maze(20 + i), 20 + i) : newEngine(maze(30), 1);
+            Individual expected = alone.run(TerminationCondition.maxGenerations(40));
+            assertEquals(expected.getFitness(), result.getFitness(), "job " + i);
+            assertArrayEquals(expected.getChromosome(), result.getChromosome(), "job " + i);
+        }
+        service.shutdown();
+        assertTrue(service.awaitTermination(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(0, service.getPendingJobs());
+    }
+
+    @Test
+    void cancellingStopsTheEngineInTheMiddleOfASlice() throws Exception {
+        MazeSolverService service = new MazeSolverService(1, maze -> newEngine(maze, 1));
+        // One slice for the whole run, only engine.stop ends it
+        service.setSliceGenerations(Integer.MAX_VALUE);
+        CountDownLatch running = new CountDownLatch(1);
+        AtomicInteger lastGeneration = new AtomicInteger();
+        CompletableFuture<Individual> future = service.submit(newEngine(maze(5), 5), engine -> {
+            lastGeneration.set(engine.getGeneration());
+            if (engine.getGeneration() >= 5) {
+                running.countDown();
+            }
+            return false;
+        });
+
+        assertTrue(running.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        future.cancel(false);
+        int generation = lastGeneration.get();
+        service.shutdown();
+        assertTrue(service.awaitTermination(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        // It stops after the generation being bred when it was cancelled
+        assertTrue(lastGeneration.get() <= generation + 1, lastGeneration.get() + " after " + generation);
+    }
+
+    @Test
+    void failedJobFailsItsFutureOnly() throws Exception {
+        MazeSolverService service = new MazeSolverService(2, maze -> newEngine(maze, 1));
+        IllegalStateException failure = new IllegalStateException("condition failed");
+        CompletableFuture<Individual> failed = service.submit(maze(1), engine -> {
+            if (engine.getGeneration() > 12) {
+                throw failure;
+            }
+            return false;
+        });
+        CompletableFuture<Individual> other = service.submit(maze(2), TerminationCondition.maxGenerations(30));
+
+        CompletionException e = assertThrows(CompletionException.class, failed::join);
+        assertSame(failure, e.getCause());
+        assertTrue(await(other).getFitness() > 0);
+        service.shutdown();
+        assertTrue(service.awaitTermination(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void shutdownServiceRejectsJobs() throws Exception {
+        MazeSolverService service = new MazeSolverService(1, maze -> newEngine(maze, 1));
+        CountDownLatch reached = new CountDownLatch(1);
+        CountDownLatch released = new CountDownLatch(1);
+        CompletableFuture<Individual> gate = service.submit(maze(1), gate(reached, released));
+        CompletableFuture<Individual> waiting = service.submit(maze(2), TerminationCondition.maxGenerations(1000));
+        assertTrue(reached.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        service.shutdownNow();
+        assertThrows(RejectedExecutionException.class,
+                () -> service.submit(maze(3), TerminationCondition.maxGenerations(10)));
+        assertTrue(gate.isCancelled());
+        assertTrue(waiting.isCancelled());
+        released.countDown();
+        assertTrue(service.awaitTermination(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(0, service.getPendingJobs());
+
+        assertThrows(IllegalArgumentException.class, () -> new MazeSolverService(0, maze -> newEngine(maze, 1)));
+        assertThrows(IllegalArgumentException.class, () -> service.setSliceGenerations(0));
+    }
+}
@@ -0,0 +1,230 @@
+package com.meritonqela.robotmaze;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that point mutations pick each gene with the mutation rate, and
+ * that every operator keeps genes valid and only changes the genes it
+ * picked, or the genes its change of a picked gene is defined to move.
+ *
+ * @author Meriton Çela
+ */
+class MutationTest {
+
+    private static final int LENGTH = 300;
+
+    /** Checks the change of one picked gene */
+    private interface GeneCheck {
+        void check(int offset, int[] before, int[] after, String message);
+    }
+
+    /** Mutates like an operator, recording each gene it picks and checking each change */
+    private static final class Recorder extends PointMutation {
+        private final PointMutation operator;
+        private final GeneCheck check;
+        private final List<Integer> picked = new ArrayList<>();
+
+        Recorder(PointMutation operator, GeneCheck check) {
+            this.operator = operator;
+            this.check = check;
+        }
+
+        @Override
+        protected void mutateGene(Individual individual, int offset, RandomGenerator random) {
+            int[] before = individual.getChromosome();
+            this.operator.mutateGene(individual, offset, random);
+            if (this.check != null) {
+                this.check.check(offset, before, individual.getChromosome(), this.operator + ", gene " + offset);
+            }
+            this.picked.add(offset);
+        }
+    }
+
+    private static Recorder picker() {
+        return new Recorder(new RandomResetMutation(), null);
+    }
+
+    @Test
+    void meanPickedGenesIsRateTimesLength() {
+        int length = 1000;
+        int trials = 2000;
+        SplittableRandom random = new SplittableRandom(1);
+        Recorder recorder = picker();
+        // One instance through every rate, it caches values derived from the last one
+        for (double rate : new double[] {0.001, 0.01, 0.05, 0.3, 0.9, 0.01}) {
+            int[] perBucket = new int[10];
+            recorder.picked.clear();
+            for (int trial = 0; trial < trials; trial++) {
+                recorder.mutate(new Individual(length, random), rate, random);
+            }
+            for (int offset : recorder.picked) {
+                perBucket[offset * perBucket.length / length]++;
+            }
+
+            // Within five standard deviations of the binomial mean
+            double mean = (double) recorder.picked.size() / trials;
+            double deviation = Math.sqrt(length * rate * (1 - rate) / trials);
+            assertEquals(rate * length, mean, 5 * deviation, "rate " + rate);
+            // Genes are picked alike wherever they are in the chromosome
+            double bucketDeviation = Math.sqrt(length / perBucket.length * rate * (1 - rate) / trials);
+            for (int bucket = 0; bucket < perBucket.length; bucket++) {
+                assertEquals(rate * length / perBucket.length, (double) perBucket[bucket] / trials,
+                        5 * bucketDeviation, "rate " + rate + ", bucket " + bucket);
+            }
+        }
+    }
+
+    @Test
+    void genesArePickedOnceInOrder() {
+        SplittableRandom random = new SplittableRandom(2);
+        Recorder recorder = picker();
+        for (int trial = 0; trial < 500; trial++) {
+            recorder.picked.clear();
+            recorder.mutate(new Individual(LENGTH, random), 0.2, random);
+            for (int i = 0; i < recorder.picked.size(); i++) {
+                int offset = recorder.picked.get(i);
+                assertTrue(offset >= 0 && offset < LENGTH, "gene " + offset);
+                assertTrue(i == 0 || offset > recorder.picked.get(i - 1), "gene " + offset);
+            }
+        }
+    }
+
+    @Test
+    void rateOnePicksEveryGene() {
+        SplittableRandom random = new SplittableRandom(3);
+        Recorder recorder = picker();
+        for (int length : new int[] {1, 31, 32, 33, LENGTH}) {
+            recorder.picked.clear();
+            recorder.mutate(new Individual(length, random), 1, random);
+            int[] expected = new int[length];
+            Arrays.setAll(expected, i -> i);
+            assertArrayEquals(expected, recorder.picked.stream().mapToInt(Integer::intValue).toArray());
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(doubles = {0, -0.5, Double.NaN})
+    void rateZeroPicksNoGene(double rate) {
+        SplittableRandom random = new SplittableRandom(4);
+        Recorder recorder = picker();
+        for (int trial = 0; trial < 100; trial++) {
+            Individual individual = new Individual(LENGTH, random);
+            int[] genes = individual.getChromosome();
+            recorder.mutate(individual, rate, random);
+            assertArrayEquals(genes, individual.getChromosome());
+        }
+        assertEquals(0, recorder.picked.size());
+    }
+
+    /** The genes at which two chromosomes differ */
+    private static List<Integer> changed(int[] before, int[] after) {
+        List<Integer> changed = new ArrayList<>();
+        for (int i = 0; i < before.length; i++) {
+            if (before[i] != after[i]) {
+                changed.add(i);
+            }
+        }
+        return changed;
+    }
+
+    private static void checkRandomReset(int offset, int[] before, int[] after, String message) {
+        for (int i : changed(before, after)) {
+            assertEquals(offset, i, message);
+        }
+    }
+
+    private static void checkCreep(int offset, int[] before, int[] after, String message) {
+        assertEquals(List.of(offset), changed(before, after), message);
+        // A quarter turn, never the reverse: 1 up and 4 down, 2 left and 3 right
+        assertNotEquals(5, before[offset] + after[offset], message);
+    }
+
+    private static void checkSwap(int offset, int[] before, int[] after, String message) {
+        List<Integer> changed = changed(before, after);
+        if (changed.isEmpty()) {
+            // Swapped with itself or an equal gene
+            return;
+        }
+        assertEquals(2, changed.size(), message);
+        assertTrue(changed.contains(offset), message);
+        int other = changed.get(0) == offset ? changed.get(1) : changed.get(0);
+        assertEquals(before[other], after[offset], message);
+        assertEquals(before[offset], after[other], message);
+    }
+
+    private static GeneCheck checkInversion(int maxLength) {
+        return (offset, before, after, message) -> {
+            // Some run from the picked gene, of 2 to maxLength genes, reversed
+            int lastAllowed = Math.min(before.length, offset + maxLength) - 1;
+            for (int last = offset + 1; last <= lastAllowed; last++) {
+                int[] expected = before.clone();
+                for (int i = offset, j = last; i < j; i++, j--) {
+                    expected[i] = before[j];
+                    expected[j] = before[i];
+                }
+                if (Arrays.equals(expected, after)) {
+                    return;
+                }
+            }
+            // A picked last gene has no run to reverse
+            assertEquals(List.of(), changed(before, after), message);
+        };
+    }
+
+    static Stream<Arguments> operators() {
+        return Stream.of(
+                Arguments.of(new RandomResetMutation(), (GeneCheck) MutationTest::checkRandomReset, true),
+                Arguments.of(new CreepMutation(), (GeneCheck) MutationTest::checkCreep, true),
+                Arguments.of(new SwapMutation(), (GeneCheck) MutationTest::checkSwap, false),
+                Arguments.of(new InversionMutation(2), checkInversion(2), false),
+                Arguments.of(new InversionMutation(7), checkInversion(7), false));
+    }
+
+    @ParameterizedTest
+    @MethodSource("operators")
+    void operatorsOnlyChangePickedGenes(PointMutation operator, GeneCheck check, boolean inPlace) {
+        SplittableRandom random = new SplittableRandom(5);
+        Recorder recorder = new Recorder(operator, check);
+        for (double rate : new double[] {0.01, 0.2, 1}) {
+            for (int trial = 0; trial < 200; trial++) {
+                String message = operator + ", rate " + rate + ", trial " + trial;
+                Individual individual = new Individual(LENGTH, random);
+                int[] genes = individual.getChromosome();
+                recorder.picked.clear();
+                recorder.mutate(individual, rate, random);
+                int[] mutated = individual.getChromosome();
+
+                for (int gene : mutated) {
+                    assertTrue(gene >= 1 && gene <= 4, message + ": gene " + gene);
+                }
+                if (inPlace) {
+                    // Only the picked genes changed
+                    assertTrue(recorder.picked.containsAll(changed(genes, mutated)), message);
+                } else {
+                    // The genes were moved around, none was made up
+                    int[] sorted = genes.clone();
+                    int[] sortedMutated = mutated.clone();
+                    Arrays.sort(sorted);
+                    Arrays.sort(sortedMutated);
+                    assertArrayEquals(sorted, sortedMutated, message);
+                }
+            }
+        }
+    }
+}
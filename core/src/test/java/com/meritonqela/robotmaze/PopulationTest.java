@@ -0,0 +1,136 @@
+package com.meritonqela.robotmaze;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Checks the partial ranking of a population against a full sort, however
+ * far it is extended and however many individuals are equally fit.
+ *
+ * @author Meriton Çela
+ */
+class PopulationTest {
+
+    /** A population whose fitness is drawn from a few distinct values, or all distinct */
+    private static Population population(int size, int distinctFitness, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        Population population = new Population(size);
+        for (int i = 0; i < size; i++) {
+            Individual individual = new Individual(8);
+            individual.setFitness(distinctFitness > 0 ? random.nextInt(distinctFitness) : random.nextDouble());
+            population.setIndividual(i, individual);
+        }
+        return population;
+    }
+
+    private static double[] sortedFitness(Population population) {
+        double[] fitness = Arrays.stream(population.getIndividuals()).mapToDouble(Individual::getFitness).toArray();
+        Arrays.sort(fitness);
+        for (int i = 0, j = fitness.length - 1; i < j; i++, j--) {
+            double swap = fitness[i];
+            fitness[i] = fitness[j];
+            fitness[j] = swap;
+        }
+        return fitness;
+    }
+
+    @ParameterizedTest
+    @CsvSource({"1, 0", "2, 1", "7, 3", "100, 0", "100, 2", "257, 5", "1000, 0", "1000, 10"})
+    void fittestInOrderMatchesSort(int size, int distinctFitness) {
+        Population population = population(size, distinctFitness, size);
+        double[] expected = sortedFitness(population);
+
+        // One offset at a time, growing the ranking geometrically past half the population
+        for (int k = 0; k < size; k++) {
+            assertEquals(expected[k], population.getFittest(k).getFitness(), "offset " + k);
+        }
+        assertRankedIsPermutation(population);
+    }
+
+    @ParameterizedTest
+    @CsvSource({"100, 0", "100, 3", "1000, 0", "1000, 4"})
+    void fittestAtAnyOffsetMatchesSort(int size, int distinctFitness) {
+        double[] expected = sortedFitness(population(size, distinctFitness, 1));
+
+        // Each offset ranked from scratch, below and above half the population
+        for (int k = 0; k < size; k += 7) {
+            Population population = population(size, distinctFitness, 1);
+            assertEquals(expected[k], population.getFittest(k).getFitness(), "offset " + k);
+            for (int i = 0; i <= k; i++) {
+                assertEquals(expected[i], population.getFittest(i).getFitness(), "offset " + i + " after " + k);
+            }
+            assertRankedIsPermutation(population);
+        }
+    }
+
+    @Test
+    void fittestInRandomOrderMatchesSort() {
+        SplittableRandom random = new SplittableRandom(3);
+        Population population = population(500, 6, 3);
+        double[] expected = sortedFitness(population);
+
+        for (int i = 0; i < 2000; i++) {
+            int k = random.nextInt(500);
+            assertEquals(expected[k], population.getFittest(k).getFitness(), "offset " + k);
+        }
+        assertRankedIsPermutation(population);
+    }
+
+    /** The ranked view holds every individual of the population once */
+    private static void assertRankedIsPermutation(Population population) {
+        Set<Individual> ranked = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int i = 0; i < population.size(); i++) {
+            ranked.add(population.getRanked(i));
+        }
+        assertEquals(population.size(), ranked.size());
+        ranked.removeAll(Arrays.asList(population.getIndividuals()));
+        assertEquals(0, ranked.size());
+    }
+
+    @Test
+    void rankingFollowsChanges() {
+        Population population = population(50, 0, 4);
+        Individual fittest = population.getFittest(0);
+
+        // A fitness changed behind the population's back needs invalidateRanking
+        Individual weakest = population.getFittest(49);
+        weakest.setFitness(10);
+        assertSame(fittest, population.getFittest(0));
+        population.invalidateRanking();
+        assertSame(weakest, population.getFittest(0));
+
+        // Replacing an individual or evaluating the population invalidates it
+        Individual newcomer = new Individual(8);
+        newcomer.setFitness(20);
+        population.setIndividual(7, newcomer);
+        assertSame(newcomer, population.getFittest(0));
+        newcomer.setFitness(-1);
+        population.setPopulationFitness(0);
+        assertSame(weakest, population.getFittest(0));
+    }
+
+    @Test
+    void shuffleKeepsTheRanking() {
+        Population population = population(30, 0, 5);
+        double[] expected = sortedFitness(population);
+        population.getFittest(29);
+
+        population.shuffle(new SplittableRandom(6));
+        double[] ranked = new double[30];
+        for (int i = 0; i < 30; i++) {
+            ranked[i] = population.getFittest(i).getFitness();
+        }
+        assertArrayEquals(expected, ranked);
+    }
+}
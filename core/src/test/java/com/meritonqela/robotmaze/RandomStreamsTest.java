@@ -0,0 +1,115 @@
+package com.meritonqela.robotmaze;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * Checks that the streams of a seed are the same every time, and that
+ * parallel runs with the same seed and number of workers repeat exactly.
+ *
+ * @author Meriton Çela
+ */
+class RandomStreamsTest {
+
+    private static final int MAX_MOVES = 300;
+
+    private final Maze maze = new MazeGenerator(6).generate(MazeGenerator.Style.RECURSIVE_BACKTRACKER, 21, 21);
+
+    private static long[] draw(SplittableRandom random) {
+        return random.longs(8).toArray();
+    }
+
+    @Test
+    void streamsDependOnlyOnSeedIndexAndGeneration() {
+        RandomStreams streams = new RandomStreams(42);
+        RandomStreams same = new RandomStreams(42);
+
+        // Taking other streams first changes nothing
+        same.stream(7);
+        same.stream(3, 9);
+        assertArrayEquals(draw(streams.stream(2)), draw(same.stream(2)));
+        assertArrayEquals(draw(streams.stream(2, 5)), draw(same.stream(2, 5)));
+
+        assertNotEquals(draw(streams.stream(2))[0], draw(streams.stream(3))[0]);
+        assertNotEquals(draw(streams.stream(2, 5))[0], draw(streams.stream(2, 6))[0]);
+        assertNotEquals(draw(streams.stream(2))[0], draw(new RandomStreams(43).stream(2))[0]);
+        assertEquals(42, streams.getSeed());
+    }
+
+    private EvolutionEngine runEngine(int parallelism) {
+        GeneticAlgorithm ga = new GeneticAlgorithm(120, 0.02, 0.9, 2, 5);
+        ga.setMaxMoves(MAX_MOVES);
+        ga.setFitnessCacheCapacity(1000);
+        if (parallelism > 1) {
+            ga.setEvaluationParallelism(parallelism, 8);
+        }
+        EvolutionEngine engine = new EvolutionEngine(ga, this.maze, MAX_MOVES);
+        engine.setSeed(11);
+        engine.run(TerminationCondition.maxGenerations(60));
+        return engine;
+    }
+
+    @Test
+    void parallelEngineRunsRepeat() {
+        EvolutionEngine first = this.runEngine(4);
+        EvolutionEngine second = this.runEngine(4);
+        // Evaluation doesn't draw random numbers, so a serial run is the same run
+        EvolutionEngine serial = this.runEngine(1);
+
+        for (EvolutionEngine other : new EvolutionEngine[] {second, serial}) {
+            assertEquals(first.getGeneration(), other.getGeneration());
+            assertEquals(first.getBestSoFar().getFitness(), other.getBestSoFar().getFitness());
+            assertArrayEquals(first.getBestSoFar().getChromosome(), other.getBestSoFar().getChromosome());
+            Individual[] expected = first.getPopulation().getIndividuals();
+            Individual[] actual = other.getPopulation().getIndividuals();
+            for (int i = 0; i < expected.length; i++) {
+                assertArrayEquals(expected[i].getChromosome(), actual[i].getChromosome(), "individual " + i);
+                assertEquals(expected[i].getFitness(), actual[i].getFitness(), "individual " + i);
+            }
+        }
+    }
+
+    private Individual runIslands(IslandModel.Topology topology) throws InterruptedException {
+        IslandModel islands = new IslandModel(4, () -> {
+            GeneticAlgorithm ga = new GeneticAlgorithm(80, 0.02, 0.9, 2, 5);
+            ga.setMaxMoves(MAX_MOVES);
+            ga.setEvaluationParallelism(2, 8);
+            return ga;
+        });
+        islands.setTopology(topology);
+        islands.setMigration(5, 2);
+        islands.setSeed(17);
+        try {
+            return islands.run(this.maze, MAX_MOVES, 60);
+        } finally {
+            for (int i = 0; i < islands.getIslandCount(); i++) {
+                islands.getAlgorithm(i).close();
+            }
+        }
+    }
+
+    @Test
+    void islandRunsRepeat() throws InterruptedException {
+        for (IslandModel.Topology topology : IslandModel.Topology.values()) {
+            Individual first = this.runIslands(topology);
+            for (int run = 0; run < 3; run++) {
+                Individual again = this.runIslands(topology);
+                assertEquals(first.getFitness(), again.getFitness(), topology + ", run " + run);
+                assertArrayEquals(first.getChromosome(), again.getChromosome(), topology + ", run " + run);
+            }
+        }
+    }
+
+    @Test
+    void unseededEnginesDrawTheirOwnSeed() {
+        EvolutionEngine first = new EvolutionEngine(new GeneticAlgorithm(10, 0, 0, 0, 1), this.maze, MAX_MOVES);
+        EvolutionEngine second = new EvolutionEngine(new GeneticAlgorithm(10, 0, 0, 0, 1), this.maze, MAX_MOVES);
+        assertFalse(first.getSeed() == second.getSeed());
+    }
+}
@@ -0,0 +1,210 @@
+package com.meritonqela.robotmaze;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.function.IntPredicate;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that each termination condition, alone and combined, stops a
+ * seeded engine at the generation a trace of the same run says it should,
+ * and that the engine keeps the best individual it ever saw.
+ *
+ * @author Meriton Çela
+ */
+class TerminationConditionTest {
+
+    private static final int MAX_MOVES = 300;
+    private static final int SIZE = 50;
+    private static final int TRACED = 300;
+
+    private final Maze maze = new MazeGenerator(9).generate(MazeGenerator.Style.PRIM, 21, 21);
+
+    private EvolutionEngine newEngine(double mutationRate, int elitismCount) {
+        GeneticAlgorithm ga = new GeneticAlgorithm(SIZE, mutationRate, 0.9, elitismCount, 5);
+        ga.setMaxMoves(MAX_MOVES);
+        EvolutionEngine engine = new EvolutionEngine(ga, this.maze, MAX_MOVES);
+        engine.setSeed(13);
+        return engine;
+    }
+
+    private EvolutionEngine newEngine() {
+        return this.newEngine(0.02, 2);
+    }
+
+    /** What the engine reads at each generation of a run, indexed by generation */
+    private static final class Trace {
+        final double[] best = new double[TRACED + 1];
+        final int[] withoutImprovement = new int[TRACED + 1];
+        final double[] diversity = new double[TRACED + 1];
+        final long[] evaluations = new long[TRACED + 1];
+        final boolean[] goalReached = new boolean[TRACED + 1];
+
+        /** The first generation a condition should stop the run at */
+        int firstWhere(IntPredicate met) {
+            for (int generation = 1; generation <= TRACED; generation++) {
+                if (met.test(generation)) {
+                    return generation;
+                }
+            }
+            throw new AssertionError("The condition isn't met in the traced generations");
+        }
+    }
+
+    private Trace trace() {
+        Trace trace = new Trace();
+        EvolutionEngine engine = this.newEngine();
+        engine.start();
+        for (int generation = 1; generation <= TRACED; generation++) {
+            assertEquals(generation, engine.getGeneration());
+            trace.best[generation] = engine.getBestSoFar().getFitness();
+            trace.withoutImprovement[generation] = engine.getGenerationsWithoutImprovement();
+            trace.diversity[generation] = engine.getDiversity();
+            trace.evaluations[generation] = engine.getEvaluations();
+            trace.goalReached[generation] = engine.isGoalReached();
+            engine.step(TerminationCondition.maxGenerations(Integer.MAX_VALUE), 1);
+        }
+        engine.close();
+        return trace;
+    }
+
+    /** The generation a new engine stops at under a condition */
+    private int stopsAt(TerminationCondition condition) {
+        EvolutionEngine engine = this.newEngine();
+        engine.run(condition);
+        return engine.getGeneration();
+    }
+
+    @Test
+    void singleConditionsStopWhereTheTraceSays() {
+        Trace trace = this.trace();
+
+        assertEquals(1, this.stopsAt(TerminationCondition.maxGenerations(0)));
+        assertEquals(41, this.stopsAt(TerminationCondition.maxGenerations(40)));
+
+        // The initial population counts, so 175 evaluations are spent in the fourth generation
+        assertEquals(SIZE * 4, trace.evaluations[4]);
+        assertEquals(4, this.stopsAt(TerminationCondition.evaluationLimit(175)));
+        assertEquals(4, this.stopsAt(TerminationCondition.evaluationLimit(SIZE * 4)));
+
+        for (int generations : new int[] {1, 3, 10}) {
+            int expected = trace.firstWhere(g -> trace.withoutImprovement[g] >= generations);
+            assertEquals(expected, this.stopsAt(TerminationCondition.stagnation(generations)),
+                    "stagnation " + generations);
+        }
+
+        double target = trace.best[25];
+        assertEquals(trace.firstWhere(g -> trace.best[g] > target - 1e-9),
+                this.stopsAt(TerminationCondition.targetFitness(target - 1e-9)));
+
+        // A floor just above the diversity of generation 30, so the diversity is below it by then
+        double floor = trace.diversity[30] + 1e-12;
+        int expected = trace.firstWhere(g -> trace.diversity[g] < floor);
+        assertTrue(expected <= 30);
+        assertEquals(expected, this.stopsAt(TerminationCondition.diversityFloor(floor)));
+        assertEquals(1, this.stopsAt(TerminationCondition.diversityFloor(1.1)));
+    }
+
+    @Test
+    void combinedConditionsStopWhereTheTraceSays() {
+        Trace trace = this.trace();
+        TerminationCondition five = TerminationCondition.maxGenerations(5);
+        TerminationCondition ten = TerminationCondition.maxGenerations(10);
+
+        assertEquals(6, this.stopsAt(ten.or(five)));
+        assertEquals(6, this.stopsAt(five.or(ten)));
+        assertEquals(11, this.stopsAt(ten.and(five)));
+        assertEquals(11, this.stopsAt(five.and(ten)));
+        assertEquals(8, this.stopsAt(TerminationCondition.anyOf(
+                TerminationCondition.maxGenerations(30), TerminationCondition.maxGenerations(7), ten)));
+        assertEquals(3, this.stopsAt(TerminationCondition.anyOf(
+                ten, TerminationCondition.evaluationLimit(SIZE * 3))));
+
+        // The controller's condition: the goal was reached and nothing better came for a while
+        int expected = trace.firstWhere(g -> g > 199 || trace.goalReached[g] && trace.withoutImprovement[g] >= 10);
+        assertEquals(expected, this.stopsAt(TerminationCondition.maxGenerations(199)
+                .or(TerminationCondition.goalReached().and(TerminationCondition.stagnation(10)))));
+    }
+
+    @Test
+    void anyOfNothingNeverStops() {
+        EvolutionEngine engine = this.newEngine();
+        engine.start();
+        assertFalse(engine.step(TerminationCondition.anyOf(), 20));
+        assertEquals(21, engine.getGeneration());
+        engine.close();
+    }
+
+    @Test
+    void timeLimitStopsOnceTheBudgetIsSpent() {
+        assertEquals(1, this.stopsAt(TerminationCondition.timeLimit(Duration.ZERO)));
+
+        EvolutionEngine engine = this.newEngine();
+        engine.run(TerminationCondition.timeLimit(Duration.ofMillis(100))
+                .or(TerminationCondition.maxGenerations(1_000_000)));
+        assertTrue(engine.getElapsedNanos() >= Duration.ofMillis(100).toNanos());
+        assertTrue(engine.getGeneration() < 1_000_000);
+    }
+
+    @Test
+    void badArgumentsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> TerminationCondition.stagnation(0));
+    }
+
+    @Test
+    void bestSoFarIsTheBestEverSeen() {
+        // No elites and a high mutation rate, so populations often lose their best individual
+        EvolutionEngine engine = this.newEngine(0.2, 0);
+        GeneticAlgorithm fresh = new GeneticAlgorithm(1, 0, 0, 0, 1);
+        fresh.setMaxMoves(MAX_MOVES);
+        engine.start();
+
+        double best = Double.NEGATIVE_INFINITY;
+        int lastImprovement = 1;
+        int fallbacks = 0;
+        for (int generation = 1; generation <= 150; generation++) {
+            String message = "generation " + generation;
+            Individual fittest = engine.getPopulation().getFittest(0);
+            if (fittest.getFitness() > best) {
+                best = fittest.getFitness();
+                lastImprovement = generation;
+            } else if (fittest.getFitness() < best) {
+                fallbacks++;
+            }
+
+            Individual bestSoFar = engine.getBestSoFar();
+            assertEquals(best, bestSoFar.getFitness(), message);
+            assertEquals(generation - lastImprovement, engine.getGenerationsWithoutImprovement(), message);
+            // A copy that scores what it says, not an individual the pool overwrites
+            for (Individual individual : engine.getPopulation().getIndividuals()) {
+                assertNotSame(individual, bestSoFar, message);
+            }
+            assertEquals(fresh.calcFitness(new Individual(bestSoFar.getChromosome()), this.maze),
+                    bestSoFar.getFitness(), message);
+
+            int[] genes = bestSoFar.getChromosome();
+            engine.step(TerminationCondition.maxGenerations(Integer.MAX_VALUE), 1);
+            if (engine.getBestSoFar() == bestSoFar) {
+                assertArrayEquals(genes, bestSoFar.getChromosome(), message);
+            }
+        }
+        engine.close();
+        assertTrue(fallbacks > 0, "no population was worse than the best so far");
+    }
+
+    @Test
+    void tracedRunRepeats() {
+        Trace first = this.trace();
+        Trace second = this.trace();
+        assertArrayEquals(first.best, second.best);
+        assertArrayEquals(first.evaluations, second.evaluations);
+        assertArrayEquals(first.diversity, second.diversity);
+    }
+}
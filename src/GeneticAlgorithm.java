@@ -1,229 +0,0 @@
-import java.util.Random;
-
-/** This GeneticAlgorithm class is designed to solve the
- * "Robot Controller in a Maze" problem.
- *
- * This class introduces the concepts of tournament selection and single-point
- * crossover. Additionally, the calcFitness method count the number of Robot's moves,
- * in this case we actually have to evaluate how good the robot follows instructions and doesn't destroyed!
- *
- * References 'Genetic Algorithms in Java Basics' - Lee Jacobson, Burak Kanber
- *
- * @author Meriton Çela
- */
-
-
-public class GeneticAlgorithm {
-
-    private int populationSize;
-    private double mutationRate;
-    private double crossoverRate;
-    private int elitismCount;
-
-    protected int tournamentSize;
-
-    public GeneticAlgorithm(int populationSize, double mutationRate, double crossoverRate, int elitismCount,
-                            int tournamentSize) {
-
-        this.populationSize = populationSize;
-        this.mutationRate = mutationRate;
-        this.crossoverRate = crossoverRate;
-        this.elitismCount = elitismCount;
-        this.tournamentSize = tournamentSize;
-    }
-
-    /** Initialize population
-     * @param chromosomeLength
-     *            The length of the individuals chromosome
-     * @return population The initial population generated
-     */
-    public Population initPopulation(int chromosomeLength) {
-        // Initialize population
-        Population population = new Population(this.populationSize, chromosomeLength);
-        return population;
-    }
-
-    /** Calculate fitness for an individual.
-     *
-     * This fitness calculation is made in that way, that count the Robot's moves. In
-     * this case we initialize a new Robot class, and evaluate its performance
-     * in the given maze.
-     *
-     * @param individual
-     *            the individual to evaluate
-     * @param maze
-     *            the maze
-     * @return double The fitness value for individual
-     */
-    public double calcFitness(Individual individual, Maze maze) {
-        // Get individual's chromosome
-        int[] chromosome = individual.getChromosome();
-
-        // Get fitness
-        Robot robot = new Robot(chromosome, maze, 150);
-        robot.run();
-
-        int fitness = robot.moves;
-
-        // Store fitness
-        individual.setFitness(fitness);
-
-        // steps of robot
-        individual.setGoodGenes(robot.step);
-
-        return fitness;
-    }
-
-    /**
-     * Evaluate the whole population
-     *
-     * Essentially, loop over the individuals in the population, calculate the
-     * fitness for each, and then calculate the entire population's fitness. The
-     * population's fitness may or may not be important, but what is important
-     * here is making sure that each individual gets evaluated.
-     *
-     * @param population
-     *            the population to evaluate
-     * @param maze
-     *            the maze to evaluate each individual against.
-     */
-    public void evalPopulation(Population population, Maze maze) {
-        double populationFitness = 0;
-
-        // Loop over population evaluating individuals and suming population
-        // fitness
-        for (Individual individual : population.getIndividuals()) {
-            populationFitness += this.calcFitness(individual, maze);
-        }
-
-        population.setPopulationFitness(populationFitness);
-    }
-
-    /** Check if population has met termination condition
-     * @param generationsCount
-     *            Number of generations passed
-     * @param maxGenerations
-     *            Number of generations to terminate after
-     * @return boolean True if termination condition met, otherwise, false
-     */
-    public boolean isTerminationConditionMet(int generationsCount, int maxGenerations) {
-        return (generationsCount > maxGenerations);
-    }
-
-    /** Selects parent for crossover using tournament selection
-     *
-     * Tournament selection works by choosing N random individuals, and then
-     * choosing the best of those.
-     *
-     * @param population
-     * @return The individual selected as a parent
-     */
-    public Individual selectParent(Population population) {
-        // Create tournament
-        Population tournament = new Population(this.tournamentSize);
-
-        // Add random individuals to the tournament
-        population.shuffle();
-        for (int i = 0; i < this.tournamentSize; i++) {
-            Individual tournamentIndividual = population.getIndividual(i);
-            tournament.setIndividual(i, tournamentIndividual);
-        }
-
-        // Return the best
-        return tournament.getFittest(0);
-    }
-
-    /** Apply mutation to population
-     * @param population
-     *            The population to apply mutation to
-     * @return The mutated population
-     */
-    public Population mutatePopulation(Population population) {
-        // Initialize new population
-        Population newPopulation = new Population(this.populationSize);
-
-        // Loop over current population by fitness
-        for (int populationIndex = 0; populationIndex < population.size(); populationIndex++) {
-            Individual individual = population.getFittest(populationIndex);
-
-            // Loop over individual's genes
-            for (int geneIndex = 0; geneIndex < individual.getChromosomeLength(); geneIndex++) {
-                // Skip mutation if this is an elite individual
-                if (populationIndex >= this.elitismCount) {
-                    // Does this gene need mutation?
-                    if (this.mutationRate > Math.random()) {
-                        // Get new gene
-                        int newGene = randInt(1,4);
-                        // Mutate gene
-                        individual.setGene(geneIndex, newGene);
-                    }
-                }
-            }
-
-
-            // Add individual to population
-            newPopulation.setIndividual(populationIndex, individual);
-        }
-
-        // Return mutated population
-        return newPopulation;
-    }
-
-    /** Crossover population using single point crossover
-     * This version, however, might look like this:
-     *
-     * Parent1: AAAAAAAAAA
-     * Parent2: BBBBBBBBBB
-     * Child  : AAAABBBBBB
-     *
-     * @param population
-     *            Population to crossover
-     * @return Population The new population
-     */
-    public Population crossoverPopulation(Population population) {
-        // Create new population
-        Population newPopulation = new Population(population.size());
-
-        // Loop over current population by fitness
-        for (int populationIndex = 0; populationIndex < population.size(); populationIndex++) {
-            Individual parent1 = population.getFittest(populationIndex);
-
-            // Apply crossover to this individual?
-            if (this.crossoverRate > Math.random() && populationIndex >= this.elitismCount) {
-                // Initialize offspring
-                Individual offspring = new Individual(parent1.getChromosomeLength());
-
-                // Find second parent
-                Individual parent2 = this.selectParent(population);
-
-                // Get random swap point
-                int swapPoint = (int) (Math.random() * (parent1.getChromosomeLength() + 1));
-
-                // Loop over genome
-                for (int geneIndex = 0; geneIndex < parent1.getChromosomeLength(); geneIndex++) {
-                    // Use half of parent1's genes and half of parent2's genes
-                    if (geneIndex < swapPoint) {
-                        offspring.setGene(geneIndex, parent1.getGene(geneIndex));
-                    } else {
-                        offspring.setGene(geneIndex, parent2.getGene(geneIndex));
-                    }
-                }
-
-                // Add offspring to new population
-                newPopulation.setIndividual(populationIndex, offspring);
-            } else {
-                // Add individual to new population without applying crossover
-                newPopulation.setIndividual(populationIndex, parent1);
-            }
-        }
-
-        return newPopulation;
-    }
-
-    private static int randInt(int min, int max){
-        Random rand = new Random();
-        int randomNum = rand.nextInt((max-min)+1)+min;
-        return randomNum;
-    }
-
-}